@@ -85,7 +85,13 @@ public class FormAvroConverter implements ConverterConstants {
      */
     public static RecordField createRecordFieldFromSchema(Schema schema, CtlSource ctlSource) throws IOException {
         FormContext context = ctlSource != null ? new FormContext(ctlSource.getCtlTypes()) : new FormContext();
-        FormField formField = createFieldFromSchema(context, schema, null);
+        FormField formField;
+        context.beginBatch();
+        try {
+            formField = createFieldFromSchema(context, schema, null);
+        } finally {
+            context.commitBatch();
+        }
         if (formField instanceof RecordField) {
             return (RecordField)formField;
         } else {
@@ -134,7 +140,13 @@ public class FormAvroConverter implements ConverterConstants {
     public static RecordField createRecordFieldFromGenericRecord(GenericRecord record, CtlSource ctlSource) throws IOException {
         Schema schema = record.getSchema();
         RecordField formData = createRecordFieldFromSchema(schema, ctlSource);
-        fillRecordFieldFromGenericRecord(formData.getContext(), formData, record);
+        FormContext context = formData.getContext();
+        context.beginBatch();
+        try {
+            fillRecordFieldFromGenericRecord(context, formData, record);
+        } finally {
+            context.commitBatch();
+        }
         return formData;
     }
     
@@ -190,7 +202,7 @@ public class FormAvroConverter implements ConverterConstants {
                     isTypeConsumer = isTypeConsumerVal.asBoolean();
                 }
                 RecordField newRecordField = createField(context, fieldType, fieldName, displayName, fieldTypeSchemaString, optional, isOverride);
-                newRecordField.setFqn(new Fqn(fieldTypeSchema.getNamespace(), fieldTypeSchema.getName()));
+                newRecordField.setFqn(context.getFqnPool().getFqn(fieldTypeSchema.getNamespace(), fieldTypeSchema.getName()));
                 newRecordField.setIsTypeHolder(isTypeHolder);
                 newRecordField.setIsTypeConsumer(isTypeConsumer);
                 context.putRecordMetadata(fieldTypeSchema.getNamespace(), fieldTypeSchema.getName(), newRecordField);
@@ -217,7 +229,7 @@ public class FormAvroConverter implements ConverterConstants {
             formField = arrayField;
         } else if (fieldType == FieldType.ENUM) {
             EnumField enumField = createField(context, fieldType, fieldName, displayName, fieldTypeSchemaString, optional, isOverride);
-            enumField.setFqn(new Fqn(fieldTypeSchema.getNamespace(), fieldTypeSchema.getName()));
+            enumField.setFqn(context.getFqnPool().getFqn(fieldTypeSchema.getNamespace(), fieldTypeSchema.getName()));
             List<String> enumSymbols = fieldTypeSchema.getEnumSymbols();
             List<FormEnum> enumValues = new ArrayList<>(enumSymbols.size());
             for (int i=0;i<enumSymbols.size();i++) {
@@ -233,7 +245,7 @@ public class FormAvroConverter implements ConverterConstants {
             formField = bytesField;
         } else if (fieldType == FieldType.FIXED) {
             FixedField fixedField = createField(context, fieldType, fieldName, displayName, fieldTypeSchemaString, optional, isOverride);
-            fixedField.setFqn(new Fqn(fieldTypeSchema.getNamespace(), fieldTypeSchema.getName()));
+            fixedField.setFqn(context.getFqnPool().getFqn(fieldTypeSchema.getNamespace(), fieldTypeSchema.getName()));
             fixedField.setFixedSize(fieldTypeSchema.getFixedSize());
             formField = fixedField;
         } else if (fieldType == FieldType.BOOLEAN) {
@@ -673,15 +685,7 @@ public class FormAvroConverter implements ConverterConstants {
             if (!field.getFieldType().isComplex() && matchesType(field.getFieldType(), jsonValue)) {
                 if (field.getFieldType() == FieldType.ENUM) {
                     String val = convertJsonValue(FieldType.ENUM, jsonValue);
-                    List<FormEnum> enumValues = ((EnumField)field).getEnumValues();
-                    boolean found = false;
-                    for (FormEnum enumVal : enumValues) {
-                        if (enumVal.getEnumSymbol().equals(val)) {
-                            found = true;
-                            break;
-                        }
-                    }
-                    if (!found) {
+                    if (!((EnumField)field).containsEnumSymbol(val)) {
                         continue;
                     }
                 } 
@@ -959,8 +963,7 @@ public class FormAvroConverter implements ConverterConstants {
                 FqnReferenceField fqnReferenceField = (FqnReferenceField)field;
                 if (value != null) {
                     String fqnString = value.toString();
-                    Fqn fqn = new Fqn(fqnString);
-                    FqnKey fqnKey = context.fqnToFqnKey(fqn);
+                    FqnKey fqnKey = context.fqnToFqnKey(fqnString);
                     if (fqnKey == null) {
                         throw new IllegalArgumentException("Type with FQN '" + fqnString + "' is not defined.");
                     }                    
@@ -1048,7 +1051,7 @@ public class FormAvroConverter implements ConverterConstants {
                 break;
             case ARRAY:
                 ArrayField arrayField = (ArrayField)field;
-                arrayField.getValue().clear();
+                arrayField.clearRows();
                 arrayField.finalizeMetadata();
                 Iterable<Object> arrayData = (Iterable<Object>)value;
                 if (arrayData != null) {
@@ -16,7 +16,9 @@
 package org.kaaproject.avro.ui.converter;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
@@ -26,9 +28,18 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.kaaproject.avro.ui.shared.ArrayField;
 import org.kaaproject.avro.ui.shared.BooleanField;
+import org.kaaproject.avro.ui.shared.BytesField;
 import org.kaaproject.avro.ui.shared.EnumField;
+import org.kaaproject.avro.ui.shared.EnumSymbolIndex;
+import org.kaaproject.avro.ui.shared.FieldType;
+import org.kaaproject.avro.ui.shared.FixedField;
+import org.kaaproject.avro.ui.shared.FormContext;
 import org.kaaproject.avro.ui.shared.FormEnum;
 import org.kaaproject.avro.ui.shared.FormField;
+import org.kaaproject.avro.ui.shared.FormField.ValueChangeListener;
+import org.kaaproject.avro.ui.shared.FormFieldVisitor;
+import org.kaaproject.avro.ui.shared.Fqn;
+import org.kaaproject.avro.ui.shared.FormHistory;
 import org.kaaproject.avro.ui.shared.IntegerField;
 import org.kaaproject.avro.ui.shared.LongField;
 import org.kaaproject.avro.ui.shared.RecordField;
@@ -133,7 +144,7 @@ public class FormAvroConverterTest {
         RecordField convertedField = FormAvroConverter.createRecordFieldFromGenericRecord(record);
         
         Assert.assertNotNull(convertedField);
-        Assert.assertEquals(field, convertedField);
+        Assert.assertTrue(field.contentEquals(convertedField));
         
     }
 
@@ -188,7 +199,7 @@ public class FormAvroConverterTest {
         RecordField convertedField = FormAvroConverter.createRecordFieldFromGenericRecord(record);
         
         Assert.assertNotNull(convertedField);
-        Assert.assertEquals(field, convertedField);
+        Assert.assertTrue(field.contentEquals(convertedField));
 
     }
 
@@ -244,7 +255,7 @@ public class FormAvroConverterTest {
         unionField = (UnionField)formField;
         unionField.finalizeMetadata();
         
-        Assert.assertEquals(field, convertedField);
+        Assert.assertTrue(field.contentEquals(convertedField));
     }
     
     @Test
@@ -262,6 +273,320 @@ public class FormAvroConverterTest {
         Assert.assertFalse(arrayField.isChanged());
     }
     
+    @Test
+    public void testFormFieldTraversal() throws IOException {
+        Schema schema = TestAvroSchemas.getSchema(TestAvroSchemas.ARRAY);
+        RecordField field = FormAvroConverter.createRecordFieldFromSchema(schema);
+        ArrayField arrayField = (ArrayField)field.getValue().get(0);
+        arrayField.finalizeMetadata();
+        arrayField.addArrayData(arrayField.createRow());
+        
+        final List<FieldType> visited = new ArrayList<>();
+        for (FormField formField : field) {
+            visited.add(formField.getFieldType());
+        }
+        Assert.assertEquals(Arrays.asList(FieldType.RECORD, FieldType.ARRAY, 
+                FieldType.RECORD, FieldType.STRING, FieldType.RECORD, FieldType.STRING), visited);
+        
+        visited.clear();
+        field.accept(new FormFieldVisitor() {
+            @Override
+            public VisitResult visit(FormField formField) {
+                visited.add(formField.getFieldType());
+                return formField.getFieldType() == FieldType.ARRAY ? 
+                        VisitResult.SKIP_CHILDREN : VisitResult.CONTINUE;
+            }
+        });
+        Assert.assertEquals(Arrays.asList(FieldType.RECORD, FieldType.ARRAY), visited);
+        
+        visited.clear();
+        field.accept(new FormFieldVisitor() {
+            @Override
+            public VisitResult visit(FormField formField) {
+                visited.add(formField.getFieldType());
+                return VisitResult.TERMINATE;
+            }
+        }, FieldType.STRING);
+        Assert.assertEquals(Arrays.asList(FieldType.STRING), visited);
+    }
+    
+    @Test
+    public void testBatchedNotifications() throws IOException {
+        Schema schema = TestAvroSchemas.getSchema(TestAvroSchemas.SINGLE_FIELDS);
+        RecordField field = FormAvroConverter.createRecordFieldFromSchema(schema);
+        StringField stringField = (StringField)field.getValue().get(0);
+        final List<Object> values = new ArrayList<>();
+        stringField.addTransientValueChangeListener(new ValueChangeListener() {
+            private static final long serialVersionUID = 1L;
+            @Override
+            public void onValueChanged(Object value) {
+                values.add(value);
+            }
+        });
+        FormContext context = field.getContext();
+        context.beginBatch();
+        stringField.setValue("first");
+        stringField.setValue("second");
+        stringField.setValue("third");
+        Assert.assertTrue(values.isEmpty());
+        context.commitBatch();
+        Assert.assertEquals(Arrays.asList((Object)"third"), values);
+        Assert.assertFalse(context.isBatchInProgress());
+        
+        stringField.setValue("fourth");
+        Assert.assertEquals(Arrays.asList((Object)"third", "fourth"), values);
+    }
+
+    @Test
+    public void testContentEquality() throws IOException {
+        Schema schema = TestAvroSchemas.getSchema(TestAvroSchemas.ARRAY);
+        RecordField field = FormAvroConverter.createRecordFieldFromSchema(schema);
+        RecordField otherField = FormAvroConverter.createRecordFieldFromSchema(schema);
+        Assert.assertFalse(field.equals(otherField));
+        Assert.assertTrue(field.contentEquals(otherField));
+        Assert.assertEquals(field.contentHashCode(), otherField.contentHashCode());
+        
+        ArrayField arrayField = (ArrayField)field.getValue().get(0);
+        arrayField.finalizeMetadata();
+        ((ArrayField)otherField.getValue().get(0)).finalizeMetadata();
+        int hash = field.contentHashCode();
+        RecordField row = (RecordField)arrayField.getValue().get(0);
+        ((StringField)row.getValue().get(0)).setValue("changed value");
+        Assert.assertNotEquals(hash, field.contentHashCode());
+        Assert.assertFalse(field.contentEquals(otherField));
+        
+        ((StringField)row.getValue().get(0)).setValue("");
+        Assert.assertEquals(otherField.contentHashCode(), field.contentHashCode());
+    }
+
+    @Test
+    public void testEnumSymbolIndex() throws IOException {
+        Schema schema = TestAvroSchemas.getSchema(TestAvroSchemas.SINGLE_FIELDS);
+        RecordField field = FormAvroConverter.createRecordFieldFromSchema(schema);
+        EnumField enumField = null;
+        for (FormField formField : field.getValue()) {
+            if (formField instanceof EnumField) {
+                enumField = (EnumField)formField;
+            }
+        }
+        Assert.assertNotNull(enumField);
+        Assert.assertEquals(1, enumField.getEnumValueIndex("VALUE_TWO"));
+        Assert.assertEquals(-1, enumField.getEnumValueIndex("VALUE_FOUR"));
+        Assert.assertTrue(enumField.containsEnumSymbol("VALUE_THREE"));
+
+        EnumSymbolIndex index = enumField.getEnumSymbolIndex();
+        Assert.assertEquals(Arrays.asList(new FormEnum("VALUE_THREE","Value Three"),
+                                          new FormEnum("VALUE_TWO","Value Two")),
+                index.search("T", 10));
+        Assert.assertEquals(Arrays.asList(new FormEnum("VALUE_ONE","Value One")),
+                index.search("value_o", 10));
+        Assert.assertEquals(2, index.search("value", 2).size());
+        Assert.assertEquals(enumField.getEnumValues(), index.search("", 10));
+
+        EnumField clonedField = (EnumField)enumField.clone();
+        Assert.assertSame(index, clonedField.getEnumSymbolIndex());
+
+        enumField.getEnumValues().set(1, new FormEnum("VALUE_FOUR","Value Four"));
+        Assert.assertEquals(1, enumField.getEnumValueIndex("VALUE_FOUR"));
+        Assert.assertEquals(-1, enumField.getEnumValueIndex("VALUE_TWO"));
+        Assert.assertNotSame(index, enumField.getEnumSymbolIndex());
+
+        List<FormEnum> enumValues = new ArrayList<>(enumField.getEnumValues());
+        enumValues.remove(0);
+        enumField.setEnumValues(enumValues);
+        Assert.assertEquals(0, enumField.getEnumValueIndex("VALUE_FOUR"));
+        Assert.assertEquals(-1, enumField.getEnumValueIndex("VALUE_ONE"));
+
+        FormContext context = field.getContext();
+        EnumSymbolIndex unnamedIndex = context.getEnumSymbolIndex(new Fqn(null, "Unnamed"), enumValues);
+        Assert.assertEquals(enumValues, unnamedIndex.search("", 10));
+        Assert.assertEquals(enumValues, context.getEnumSymbolIndex(null, enumValues).search("", 10));
+    }
+
+    @Test
+    public void testFormHistory() throws IOException {
+        Schema schema = TestAvroSchemas.getSchema(TestAvroSchemas.SINGLE_FIELDS);
+        RecordField field = FormAvroConverter.createRecordFieldFromSchema(schema);
+        StringField stringField = (StringField)field.getValue().get(0);
+        IntegerField integerField = (IntegerField)field.getValue().get(2);
+        BooleanField booleanField = (BooleanField)field.getValue().get(4);
+        String initialString = stringField.getValue();
+        Integer initialInteger = integerField.getValue();
+
+        FormHistory history = field.getContext().getHistory();
+        Assert.assertFalse(history.canUndo());
+        FormHistory.Snapshot initial = history.getSnapshot();
+
+        stringField.setValue("a");
+        stringField.setValue("ab");
+        integerField.setValue(42);
+        FormHistory.Snapshot edited = history.getSnapshot();
+
+        field.getContext().beginBatch();
+        stringField.setValue("batch");
+        booleanField.setValue(false);
+        field.getContext().commitBatch();
+
+        Assert.assertTrue(history.undo());
+        Assert.assertEquals("ab", stringField.getValue());
+        Assert.assertEquals(Boolean.TRUE, booleanField.getValue());
+        Assert.assertTrue(history.undo());
+        Assert.assertEquals(initialInteger, integerField.getValue());
+        Assert.assertTrue(history.undo());
+        Assert.assertEquals(initialString, stringField.getValue());
+        Assert.assertFalse(history.canUndo());
+
+        Assert.assertTrue(history.redo());
+        Assert.assertEquals("ab", stringField.getValue());
+        Assert.assertTrue(history.restore(edited));
+        Assert.assertEquals(Integer.valueOf(42), integerField.getValue());
+        Assert.assertTrue(history.canRedo());
+
+        final List<Object> restoredValues = new ArrayList<>();
+        stringField.addTransientValueChangeListener(new ValueChangeListener() {
+            private static final long serialVersionUID = 1L;
+            @Override
+            public void onValueChanged(Object value) {
+                restoredValues.add(value);
+            }
+        });
+        Assert.assertTrue(history.restore(initial));
+        Assert.assertEquals(Arrays.asList((Object)initialString), restoredValues);
+        Assert.assertEquals(initialInteger, integerField.getValue());
+
+        stringField.setValue("new branch");
+        Assert.assertFalse(history.canRedo());
+        Assert.assertFalse(history.restore(edited));
+    }
+
+    @Test
+    public void testFormHistoryLimit() throws IOException {
+        Schema schema = TestAvroSchemas.getSchema(TestAvroSchemas.SINGLE_FIELDS);
+        RecordField field = FormAvroConverter.createRecordFieldFromSchema(schema);
+        IntegerField integerField = (IntegerField)field.getValue().get(2);
+        FormHistory history = field.getContext().getHistory();
+
+        int steps = FormHistory.MAX_STEPS + 10;
+        for (int i=1;i<=steps;i++) {
+            integerField.setValue(i);
+            history.seal();
+        }
+        int undone = 0;
+        while (history.undo()) {
+            undone++;
+        }
+        Assert.assertEquals(FormHistory.MAX_STEPS, undone);
+        Assert.assertEquals(Integer.valueOf(steps - FormHistory.MAX_STEPS), integerField.getValue());
+    }
+
+    @Test
+    public void testValueChangeListeners() throws IOException {
+        Schema schema = TestAvroSchemas.getSchema(TestAvroSchemas.SINGLE_FIELDS);
+        RecordField field = FormAvroConverter.createRecordFieldFromSchema(schema);
+        IntegerField integerField = (IntegerField)field.getValue().get(2);
+        LongField longField = (LongField)field.getValue().get(3);
+        BooleanField booleanField = (BooleanField)field.getValue().get(4);
+
+        final List<Object> values = new ArrayList<>();
+        ValueChangeListener listener = new ValueChangeListener() {
+            private static final long serialVersionUID = 1L;
+            @Override
+            public void onValueChanged(Object value) {
+                values.add(value);
+            }
+        };
+        integerField.addValueChangeListener(listener);
+        longField.addValueChangeListener(listener);
+        booleanField.addValueChangeListener(listener);
+
+        integerField.setValue(integerField.getValue());
+        longField.setValue(longField.getValue());
+        booleanField.setValue(booleanField.getValue());
+        Assert.assertTrue(values.isEmpty());
+
+        integerField.setValue(21);
+        longField.setValue(31L);
+        booleanField.setValue(false);
+        booleanField.setValue(false);
+        integerField.setValue(null);
+        Assert.assertEquals(Arrays.asList((Object)21, 31L, false, null), values);
+    }
+
+    @Test
+    public void testCachedValidation() throws IOException {
+        Schema schema = TestAvroSchemas.getSchema(TestAvroSchemas.ARRAY);
+        RecordField field = FormAvroConverter.createRecordFieldFromSchema(schema);
+        ArrayField arrayField = (ArrayField)field.getValue().get(0);
+        arrayField.finalizeMetadata();
+
+        StringField firstCell = (StringField)((RecordField)arrayField.getValue().get(0)).getValue().get(0);
+        Assert.assertFalse(field.isValid());
+        List<String> invalidPaths = field.getInvalidPaths();
+        Assert.assertEquals(1, invalidPaths.size());
+        Assert.assertTrue(invalidPaths.get(0).endsWith("testArrayElements[0]/test"));
+        Assert.assertEquals(Arrays.asList((FormField)firstCell), field.getInvalidFields());
+
+        firstCell.setValue("cell value");
+        Assert.assertTrue(field.isValid());
+        Assert.assertTrue(field.getInvalidPaths().isEmpty());
+
+        RecordField newRow = (RecordField) arrayField.createRow();
+        arrayField.addArrayData(newRow);
+        Assert.assertFalse(field.isValid());
+        invalidPaths = field.getInvalidPaths();
+        Assert.assertEquals(1, invalidPaths.size());
+        Assert.assertTrue(invalidPaths.get(0).endsWith("testArrayElements[1]/test"));
+
+        arrayField.removeRow(1);
+        Assert.assertTrue(field.isValid());
+
+        firstCell.setValue("");
+        Assert.assertFalse(field.isValid());
+    }
+
+    @Test
+    public void testDeleteInvalidRow() throws IOException {
+        Schema schema = TestAvroSchemas.getSchema(TestAvroSchemas.ARRAY);
+        RecordField field = FormAvroConverter.createRecordFieldFromSchema(schema);
+        ArrayField arrayField = (ArrayField)field.getValue().get(0);
+        arrayField.finalizeMetadata();
+
+        RecordField newRow = (RecordField) arrayField.createRow();
+        ((StringField)newRow.getValue().get(0)).setValue("cell value");
+        arrayField.addArrayData(newRow);
+        Assert.assertFalse(field.isValid());
+        int hash = field.contentHashCode();
+
+        arrayField.removeRow(0);
+        Assert.assertEquals(1, arrayField.getValue().size());
+        Assert.assertNotEquals(hash, field.contentHashCode());
+        Assert.assertTrue(field.isValid());
+        Assert.assertTrue(field.getInvalidPaths().isEmpty());
+
+        hash = field.contentHashCode();
+        arrayField.clearRows();
+        Assert.assertNotEquals(hash, field.contentHashCode());
+        Assert.assertFalse(field.isValid());
+    }
+
+    @Test
+    public void testSetBytesInvalidatesContentHash() {
+        BytesField bytesField = new BytesField();
+        int hash = bytesField.contentHashCode();
+        bytesField.setBytes(new byte[]{1, 2, 3});
+        Assert.assertNotEquals(hash, bytesField.contentHashCode());
+        Assert.assertTrue(bytesField.isValid());
+
+        FixedField fixedField = new FixedField();
+        fixedField.setFixedSize(2);
+        fixedField.setBytes(new byte[]{1, 2, 3});
+        Assert.assertFalse(fixedField.isValid());
+        hash = fixedField.contentHashCode();
+        fixedField.setBytes(new byte[]{1, 2});
+        Assert.assertNotEquals(hash, fixedField.contentHashCode());
+        Assert.assertTrue(fixedField.isValid());
+    }
+
     private void checkSingleFieldRecord(FormField field) {
         Assert.assertNotNull(field);
         Assert.assertTrue(field instanceof RecordField);
@@ -18,14 +18,20 @@ package org.kaaproject.avro.ui.converter;
 
 import java.io.IOException;
 import java.text.ParseException;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.avro.Schema;
 import org.junit.Assert;
 import org.junit.Test;
 import org.kaaproject.avro.ui.shared.ArrayField;
+import org.kaaproject.avro.ui.shared.DeclaredTypesModel;
+import org.kaaproject.avro.ui.shared.DeclaredTypesModel.Delta;
+import org.kaaproject.avro.ui.shared.DeclaredTypesModel.DeltaType;
 import org.kaaproject.avro.ui.shared.FormContext;
 import org.kaaproject.avro.ui.shared.FormField;
+import org.kaaproject.avro.ui.shared.Fqn;
+import org.kaaproject.avro.ui.shared.FqnKey;
 import org.kaaproject.avro.ui.shared.FqnVersion;
 import org.kaaproject.avro.ui.shared.RecordField;
 import org.kaaproject.avro.ui.shared.StringField;
@@ -79,6 +85,125 @@ public class SchemaFormAvroConverterTest {
         
     }
     
+    @Test
+    public void testDeclaredTypesModel() throws IOException, ParseException {
+        SchemaFormAvroConverter converter = 
+                new SchemaFormAvroConverter();
+        Schema typeReferencesSchema = TestAvroSchemas.getSchema(TestAvroSchemas.TYPE_REFERENCES_SCHEMA);
+        RecordField schemaForm = converter.createSchemaFormFromSchema(typeReferencesSchema);
+        FormContext context = schemaForm.getContext();
+        DeclaredTypesModel model = context.getDeclaredTypesModel();
+        checkDeclaredTypesModel(context, model);
+        
+        ArrayField fieldsArray = getFieldsArray(schemaForm);
+        List<FormField> rows = ((ArrayField)fieldsArray).getValue();
+        RecordField typeHolder = checkTypeHolder(rows, 0, "testRecord1", "org.kaaproject.avro.ui.test.TypeB");
+        int version = model.getVersion();
+        getStringField(typeHolder, "recordName").setValue("TypeZ");
+        Assert.assertTrue(model.getVersion() > version);
+        List<Delta> deltas = model.getDeltasSince(version);
+        Assert.assertNotNull(deltas);
+        Delta delta = deltas.get(deltas.size()-1);
+        Assert.assertEquals(DeltaType.RENAME, delta.getType());
+        Assert.assertEquals("org.kaaproject.avro.ui.test.TypeZ", delta.getFqn().getFqnString());
+        checkDeclaredTypesModel(context, model);
+        
+        fieldsArray.removeRow(0);
+        checkDeclaredTypesModel(context, model);
+    }
+
+    @Test
+    public void testRenameTypeHolder() throws IOException, ParseException {
+        SchemaFormAvroConverter converter =
+                new SchemaFormAvroConverter();
+        Schema typeReferencesSchema = TestAvroSchemas.getSchema(TestAvroSchemas.TYPE_REFERENCES_SCHEMA);
+        RecordField schemaForm = converter.createSchemaFormFromSchema(typeReferencesSchema);
+        FormContext context = schemaForm.getContext();
+        ArrayField fieldsArray = getFieldsArray(schemaForm);
+        List<FormField> rows = fieldsArray.getValue();
+
+        RecordField typeHolder = checkTypeHolder(rows, 0, "testRecord1", "org.kaaproject.avro.ui.test.TypeB");
+        getStringField(typeHolder, "recordName").setValue("TypeZ");
+
+        checkTypeHolder(rows, 0, "testRecord1", "org.kaaproject.avro.ui.test.TypeZ");
+        checkTypeConsumer(rows, 1, "testReference1", "org.kaaproject.avro.ui.test.TypeZ");
+        Assert.assertNotNull(context.fqnToFqnKey("org.kaaproject.avro.ui.test.TypeZ"));
+        Assert.assertNull(context.fqnToFqnKey("org.kaaproject.avro.ui.test.TypeB"));
+
+        Schema convertedSchema = converter.createSchemaFromSchemaForm(schemaForm);
+        Schema referenceType = convertedSchema.getField("testReference1").schema().getTypes().get(0);
+        Assert.assertEquals("org.kaaproject.avro.ui.test.TypeZ", referenceType.getFullName());
+    }
+
+    @Test
+    public void testRemoveTypeHolder() throws IOException, ParseException {
+        SchemaFormAvroConverter converter =
+                new SchemaFormAvroConverter();
+        Schema typeReferencesSchema = TestAvroSchemas.getSchema(TestAvroSchemas.TYPE_REFERENCES_SCHEMA);
+        RecordField schemaForm = converter.createSchemaFormFromSchema(typeReferencesSchema);
+        FormContext context = schemaForm.getContext();
+        ArrayField fieldsArray = getFieldsArray(schemaForm);
+        List<FormField> rows = fieldsArray.getValue();
+
+        RecordField movedHolder = checkTypeHolder(rows, 0, "testRecord1", "org.kaaproject.avro.ui.test.TypeB");
+        fieldsArray.removeRow(0);
+
+        RecordField typeHolder = checkTypeHolder(rows, 0, "testReference1", "org.kaaproject.avro.ui.test.TypeB");
+        Assert.assertSame(movedHolder, typeHolder);
+        Assert.assertSame(typeHolder, context.getTypeHolders().get(typeHolder.getId()));
+        FqnKey typeBKey = context.fqnToFqnKey("org.kaaproject.avro.ui.test.TypeB");
+        Assert.assertNotNull(typeBKey);
+        Assert.assertEquals(Integer.valueOf(typeHolder.getId()), typeBKey.getId());
+        checkTypeConsumer(rows, 1, "testReference3", "org.kaaproject.avro.ui.test.TypeC");
+
+        fieldsArray.removeRow(0);
+        checkTypeHolder(rows, 0, "testReference3", "org.kaaproject.avro.ui.test.TypeC");
+        typeBKey = context.fqnToFqnKey("org.kaaproject.avro.ui.test.TypeB");
+        Assert.assertNotNull(typeBKey);
+        Assert.assertEquals(Integer.valueOf(typeHolder.getId()), typeBKey.getId());
+        Assert.assertSame(typeHolder, context.getTypeHolders().get(typeHolder.getId()));
+        Assert.assertEquals("testReference2", ((StringField)((RecordField)typeHolder.getParentField().getParentField())
+                .getFieldByName(SchemaFormAvroConverter.FIELD_NAME)).getValue());
+    }
+
+    @Test
+    public void testConsumerBeforeTypeHolder() throws IOException, ParseException {
+        SchemaFormAvroConverter converter =
+                new SchemaFormAvroConverter();
+        Schema typeReferencesSchema = TestAvroSchemas.getSchema(TestAvroSchemas.TYPE_REFERENCES_SCHEMA);
+        RecordField schemaForm = converter.createSchemaFormFromSchema(typeReferencesSchema);
+        FormContext context = schemaForm.getContext();
+        ArrayField fieldsArray = getFieldsArray(schemaForm);
+        List<FormField> rows = fieldsArray.getValue();
+
+        Collections.swap(rows, 0, 1);
+        context.orderSchemaTypes();
+
+        checkTypeHolder(rows, 0, "testReference1", "org.kaaproject.avro.ui.test.TypeB");
+        checkTypeConsumer(rows, 1, "testRecord1", "org.kaaproject.avro.ui.test.TypeB");
+        checkTypeConsumer(rows, 2, "testReference3", "org.kaaproject.avro.ui.test.TypeC");
+
+        Schema convertedSchema = converter.createSchemaFromSchemaForm(schemaForm);
+        Assert.assertEquals("testReference1", convertedSchema.getFields().get(0).name());
+        Schema holderType = convertedSchema.getFields().get(0).schema().getTypes().get(0);
+        Assert.assertEquals(Schema.Type.RECORD, holderType.getType());
+        Assert.assertEquals("org.kaaproject.avro.ui.test.TypeB", holderType.getFullName());
+        Assert.assertEquals(holderType, convertedSchema.getField("testRecord1").schema().getTypes().get(0));
+    }
+
+    private void checkDeclaredTypesModel(FormContext context, DeclaredTypesModel model) {
+        Assert.assertEquals(context.getDeclaredTypes().size(), model.size());
+        Fqn prev = null;
+        for (FqnKey key : model.getSortedKeys()) {
+            Fqn fqn = model.getFqn(key);
+            Assert.assertEquals(context.getDeclaredTypes().get(key), fqn);
+            if (prev != null && fqn != null) {
+                Assert.assertTrue(prev.compareTo(fqn) <= 0);
+            }
+            prev = fqn;
+        }
+    }
+    
     @Test
     public void testCtlSchemaFormConversion() throws IOException, ParseException {
         SchemaFormAvroConverter converter = 
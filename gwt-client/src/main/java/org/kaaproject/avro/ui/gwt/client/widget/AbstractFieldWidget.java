@@ -62,6 +62,11 @@ import org.kaaproject.avro.ui.shared.StringField.InputType;
 import org.kaaproject.avro.ui.shared.UnionField;
 import org.kaaproject.avro.ui.shared.VersionField;
 
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.RunAsyncCallback;
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.RepeatingCommand;
 import com.google.gwt.dom.client.Style.Position;
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.event.dom.client.ClickEvent;
@@ -71,23 +76,31 @@ import com.google.gwt.event.dom.client.KeyUpHandler;
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.Window;
 import com.google.gwt.user.client.ui.Button;
 import com.google.gwt.user.client.ui.CheckBox;
 import com.google.gwt.user.client.ui.FlexTable;
 import com.google.gwt.user.client.ui.FlowPanel;
 import com.google.gwt.user.client.ui.HTML;
+import com.google.gwt.user.client.ui.HasEnabled;
 import com.google.gwt.user.client.ui.HasValue;
 import com.google.gwt.user.client.ui.HasVerticalAlignment;
 import com.google.gwt.user.client.ui.HasWidgets;
 import com.google.gwt.user.client.ui.HorizontalPanel;
 import com.google.gwt.user.client.ui.Label;
 import com.google.gwt.user.client.ui.SimplePanel;
+import com.google.gwt.user.client.ui.ValueBoxBase;
 import com.google.gwt.user.client.ui.Widget;
 
 public abstract class AbstractFieldWidget<T extends FormField> extends SimplePanel implements HasValue<T>, ShowableWidget {
     
     private static final String DEFAULT_INTEGER_FORMAT = "#";
     private static final String DEFAULT_DECIMAL_FORMAT = "#.#############################";
+    private static final int INITIAL_FIELDS_COUNT = 20;
+    private static final int MAX_INITIAL_FIELDS_COUNT = 200;
+    private static final int INCREMENTAL_BUILD_SLICE_MS = 50;
+    private static final int MAX_LISTED_ENUM_VALUES = 100;
+    
     protected static final String FULL_WIDTH = "100%";
     
     protected AvroWidgetsConfig config;
@@ -100,8 +113,12 @@ public abstract class AbstractFieldWidget<T extends FormField> extends SimplePan
     
     protected final AvroUiStyle style;
     
+    private final WidgetPool widgetPool;
+    
     protected boolean readOnly = false;
     
+    private int formBuildGeneration = 0;
+    
     private static AvroUiStyle getDefaultStyle() {
         return Utils.avroUiStyle;
     }
@@ -121,6 +138,7 @@ public abstract class AbstractFieldWidget<T extends FormField> extends SimplePan
         this.style.ensureInjected();
         
         this.addStyleName(style.fieldWidget());
+        this.widgetPool = WidgetPool.get(style);
     }
     
     @Override
@@ -234,18 +252,122 @@ public abstract class AbstractFieldWidget<T extends FormField> extends SimplePan
 
     protected void constructFormData(FlexTable table, FormField field, List<HandlerRegistration> handlerRegistrations) {
         table.removeAllRows();
+        int generation = ++formBuildGeneration;
         if (field != null && field.getFieldAccess() != FieldAccess.HIDDEN) {
-            int row = 0;
             if (field.getFieldType()==FieldType.RECORD) {
                 RecordField recordField = ((RecordField)field);
-                for (FormField formField : recordField.getValue()) {
-                    if (formField.getFieldAccess() != FieldAccess.HIDDEN) {
-                        row = constructField(table, row, formField, handlerRegistrations);
-                        row++;
-                    }
+                FormBuildCommand command = new FormBuildCommand(table, recordField.getValue(), handlerRegistrations, generation);
+                command.executeVisible();
+                if (command.hasMoreFields()) {
+                    command.showProgress();
+                    Scheduler.get().scheduleIncremental(command);
+                }
+            } else {
+                constructField(table, 0, field, handlerRegistrations);
+            }
+        }
+    }
+    
+    /**
+     * Builds record fields in order. The fields that fit into the browser window
+     * are built synchronously, the rest in time-boxed slices, so that large 
+     * records show up at once and do not block the event loop. The form stays
+     * usable while the remaining fields are appended below the visible ones,
+     * with a progress row after the last built field.
+     * A build is abandoned as soon as the form data is constructed again.
+     */
+    private class FormBuildCommand implements RepeatingCommand {
+        
+        private final FlexTable table;
+        private final List<FormField> fields;
+        private final List<HandlerRegistration> handlerRegistrations;
+        private final int generation;
+        private int index = 0;
+        private int row = 0;
+        private Label progressLabel;
+        private int progressRow = -1;
+        
+        FormBuildCommand(FlexTable table, List<FormField> fields, 
+                List<HandlerRegistration> handlerRegistrations, int generation) {
+            this.table = table;
+            this.fields = fields;
+            this.handlerRegistrations = handlerRegistrations;
+            this.generation = generation;
+        }
+        
+        boolean hasMoreFields() {
+            return index < fields.size();
+        }
+        
+        /**
+         * Builds the fields that are visible without scrolling. A detached table 
+         * can not be measured, so a fixed number of leading fields is built instead.
+         */
+        void executeVisible() {
+            if (table.isAttached()) {
+                int visibleHeight = Window.getClientHeight() - table.getAbsoluteTop() + Window.getScrollTop();
+                while (hasMoreFields() && index < MAX_INITIAL_FIELDS_COUNT 
+                        && table.getOffsetHeight() < visibleHeight) {
+                    constructNextField();
                 }
             } else {
-                constructField(table, row, field, handlerRegistrations);
+                int end = Math.min(fields.size(), INITIAL_FIELDS_COUNT);
+                while (index < end) {
+                    constructNextField();
+                }
+            }
+        }
+
+        /**
+         * Shows how many fields are built so far in a row below them.
+         */
+        void showProgress() {
+            if (progressLabel == null) {
+                progressLabel = new Label();
+                progressLabel.setStyleName(style.fieldNotes());
+            }
+            progressLabel.setText(Utils.messages.loadingFields(String.valueOf(index), 
+                    String.valueOf(fields.size())));
+            progressRow = row;
+            table.setWidget(progressRow, 0, progressLabel);
+            table.getFlexCellFormatter().setColSpan(progressRow, 0, 2);
+        }
+        
+        private void hideProgress() {
+            if (progressRow >= 0 && progressLabel.getParent() == table) {
+                table.removeRow(progressRow);
+            }
+            progressRow = -1;
+        }
+
+        @Override
+        public boolean execute() {
+            if (generation != formBuildGeneration) {
+                if (progressLabel != null) {
+                    progressLabel.removeFromParent();
+                }
+                return false;
+            }
+            hideProgress();
+            Duration duration = new Duration();
+            while (hasMoreFields() && duration.elapsedMillis() < INCREMENTAL_BUILD_SLICE_MS) {
+                constructNextField();
+            }
+            if (hasMoreFields()) {
+                showProgress();
+                return true;
+            }
+            if (isAttached()) {
+                traverseShown(table);
+            }
+            return false;
+        }
+        
+        private void constructNextField() {
+            FormField formField = fields.get(index++);
+            if (formField.getFieldAccess() != FieldAccess.HIDDEN) {
+                row = constructField(table, row, formField, handlerRegistrations);
+                row++;
             }
         }
     }
@@ -389,6 +511,92 @@ public abstract class AbstractFieldWidget<T extends FormField> extends SimplePan
         return widget;
     }
     
+    private SizedTextBox acquireTextBox(InputType inputType, String prompt, int maxChars, 
+            boolean addNotes, List<HandlerRegistration> handlerRegistrations) {
+        String key = "text:" + inputType + ":" + maxChars + ":" + addNotes + ":" + prompt;
+        SizedTextBox textBox = widgetPool.acquire(key);
+        if (textBox == null) {
+            textBox = new SizedTextBox(style, inputType, prompt, maxChars, true, addNotes);
+        }
+        bindPooledWidget(key, textBox, handlerRegistrations);
+        return textBox;
+    }
+    
+    private IntegerBox acquireIntegerBox(String prompt, List<HandlerRegistration> handlerRegistrations) {
+        String key = "int:" + prompt;
+        IntegerBox integerBox = widgetPool.acquire(key);
+        if (integerBox == null) {
+            integerBox = new IntegerBox(style, prompt, DEFAULT_INTEGER_FORMAT);
+        }
+        bindPooledWidget(key, integerBox, handlerRegistrations);
+        return integerBox;
+    }
+    
+    /**
+     * Returns the widget to the pool once the registrations of the form 
+     * it was built for are cleared. The widget is reset to the state it 
+     * was acquired in, so nothing of the previous field leaks into the next one.
+     */
+    private void bindPooledWidget(final String key, final Widget widget, List<HandlerRegistration> handlerRegistrations) {
+        final String styleName = widget.getStyleName();
+        handlerRegistrations.add(new HandlerRegistration() {
+            @Override
+            public void removeHandler() {
+                resetPooledWidget(widget, styleName);
+                widgetPool.release(key, widget);
+            }
+        });
+    }
+    
+    private static void resetPooledWidget(Widget widget, String styleName) {
+        widget.setStyleName(styleName);
+        if (widget instanceof SizedTextBox) {
+            SizedTextBox textBox = (SizedTextBox)widget;
+            textBox.setEnabled(true);
+            textBox.setReadOnly(false);
+            textBox.setInvalid(false);
+            textBox.setValue(null, false);
+        } else if (widget instanceof ValueBoxBase) {
+            ValueBoxBase<?> valueBox = (ValueBoxBase<?>)widget;
+            valueBox.setEnabled(true);
+            valueBox.setReadOnly(false);
+            valueBox.setValue(null, false);
+        } else if (widget instanceof FqnReferenceBox) {
+            ((FqnReferenceBox)widget).reset();
+        } else if (widget instanceof HasEnabled) {
+            ((HasEnabled)widget).setEnabled(true);
+        }
+    }
+    
+    /**
+     * Keeps the input widget in sync with values restored into the field,
+     * e.g. by undo/redo of the form history, without rebuilding the form.
+     */
+    private <V> void bindRestoredValue(final FormField field, final HasValue<V> widget, 
+            List<HandlerRegistration> handlerRegistrations) {
+        final ValueChangeListener listener = new ValueChangeListener() {
+            
+            private static final long serialVersionUID = 4185621931045129837L;
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public void onValueChanged(Object value) {
+                V widgetValue = widget.getValue();
+                if (widgetValue == null ? value != null : !widgetValue.equals(value)) {
+                    widget.setValue((V)value);
+                    fireChanged();
+                }
+            }
+        };
+        field.addTransientValueChangeListener(listener);
+        handlerRegistrations.add(new HandlerRegistration() {
+            @Override
+            public void removeHandler() {
+                field.removeTransientValueChangeListener(listener);
+            }
+        });
+    }
+    
     protected static String extractStringValue(FormField field) {
         switch (field.getFieldType()) {
         case STRING:
@@ -425,10 +633,10 @@ public abstract class AbstractFieldWidget<T extends FormField> extends SimplePan
     
     private Widget constructStringWidget(final StringField field,
             List<HandlerRegistration> handlerRegistrations) {
-        final SizedTextBox textBox = new SizedTextBox(style,
-                field.getInputType(), field.getDisplayPrompt(), field.getMaxLength(), true,
-                field.getMaxLength() != SizedField.DEFAULT_MAX_LENGTH);
+        final SizedTextBox textBox = acquireTextBox(field.getInputType(), field.getDisplayPrompt(), 
+                field.getMaxLength(), field.getMaxLength() != SizedField.DEFAULT_MAX_LENGTH, handlerRegistrations);
         textBox.setValue(field.getValue());
+        bindRestoredValue(field, textBox, handlerRegistrations);
         handlerRegistrations.add(textBox.addInputHandler(new InputEventHandler() {
                     @Override
                     public void onInputChanged(InputEvent event) {
@@ -441,10 +649,10 @@ public abstract class AbstractFieldWidget<T extends FormField> extends SimplePan
     
     private Widget constructBytesWidget(final BytesField field,
             List<HandlerRegistration> handlerRegistrations) {
-        final SizedTextBox textBox = new SizedTextBox(style,
-                InputType.PLAIN, field.getDisplayPrompt(), SizedField.DEFAULT_MAX_LENGTH, true,
-                false);
+        final SizedTextBox textBox = acquireTextBox(InputType.PLAIN, field.getDisplayPrompt(), 
+                SizedField.DEFAULT_MAX_LENGTH, false, handlerRegistrations);
         textBox.setValue(field.getValue());
+        bindRestoredValue(field, textBox, handlerRegistrations);
         handlerRegistrations.add(textBox.addInputHandler(new InputEventHandler() {
                     @Override
                     public void onInputChanged(InputEvent event) {
@@ -458,10 +666,10 @@ public abstract class AbstractFieldWidget<T extends FormField> extends SimplePan
     
     private Widget constructFixedWidget(final FixedField field,
             List<HandlerRegistration> handlerRegistrations) {
-        final SizedTextBox textBox = new SizedTextBox(style,
-                InputType.PLAIN, field.getDisplayPrompt(), field.getStringMaxSize(), true,
-                false);       
-        textBox.setValue(field.getValue());        
+        final SizedTextBox textBox = acquireTextBox(InputType.PLAIN, field.getDisplayPrompt(), 
+                field.getStringMaxSize(), false, handlerRegistrations);
+        textBox.setValue(field.getValue());
+        bindRestoredValue(field, textBox, handlerRegistrations);
         handlerRegistrations.add(textBox.addInputHandler(new InputEventHandler() {
                     @Override
                     public void onInputChanged(InputEvent event) {
@@ -474,8 +682,9 @@ public abstract class AbstractFieldWidget<T extends FormField> extends SimplePan
     }
     
     private Widget constructIntegerWidget(final IntegerField field, List<HandlerRegistration> handlerRegistrations) {
-        final IntegerBox integerBox = new IntegerBox(style, field.getDisplayPrompt(), DEFAULT_INTEGER_FORMAT);
+        final IntegerBox integerBox = acquireIntegerBox(field.getDisplayPrompt(), handlerRegistrations);
         integerBox.setValue(field.getValue());
+        bindRestoredValue(field, integerBox, handlerRegistrations);
         handlerRegistrations.add(integerBox.addKeyUpHandler(new KeyUpHandler() {
             @Override
             public void onKeyUp(KeyUpEvent event) {
@@ -487,8 +696,13 @@ public abstract class AbstractFieldWidget<T extends FormField> extends SimplePan
     }
 
     private Widget constructLongWidget(final LongField field, List<HandlerRegistration> handlerRegistrations) {
-        final LongBox longBox = new LongBox(style, field.getDisplayPrompt(), DEFAULT_INTEGER_FORMAT);
+        String key = "long:" + field.getDisplayPrompt();
+        LongBox pooledBox = widgetPool.acquire(key);
+        final LongBox longBox = pooledBox != null ? pooledBox : 
+            new LongBox(style, field.getDisplayPrompt(), DEFAULT_INTEGER_FORMAT);
+        bindPooledWidget(key, longBox, handlerRegistrations);
         longBox.setValue(field.getValue());
+        bindRestoredValue(field, longBox, handlerRegistrations);
         handlerRegistrations.add(longBox.addKeyUpHandler(new KeyUpHandler() {
             @Override
             public void onKeyUp(KeyUpEvent event) {
@@ -500,8 +714,13 @@ public abstract class AbstractFieldWidget<T extends FormField> extends SimplePan
     }
     
     private Widget constructFloatWidget(final FloatField field, List<HandlerRegistration> handlerRegistrations) {
-        final FloatBox floatBox = new FloatBox(style, field.getDisplayPrompt(), DEFAULT_DECIMAL_FORMAT);
+        String key = "float:" + field.getDisplayPrompt();
+        FloatBox pooledBox = widgetPool.acquire(key);
+        final FloatBox floatBox = pooledBox != null ? pooledBox : 
+            new FloatBox(style, field.getDisplayPrompt(), DEFAULT_DECIMAL_FORMAT);
+        bindPooledWidget(key, floatBox, handlerRegistrations);
         floatBox.setValue(field.getValue());
+        bindRestoredValue(field, floatBox, handlerRegistrations);
         handlerRegistrations.add(floatBox.addKeyUpHandler(new KeyUpHandler() {
             @Override
             public void onKeyUp(KeyUpEvent event) {
@@ -513,8 +732,13 @@ public abstract class AbstractFieldWidget<T extends FormField> extends SimplePan
     }
     
     private Widget constructDoubleWidget(final DoubleField field, List<HandlerRegistration> handlerRegistrations) {
-        final DoubleBox doubleBox = new DoubleBox(style, field.getDisplayPrompt(), DEFAULT_DECIMAL_FORMAT);
+        String key = "double:" + field.getDisplayPrompt();
+        DoubleBox pooledBox = widgetPool.acquire(key);
+        final DoubleBox doubleBox = pooledBox != null ? pooledBox : 
+            new DoubleBox(style, field.getDisplayPrompt(), DEFAULT_DECIMAL_FORMAT);
+        bindPooledWidget(key, doubleBox, handlerRegistrations);
         doubleBox.setValue(field.getValue());
+        bindRestoredValue(field, doubleBox, handlerRegistrations);
         handlerRegistrations.add(doubleBox.addKeyUpHandler(new KeyUpHandler() {
             @Override
             public void onKeyUp(KeyUpEvent event) {
@@ -525,16 +749,36 @@ public abstract class AbstractFieldWidget<T extends FormField> extends SimplePan
         return doubleBox;
     }
     
-    private Widget constructFqnReferenceWidget(final FqnReferenceField field, List<HandlerRegistration> handlerRegistrations) {
-        final FqnReferenceBox fqnBox = new FqnReferenceBox(field.getDisplayPrompt());
-        fqnBox.updateDeclaredFqns(field.getContext().getDeclaredTypes());
+    private Widget constructFqnReferenceWidget(final FqnReferenceField field, final List<HandlerRegistration> handlerRegistrations) {
+        final AsyncWidgetHolder holder = new AsyncWidgetHolder(style, handlerRegistrations);
+        GWT.runAsync(FqnReferenceBox.class, new RunAsyncCallback() {
+            @Override
+            public void onSuccess() {
+                if (holder.isActive()) {
+                    holder.setContent(createFqnReferenceWidget(field, handlerRegistrations));
+                }
+            }
+            @Override
+            public void onFailure(Throwable reason) {
+                holder.onLoadFailure(reason);
+            }
+        });
+        return holder;
+    }
+    
+    private Widget createFqnReferenceWidget(final FqnReferenceField field, List<HandlerRegistration> handlerRegistrations) {
+        String key = "fqn:" + field.getDisplayPrompt();
+        FqnReferenceBox pooledBox = widgetPool.acquire(key);
+        final FqnReferenceBox fqnBox = pooledBox != null ? pooledBox : 
+            new FqnReferenceBox(field.getDisplayPrompt());
+        bindPooledWidget(key, fqnBox, handlerRegistrations);
+        fqnBox.setDeclaredTypesModel(field.getContext().getDeclaredTypesModel());
         fqnBox.setValue(field.getValue());
+        bindRestoredValue(field, fqnBox, handlerRegistrations);
         final DeclaredTypesListener listener = new DeclaredTypesListener() {
             @Override
             public void onDeclaredTypesUpdated(Map<FqnKey, Fqn> declaredFqns) {
-                if (fqnBox.isAttached()) {
-                    fqnBox.updateDeclaredFqns(declaredFqns);
-                }
+                fqnBox.onDeclaredTypesChanged();
             }
         };
         field.getContext().addDeclaredTypesListener(listener);
@@ -593,7 +837,7 @@ public abstract class AbstractFieldWidget<T extends FormField> extends SimplePan
     }
     
     private Widget constructVersionWidget(final VersionField field, List<HandlerRegistration> handlerRegistrations) {
-        final IntegerBox integerBox = new IntegerBox(style, field.getDisplayPrompt(), DEFAULT_INTEGER_FORMAT);
+        final IntegerBox integerBox = acquireIntegerBox(field.getDisplayPrompt(), handlerRegistrations);
         integerBox.setValue(field.getValue());
         handlerRegistrations.add(integerBox.addKeyUpHandler(new KeyUpHandler() {
             @Override
@@ -624,7 +868,24 @@ public abstract class AbstractFieldWidget<T extends FormField> extends SimplePan
         return integerBox;
     }
     
-    private Widget constructDependenciesWidget(final DependenciesField field, List<HandlerRegistration> handlerRegistrations) {
+    private Widget constructDependenciesWidget(final DependenciesField field, final List<HandlerRegistration> handlerRegistrations) {
+        final AsyncWidgetHolder holder = new AsyncWidgetHolder(style, handlerRegistrations);
+        GWT.runAsync(DependenciesFieldWidget.class, new RunAsyncCallback() {
+            @Override
+            public void onSuccess() {
+                if (holder.isActive()) {
+                    holder.setContent(createDependenciesWidget(field, handlerRegistrations));
+                }
+            }
+            @Override
+            public void onFailure(Throwable reason) {
+                holder.onLoadFailure(reason);
+            }
+        });
+        return holder;
+    }
+    
+    private Widget createDependenciesWidget(final DependenciesField field, List<HandlerRegistration> handlerRegistrations) {
         final DependenciesFieldWidget widget = new DependenciesFieldWidget(config, style, navigationContainer, readOnly);
         widget.setValue(field);
         
@@ -662,7 +923,17 @@ public abstract class AbstractFieldWidget<T extends FormField> extends SimplePan
     }
     
     private Widget constructEnumWidget(final EnumField field, List<HandlerRegistration> handlerRegistrations) {
-        FormEnumListBox enumBox = new FormEnumListBox(style, field.getDisplayPrompt());
+        if (field.getEnumValues().size() > MAX_LISTED_ENUM_VALUES) {
+            return constructEnumSuggestWidget(field, handlerRegistrations);
+        }
+        String key = "enum:" + field.getDisplayPrompt();
+        FormEnumListBox enumBox = widgetPool.acquire(key);
+        if (enumBox != null) {
+            enumBox.setValue(null);
+        } else {
+            enumBox = new FormEnumListBox(style, field.getDisplayPrompt());
+        }
+        bindPooledWidget(key, enumBox, handlerRegistrations);
         if (!field.isOptional() && !field.isOverride()) {
             enumBox.setValue(field.getValue());
         }        
@@ -670,6 +941,27 @@ public abstract class AbstractFieldWidget<T extends FormField> extends SimplePan
         if (field.isOptional() || field.isOverride()) {
             enumBox.setValue(field.getValue());
         }
+        bindRestoredValue(field, enumBox, handlerRegistrations);
+        handlerRegistrations.add(enumBox.addValueChangeHandler(new ValueChangeHandler<FormEnum>() {
+            @Override
+            public void onValueChange(ValueChangeEvent<FormEnum> event) {
+                field.setValue(event.getValue());
+                fireChanged();  
+            }
+        }));
+        return enumBox;
+    }
+    
+    private Widget constructEnumSuggestWidget(final EnumField field, List<HandlerRegistration> handlerRegistrations) {
+        String key = "enumSuggest:" + field.getDisplayPrompt();
+        FormEnumSuggestBox enumBox = widgetPool.acquire(key);
+        if (enumBox == null) {
+            enumBox = new FormEnumSuggestBox(field.getDisplayPrompt());
+        }
+        bindPooledWidget(key, enumBox, handlerRegistrations);
+        enumBox.setEnumSymbolIndex(field.getEnumSymbolIndex());
+        enumBox.setValue(field.getValue());
+        bindRestoredValue(field, enumBox, handlerRegistrations);
         handlerRegistrations.add(enumBox.addValueChangeHandler(new ValueChangeHandler<FormEnum>() {
             @Override
             public void onValueChange(ValueChangeEvent<FormEnum> event) {
@@ -685,6 +977,7 @@ public abstract class AbstractFieldWidget<T extends FormField> extends SimplePan
         checkBox.setValue(field.getValue());
         checkBox.setTitle(field.getDisplayPrompt());
         checkBox.setEnabled(!readOnly && !field.isReadOnly());
+        bindRestoredValue(field, checkBox, handlerRegistrations);
         if (!readOnly && !field.isReadOnly()) {
             handlerRegistrations.add(checkBox.addValueChangeHandler(new ValueChangeHandler<Boolean>() {
                 @Override
@@ -697,7 +990,24 @@ public abstract class AbstractFieldWidget<T extends FormField> extends SimplePan
         return checkBox;
     }
     
-    private Widget constructArrayWidget(final ArrayField field, List<HandlerRegistration> handlerRegistrations) {
+    private Widget constructArrayWidget(final ArrayField field, final List<HandlerRegistration> handlerRegistrations) {
+        final AsyncWidgetHolder holder = new AsyncWidgetHolder(style, handlerRegistrations);
+        GWT.runAsync(ArrayFieldWidget.class, new RunAsyncCallback() {
+            @Override
+            public void onSuccess() {
+                if (holder.isActive()) {
+                    holder.setContent(createArrayWidget(field, handlerRegistrations));
+                }
+            }
+            @Override
+            public void onFailure(Throwable reason) {
+                holder.onLoadFailure(reason);
+            }
+        });
+        return holder;
+    }
+    
+    private Widget createArrayWidget(final ArrayField field, List<HandlerRegistration> handlerRegistrations) {
         ArrayFieldWidget arrayWidget = new ArrayFieldWidget(config, style, navigationContainer, readOnly);
         arrayWidget.setValue(field);
         if (!readOnly && !field.isReadOnly()) {
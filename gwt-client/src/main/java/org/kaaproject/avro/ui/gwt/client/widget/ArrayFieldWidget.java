@@ -23,6 +23,7 @@ import java.util.Map;
 
 import org.kaaproject.avro.ui.gwt.client.AvroUiResources.AvroUiStyle;
 import org.kaaproject.avro.ui.gwt.client.util.Utils;
+import org.kaaproject.avro.ui.gwt.client.widget.FieldWidgetPanel.ContentFactory;
 import org.kaaproject.avro.ui.gwt.client.widget.grid.AbstractGrid;
 import org.kaaproject.avro.ui.gwt.client.widget.grid.event.RowActionEvent;
 import org.kaaproject.avro.ui.gwt.client.widget.grid.event.RowActionEventHandler;
@@ -42,6 +43,8 @@ import com.google.gwt.dom.client.Style;
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
@@ -57,6 +60,7 @@ import com.google.gwt.user.client.ui.HorizontalPanel;
 import com.google.gwt.user.client.ui.Image;
 import com.google.gwt.user.client.ui.Label;
 import com.google.gwt.user.client.ui.ScrollPanel;
+import com.google.gwt.user.client.ui.SimplePanel;
 import com.google.gwt.user.client.ui.VerticalPanel;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.gwt.view.client.AsyncDataProvider;
@@ -66,6 +70,7 @@ public class ArrayFieldWidget extends AbstractFieldWidget<ArrayField> {
     
     private ArrayGrid arrayGrid;
     private ScrollPanel tableScroll; 
+    private VirtualTable virtualTable;
     private FieldWidgetPanel fieldWidgetPanel;
 
     private static final String PX = "px";
@@ -81,6 +86,9 @@ public class ArrayFieldWidget extends AbstractFieldWidget<ArrayField> {
     @Override
     protected Widget constructForm() {
         
+        arrayGrid = null;
+        tableScroll = null;
+        virtualTable = null;
         fieldWidgetPanel = new FieldWidgetPanel(style, value, readOnly, true);
         if (value.isOverride()) {
             fieldWidgetPanel.addValueChangeHandler(new ValueChangeHandler<Boolean>() {
@@ -102,11 +110,16 @@ public class ArrayFieldWidget extends AbstractFieldWidget<ArrayField> {
         
         value.finalizeMetadata();
         
-        if (isGridNeeded(value)) {
-            fieldWidgetPanel.setContent(constructGrid());
-        } else {
-            fieldWidgetPanel.setContent(constructTable());
-        }
+        fieldWidgetPanel.setContentFactory(new ContentFactory() {
+            @Override
+            public Widget createContent() {
+                if (isGridNeeded(value)) {
+                    return constructGrid();
+                } else {
+                    return constructTable();
+                }
+            }
+        });
         return fieldWidgetPanel;
     }
     
@@ -160,6 +173,17 @@ public class ArrayFieldWidget extends AbstractFieldWidget<ArrayField> {
         if (arrayGrid != null) {
             arrayGrid.reload();
         }
+        if (virtualTable != null) {
+            virtualTable.update();
+        }
+    }
+    
+    @Override
+    protected void onLoad() {
+        super.onLoad();
+        if (virtualTable != null) {
+            virtualTable.update();
+        }
     }
 
     private Widget constructGrid() {
@@ -198,7 +222,10 @@ public class ArrayFieldWidget extends AbstractFieldWidget<ArrayField> {
         arrayGrid.addRowActionHandler(new RowActionEventHandler<Integer>() {
             @Override
             public void onRowAction(RowActionEvent<Integer> event) {
-                final int index = event.getClickedId();
+                final int index = arrayGrid.getDataProvider().indexOf(event.getClickedId());
+                if (index < 0) {
+                    return;
+                }
                 if (event.getAction() == RowActionEvent.CLICK) {
                     FormField field = arrayGrid.getDataProvider().getData().get(index);
                     navigationContainer.showField(field, null);
@@ -223,10 +250,10 @@ public class ArrayFieldWidget extends AbstractFieldWidget<ArrayField> {
         table.setCellSpacing(0);
         table.addStyleName(style.arrayTable());
         
-        List<FormField> records = value.getValue();
         final FormField elementMetadata = value.getElementMetadata();
         
         final boolean hasHeader;
+        int columnCount = 1;
         
         if (elementMetadata.getFieldType() == FieldType.RECORD) {
             RecordField recordElementData = (RecordField)elementMetadata;
@@ -249,26 +276,28 @@ public class ArrayFieldWidget extends AbstractFieldWidget<ArrayField> {
             if (!readOnly) {
                 table.setWidget(0, table.getCellCount(0), new Label(Utils.constants.delete()));
             }
+            columnCount = table.getCellCount(0);
             hasHeader = true;
         } else {
+            if (!readOnly) {
+                columnCount++;
+            }
             hasHeader = false;
         }
-
-        final Map<FormField, List<HandlerRegistration>> rowHandlerRegistrationMap = 
-                new HashMap<>();
-       
-        for (int row=0;row<records.size();row++) {
-            FormField record = records.get(row);
-            List<HandlerRegistration> rowHandlerRegistrations = new ArrayList<>();
-            setRow(table, record, row, rowHandlerRegistrations, rowHandlerRegistrationMap, hasHeader);
-            registrations.addAll(rowHandlerRegistrations);
-            rowHandlerRegistrationMap.put(record, rowHandlerRegistrations);
-        }
+        
+        virtualTable = new VirtualTable(table, hasHeader, columnCount);
 
         tableScroll.setWidth(getScrollTablePreferredWidth(config.getArrayPanelWidthPx()));
         tableScroll.getElement().getStyle().setMargin(AbstractGrid.DEFAULT_GRID_MARGIN, Unit.PX);
         tableScroll.setHeight(config.getTableHeight());
         tableScroll.add(table);
+        registrations.add(tableScroll.addScrollHandler(new ScrollHandler() {
+            @Override
+            public void onScroll(ScrollEvent event) {
+                virtualTable.update();
+            }
+        }));
+        virtualTable.update();
 
         verticalPanel.setWidth(FULL_WIDTH);
         verticalPanel.add(tableScroll);
@@ -282,9 +311,7 @@ public class ArrayFieldWidget extends AbstractFieldWidget<ArrayField> {
                 public void onClick(ClickEvent event) {
                     FormField newField = value.createRow();
                     value.addArrayData(newField);
-                    List<HandlerRegistration> rowHandlerRegistrations = new ArrayList<>();
-                    setRow(table, newField, value.getValue().size() - 1, rowHandlerRegistrations, rowHandlerRegistrationMap, hasHeader);
-                    rowHandlerRegistrationMap.put(newField, rowHandlerRegistrations);
+                    virtualTable.update();
                     fireChanged();
                 }
             });
@@ -299,11 +326,8 @@ public class ArrayFieldWidget extends AbstractFieldWidget<ArrayField> {
         return verticalPanel;
     }
     
-    private void setRow(final FlexTable table, FormField field, int row, List<HandlerRegistration> handlerRegistrations,
-                        final Map<FormField, List<HandlerRegistration>> rowHandlerRegistrationMap, final boolean hasHeader) {
-        if (hasHeader) {
-            row++;
-        }
+    private void setRow(final VirtualTable virtualTable, FormField field, int row, List<HandlerRegistration> handlerRegistrations) {
+        final FlexTable table = virtualTable.table;
         if (field.getFieldType() == FieldType.RECORD) {
             RecordField record = (RecordField)field;
             List<FormField> recordFields = record.getFieldsWithAccess(FieldAccess.EDITABLE,
@@ -328,17 +352,7 @@ public class ArrayFieldWidget extends AbstractFieldWidget<ArrayField> {
                 @Override
                 public void onClick(ClickEvent event) {
                     int tableRow = table.getCellForEvent(event).getRowIndex();
-                    int rowIndex = hasHeader ? tableRow - 1 : tableRow;
-                    FormField toDelete = value.getValue().get(rowIndex);
-                    List<HandlerRegistration> registrations = rowHandlerRegistrationMap.remove(toDelete);
-                    if (registrations != null) {
-                        for (HandlerRegistration registration : registrations) {
-                            registration.removeHandler();
-                        }
-                        registrations.clear();
-                    }
-                    table.removeRow(tableRow);
-                    value.getValue().remove(rowIndex);
+                    virtualTable.deleteRow(tableRow);
                     fireChanged();
                 }
             });
@@ -346,6 +360,147 @@ public class ArrayFieldWidget extends AbstractFieldWidget<ArrayField> {
             table.setWidget(row, table.getCellCount(row), delButton);
         }
     }
+    
+    /**
+     * Renders only the rows of the array that fall into the visible part of
+     * {@link ArrayFieldWidget#tableScroll} plus a small buffer. Rows outside of
+     * the window are represented by two spacer rows sized from the measured row height.
+     */
+    private class VirtualTable {
+        
+        private static final int DEFAULT_ROW_HEIGHT = 30;
+        private static final int BUFFER_ROWS = 10;
+        
+        private final FlexTable table;
+        private final int firstDataRow;
+        private final SimplePanel topSpacer = new SimplePanel();
+        private final SimplePanel bottomSpacer = new SimplePanel();
+        private final Map<FormField, List<HandlerRegistration>> rowHandlerRegistrationMap = 
+                new HashMap<>();
+        
+        private int rowHeight = 0;
+        private int renderedFrom = 0;
+        private int renderedTo = 0;
+        
+        VirtualTable(FlexTable table, boolean hasHeader, int columnCount) {
+            this.table = table;
+            int topSpacerRow = hasHeader ? 1 : 0;
+            this.firstDataRow = topSpacerRow + 1;
+            table.setWidget(topSpacerRow, 0, topSpacer);
+            table.getFlexCellFormatter().setColSpan(topSpacerRow, 0, columnCount);
+            table.setWidget(firstDataRow, 0, bottomSpacer);
+            table.getFlexCellFormatter().setColSpan(firstDataRow, 0, columnCount);
+        }
+        
+        void update() {
+            List<FormField> records = value.getValue();
+            int height = getRowHeight();
+            int viewportHeight = tableScroll.getOffsetHeight();
+            if (viewportHeight <= 0) {
+                viewportHeight = config.getTableHeightPx();
+            }
+            int scrollTop = tableScroll.getVerticalScrollPosition();
+            int from = Math.max(0, scrollTop / height - BUFFER_ROWS);
+            int to = Math.min(records.size(), (scrollTop + viewportHeight) / height + 1 + BUFFER_ROWS);
+            from = Math.min(from, to);
+            render(records, from, to);
+            if (rowHeight == 0 && renderedTo > renderedFrom) {
+                int measuredHeight = table.getRowFormatter().getElement(firstDataRow).getOffsetHeight();
+                if (measuredHeight > 0) {
+                    rowHeight = measuredHeight;
+                    update();
+                    return;
+                }
+            }
+            topSpacer.setHeight((renderedFrom * height) + PX);
+            bottomSpacer.setHeight(((records.size() - renderedTo) * height) + PX);
+        }
+        
+        void deleteRow(int tableRow) {
+            int rowIndex = renderedFrom + tableRow - firstDataRow;
+            if (rowIndex < renderedFrom || rowIndex >= Math.min(renderedTo, value.getValue().size())) {
+                update();
+                return;
+            }
+            removeTableRow(value.getValue().get(rowIndex), tableRow);
+            renderedTo--;
+            value.removeRow(rowIndex);
+            update();
+        }
+        
+        private int getRowHeight() {
+            return rowHeight > 0 ? rowHeight : DEFAULT_ROW_HEIGHT;
+        }
+        
+        private void render(List<FormField> records, int from, int to) {
+            to = Math.min(to, records.size());
+            from = Math.min(from, to);
+            if (renderedTo > records.size()) {
+                clearRenderedRows();
+            }
+            if (from >= renderedTo || to <= renderedFrom) {
+                while (renderedTo > renderedFrom) {
+                    renderedTo--;
+                    removeTableRow(records.get(renderedTo), firstDataRow + renderedTo - renderedFrom);
+                }
+                renderedFrom = renderedTo = from;
+            }
+            while (renderedFrom < from) {
+                removeTableRow(records.get(renderedFrom), firstDataRow);
+                renderedFrom++;
+            }
+            while (renderedTo > to) {
+                renderedTo--;
+                removeTableRow(records.get(renderedTo), firstDataRow + renderedTo - renderedFrom);
+            }
+            while (renderedFrom > from) {
+                renderedFrom--;
+                insertTableRow(records.get(renderedFrom), firstDataRow);
+            }
+            while (renderedTo < to) {
+                insertTableRow(records.get(renderedTo), firstDataRow + renderedTo - renderedFrom);
+                renderedTo++;
+            }
+        }
+        
+        private void insertTableRow(FormField record, int tableRow) {
+            table.insertRow(tableRow);
+            List<HandlerRegistration> rowHandlerRegistrations = new ArrayList<>();
+            setRow(this, record, tableRow, rowHandlerRegistrations);
+            registrations.addAll(rowHandlerRegistrations);
+            rowHandlerRegistrationMap.put(record, rowHandlerRegistrations);
+        }
+        
+        private void removeTableRow(FormField record, int tableRow) {
+            releaseRowHandlers(rowHandlerRegistrationMap.remove(record));
+            table.removeRow(tableRow);
+        }
+        
+        /**
+         * Drops the whole rendered window. Used when the array shrank behind the
+         * table's back and the rendered range no longer maps onto its rows.
+         */
+        private void clearRenderedRows() {
+            for (List<HandlerRegistration> rowHandlerRegistrations : rowHandlerRegistrationMap.values()) {
+                releaseRowHandlers(rowHandlerRegistrations);
+            }
+            rowHandlerRegistrationMap.clear();
+            for (int i = renderedFrom; i < renderedTo; i++) {
+                table.removeRow(firstDataRow);
+            }
+            renderedFrom = renderedTo = 0;
+        }
+        
+        private void releaseRowHandlers(List<HandlerRegistration> rowHandlerRegistrations) {
+            if (rowHandlerRegistrations != null) {
+                for (HandlerRegistration registration : rowHandlerRegistrations) {
+                    registration.removeHandler();
+                }
+                registrations.removeAll(rowHandlerRegistrations);
+                rowHandlerRegistrations.clear();
+            }
+        }
+    }
 
     private String getScrollTablePreferredWidth(int configWidth) {
         return (configWidth - AbstractGrid.DEFAULT_GRID_MARGIN*2) + PX;
@@ -418,6 +573,7 @@ public class ArrayFieldWidget extends AbstractFieldWidget<ArrayField> {
         }
         
         public void reload() {
+            invalidateDataIndex();
             this.dataProvider.reload(getDataGrid());
         }
         
@@ -472,7 +628,7 @@ public class ArrayFieldWidget extends AbstractFieldWidget<ArrayField> {
                             }
                             String value = "";
                             if (metadata.size()==1) {
-                                int index = getObjectId(item);
+                                int index = dataProvider.indexOf(item.getId());
                                 value = "#" + index + " ";
                             }
                             if (field.getFieldType() == FieldType.UNION) {
@@ -542,7 +698,7 @@ public class ArrayFieldWidget extends AbstractFieldWidget<ArrayField> {
         }
         
         protected Integer getObjectId(FormField value) {
-            return dataProvider.getData().indexOf(value);
+            return value.getId();
         }
     }
     
@@ -551,13 +707,33 @@ public class ArrayFieldWidget extends AbstractFieldWidget<ArrayField> {
         private ArrayField arrayField;
 
         private boolean loaded = false;
+        
+        private final Map<Integer, Integer> rowIndexes = new HashMap<>();
+        
+        private boolean rowIndexesValid = false;
 
         public ArrayDataProvider(ArrayField arrayField) {
             this.arrayField = arrayField;
         }
+        
+        public int indexOf(Integer rowId) {
+            if (!rowIndexesValid) {
+                rowIndexes.clear();
+                List<FormField> rows = arrayField.getValue();
+                for (int i=0;i<rows.size();i++) {
+                    rowIndexes.put(rows.get(i).getId(), i);
+                }
+                rowIndexesValid = true;
+            }
+            Integer index = rowIndexes.get(rowId);
+            return index != null ? index : -1;
+        }
 
         public void addRow(FormField row) {
             arrayField.addArrayData(row);
+            if (rowIndexesValid) {
+                rowIndexes.put(row.getId(), arrayField.getValue().size()-1);
+            }
             updateRowCount(arrayField.getValue().size(), true);
             updateRowData(arrayField.getValue().size()-1, 
                     arrayField.getValue().subList(arrayField.getValue().size()-1, 
@@ -566,6 +742,7 @@ public class ArrayFieldWidget extends AbstractFieldWidget<ArrayField> {
         
         public void removeRow(int index) {
             arrayField.removeRow(index);
+            rowIndexesValid = false;
             updateRowCount(arrayField.getValue().size(), true);
             int updateIndex = index;
             updateIndex = Math.min(updateIndex, arrayField.getValue().size()-1);
@@ -581,6 +758,7 @@ public class ArrayFieldWidget extends AbstractFieldWidget<ArrayField> {
 
         public void reload(HasData<FormField> display) {
             this.loaded = false;
+            this.rowIndexesValid = false;
             loadData(display);
         }
 
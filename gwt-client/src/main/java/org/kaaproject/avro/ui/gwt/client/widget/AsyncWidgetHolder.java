@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.avro.ui.gwt.client.widget;
+
+import java.util.List;
+
+import org.kaaproject.avro.ui.gwt.client.AvroUiResources.AvroUiStyle;
+import org.kaaproject.avro.ui.gwt.client.util.Utils;
+
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.user.client.ui.Label;
+import com.google.gwt.user.client.ui.SimplePanel;
+import com.google.gwt.user.client.ui.Widget;
+
+/**
+ * Placeholder for a widget whose code is loaded behind a GWT.runAsync 
+ * split point. Once the handler registrations of the form it was created 
+ * for are cleared, the holder is cancelled and late loads are ignored.
+ */
+public class AsyncWidgetHolder extends SimplePanel {
+    
+    private final AvroUiStyle style;
+    private boolean cancelled = false;
+    
+    public AsyncWidgetHolder(AvroUiStyle style, List<HandlerRegistration> handlerRegistrations) {
+        this.style = style;
+        handlerRegistrations.add(new HandlerRegistration() {
+            @Override
+            public void removeHandler() {
+                cancelled = true;
+            }
+        });
+    }
+    
+    public boolean isActive() {
+        return !cancelled;
+    }
+    
+    public void setContent(Widget content) {
+        content.setWidth("100%");
+        setWidget(content);
+        if (isAttached() && content instanceof ShowableWidget) {
+            ((ShowableWidget)content).onShown();
+        }
+    }
+    
+    public void onLoadFailure(Throwable reason) {
+        if (!cancelled) {
+            Label label = new Label(Utils.messages.widgetLoadFailed(reason.getMessage()));
+            label.setStyleName(style.fieldNotes());
+            setWidget(label);
+        }
+    }
+
+}
@@ -67,6 +67,8 @@ public class FieldWidgetPanel extends Composite implements HasValue<Boolean>, Cl
     
     private FormField field;
     
+    private ContentFactory contentFactory;
+    
     public FieldWidgetPanel(AvroUiStyle style, FormField field, boolean readOnly, boolean openByDefault) {        
         
         this.field = field;
@@ -116,6 +118,29 @@ public class FieldWidgetPanel extends Composite implements HasValue<Boolean>, Cl
         return contentPanel.getWidget();
     }
     
+    /**
+     * Defers construction of the panel content until the panel is first opened.
+     * The content is created immediately if the panel is already open.
+     */
+    public void setContentFactory(ContentFactory contentFactory) {
+        this.contentFactory = contentFactory;
+        if (isOpen) {
+            ensureContent();
+        }
+    }
+    
+    public boolean isContentPending() {
+        return contentFactory != null;
+    }
+    
+    private void ensureContent() {
+        if (contentFactory != null) {
+            ContentFactory factory = contentFactory;
+            contentFactory = null;
+            setContent(factory.createContent());
+        }
+    }
+    
     public void setLegendWidget(Widget widget) {
         legendPanel.setVisible(true);
         legendPanel.setWidget(widget);
@@ -169,6 +194,9 @@ public class FieldWidgetPanel extends Composite implements HasValue<Boolean>, Cl
             if (field.isOverride()) {
                 legendBox.setValue(isOpen);
             }
+            if (isOpen) {
+                ensureContent();
+            }
             setContentDisplay(animate);
         }
     }
@@ -199,6 +227,12 @@ public class FieldWidgetPanel extends Composite implements HasValue<Boolean>, Cl
         
     }
     
+    public interface ContentFactory {
+        
+        Widget createContent();
+        
+    }
+    
     /**
      * An {@link Animation} used to open the content.
      */
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.avro.ui.gwt.client.widget;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.kaaproject.avro.ui.gwt.client.util.Utils;
+import org.kaaproject.avro.ui.shared.EnumSymbolIndex;
+import org.kaaproject.avro.ui.shared.FormEnum;
+
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.event.dom.client.BlurEvent;
+import com.google.gwt.event.dom.client.BlurHandler;
+import com.google.gwt.event.dom.client.FocusEvent;
+import com.google.gwt.event.dom.client.FocusHandler;
+import com.google.gwt.event.logical.shared.SelectionEvent;
+import com.google.gwt.event.logical.shared.SelectionHandler;
+import com.google.gwt.event.logical.shared.ValueChangeEvent;
+import com.google.gwt.event.logical.shared.ValueChangeHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.safehtml.shared.SafeHtmlUtils;
+import com.google.gwt.user.client.ui.Composite;
+import com.google.gwt.user.client.ui.HasValue;
+import com.google.gwt.user.client.ui.SuggestBox;
+import com.google.gwt.user.client.ui.SuggestOracle;
+import com.google.gwt.user.client.ui.TextBox;
+
+/**
+ * Searchable enum picker for enums with many symbols. Options are not 
+ * rendered up front; only the symbols matching the typed prefix are 
+ * looked up in the shared {@link EnumSymbolIndex} and shown on demand.
+ */
+public class FormEnumSuggestBox extends Composite implements HasValue<FormEnum> {
+    
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private final FormEnumSuggestOracle oracle = new FormEnumSuggestOracle();
+    private final TextBox textBox;
+    private final SuggestBox suggestBox;
+    private FormEnum value;
+    
+    public FormEnumSuggestBox(String promptText) {
+        textBox = new TextBox();
+        if (Utils.isNotBlank(promptText)) {
+            textBox.getElement().setAttribute("placeholder", promptText);
+        }
+        suggestBox = new SuggestBox(oracle, textBox);
+        suggestBox.setLimit(MAX_SUGGESTIONS);
+        initWidget(suggestBox);
+        
+        suggestBox.addSelectionHandler(new SelectionHandler<SuggestOracle.Suggestion>() {
+            @Override
+            public void onSelection(SelectionEvent<SuggestOracle.Suggestion> event) {
+                setValue(((FormEnumSuggestion)event.getSelectedItem()).getValue(), true);
+            }
+        });
+        textBox.addFocusHandler(new FocusHandler() {
+            @Override
+            public void onFocus(FocusEvent event) {
+                suggestBox.showSuggestionList();
+            }
+        });
+        textBox.addBlurHandler(new BlurHandler() {
+            @Override
+            public void onBlur(BlurEvent event) {
+                Scheduler.get().scheduleDeferred(new ScheduledCommand() {
+                    @Override
+                    public void execute() {
+                        if (Utils.isBlank(textBox.getText())) {
+                            setValue(null, true);
+                        } else {
+                            updateText();
+                        }
+                    }
+                });
+            }
+        });
+    }
+    
+    public void setEnumSymbolIndex(EnumSymbolIndex index) {
+        oracle.index = index;
+    }
+
+    @Override
+    public HandlerRegistration addValueChangeHandler(ValueChangeHandler<FormEnum> handler) {
+        return addHandler(handler, ValueChangeEvent.getType());
+    }
+
+    @Override
+    public FormEnum getValue() {
+        return value;
+    }
+
+    @Override
+    public void setValue(FormEnum value) {
+        setValue(value, false);
+    }
+
+    @Override
+    public void setValue(FormEnum value, boolean fireEvents) {
+        FormEnum oldValue = this.value;
+        this.value = value;
+        updateText();
+        if (fireEvents) {
+            ValueChangeEvent.fireIfNotEqual(this, oldValue, value);
+        }
+    }
+    
+    private void updateText() {
+        textBox.setText(value != null ? value.getDisplayValue() : "");
+    }
+    
+    static class FormEnumSuggestOracle extends SuggestOracle {
+        
+        private EnumSymbolIndex index;
+
+        @Override
+        public void requestSuggestions(Request request, Callback callback) {
+            List<Suggestion> suggestions = new ArrayList<>();
+            if (index != null) {
+                for (FormEnum enumValue : index.search(request.getQuery(), request.getLimit())) {
+                    suggestions.add(new FormEnumSuggestion(enumValue));
+                }
+            }
+            callback.onSuggestionsReady(request, new Response(suggestions));
+        }
+        
+        @Override
+        public void requestDefaultSuggestions(Request request, Callback callback) {
+            requestSuggestions(request, callback);
+        }
+        
+        @Override
+        public boolean isDisplayStringHTML() {
+            return true;
+        }
+    }
+    
+    static class FormEnumSuggestion implements SuggestOracle.Suggestion {
+        
+        private final FormEnum value;
+        
+        FormEnumSuggestion(FormEnum value) {
+            this.value = value;
+        }
+        
+        FormEnum getValue() {
+            return value;
+        }
+
+        @Override
+        public String getDisplayString() {
+            return SafeHtmlUtils.htmlEscape(value.getDisplayValue());
+        }
+
+        @Override
+        public String getReplacementString() {
+            return value.getDisplayValue();
+        }
+    }
+
+}
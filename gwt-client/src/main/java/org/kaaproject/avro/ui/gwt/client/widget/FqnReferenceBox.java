@@ -14,18 +14,22 @@
  * limitations under the License.
  */
 
+
 package org.kaaproject.avro.ui.gwt.client.widget;
 
-import java.util.Comparator;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 
 import org.kaaproject.avro.ui.gwt.client.util.Utils;
 import org.kaaproject.avro.ui.gwt.client.widget.choosen.AvroChoosenListBox;
+import org.kaaproject.avro.ui.shared.DeclaredTypesModel;
+import org.kaaproject.avro.ui.shared.DeclaredTypesModel.Delta;
 import org.kaaproject.avro.ui.shared.FqnKey;
 import org.kaaproject.avro.ui.shared.Fqn;
 
+import com.google.gwt.core.client.Scheduler;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
@@ -33,17 +37,27 @@ import com.google.gwt.user.client.ui.HasValue;
 import com.google.gwt.user.client.ui.SimplePanel;
 import com.watopi.chosen.client.event.ChosenChangeEvent;
 import com.watopi.chosen.client.event.ChosenChangeEvent.ChosenChangeHandler;
+import com.watopi.chosen.client.event.ShowingDropDownEvent;
+import com.watopi.chosen.client.event.ShowingDropDownEvent.ShowingDropDownHandler;
 import com.watopi.chosen.client.gwt.ChosenListBox;
 
 public class FqnReferenceBox extends SimplePanel implements HasValue<FqnKey>, ChosenChangeHandler, ShowableWidget {
 
+    private static final int MAX_CACHED_TEXTS = 4096;
+    
+    private static final Map<Integer, Map<String, String>> textWidthCache = new HashMap<>();
+    
+    private static int cachedTextsCount = 0;
+    
     private ChosenListBox fqnListBox;
     
     private FqnKey value;
     
-    private Map<String, FqnKey> hashToKeyMap = new LinkedHashMap<>();
+    private DeclaredTypesModel model;
     
-    private TreeMap<FqnKey, Fqn> fqnsMap = new TreeMap<>();
+    private int syncedVersion = -1;
+    
+    private boolean syncScheduled = false;
     
     private int lastRenderedWidth = 0;
     
@@ -54,6 +68,12 @@ public class FqnReferenceBox extends SimplePanel implements HasValue<FqnKey>, Ch
         
         fqnListBox.setAllowSingleDeselect(true);
         fqnListBox.addChosenChangeHandler(this);
+        fqnListBox.addShowingDropDownHandler(new ShowingDropDownHandler() {
+            @Override
+            public void onShowingDropDown(ShowingDropDownEvent event) {
+                syncListBox();
+            }
+        });
         
         fqnListBox.setWidth("100%");
         AvroChoosenListBox.setChoosenListBoxWidth(fqnListBox, "100%");
@@ -65,8 +85,8 @@ public class FqnReferenceBox extends SimplePanel implements HasValue<FqnKey>, Ch
         FqnKey newValue = null;
         if (fqnListBox.getValues().length == 1) {
             String hashValue = fqnListBox.getValues()[0];
-            if (hashValue != null) {
-                newValue = hashToKeyMap.get(hashValue);
+            if (hashValue != null && model != null) {
+                newValue = model.getKey(hashValue);
             }
         }
         setValue(newValue, true);
@@ -84,7 +104,7 @@ public class FqnReferenceBox extends SimplePanel implements HasValue<FqnKey>, Ch
 
     @Override
     public void setValue(FqnKey value, boolean fireEvents) {
-        if (value != null && !fqnsMap.containsKey(value)) {
+        if (value != null && (model == null || !model.contains(value))) {
             value = null;
         }
         
@@ -96,6 +116,7 @@ public class FqnReferenceBox extends SimplePanel implements HasValue<FqnKey>, Ch
         FqnKey before = this.value;
         this.value = value;
         
+        syncListBox();
         updateListBox();
 
         if (fireEvents) {
@@ -110,30 +131,107 @@ public class FqnReferenceBox extends SimplePanel implements HasValue<FqnKey>, Ch
     }
     
     public void updateDeclaredFqns(Map<FqnKey, Fqn> declaredFqns) {
-        FqnComparator fc = new FqnComparator(declaredFqns);
-        fqnsMap = new TreeMap<>(fc);
-        fqnsMap.putAll(declaredFqns);
-        hashToKeyMap.clear();
-        for (FqnKey key : this.fqnsMap.keySet()) {
-            hashToKeyMap.put(key.hashCode() + "", key);
+        setDeclaredTypesModel(new DeclaredTypesModel(declaredFqns));
+    }
+    
+    /**
+     * Binds the box to a declared types model, usually the one shared by all 
+     * boxes of a form context. Options are brought up to date with the model 
+     * lazily, when the box is shown or its drop down is opened.
+     */
+    public void setDeclaredTypesModel(DeclaredTypesModel model) {
+        if (this.model != model) {
+            this.model = model;
+            syncedVersion = -1;
+        }
+        onDeclaredTypesChanged();
+    }
+    
+    public void onDeclaredTypesChanged() {
+        if (model == null) {
+            return;
+        }
+        if (isAttached() && value != null && !model.contains(value)) {
+            setValue(null, true);
+        }
+        if (isAttached() && !syncScheduled && !isSynced()) {
+            syncScheduled = true;
+            Scheduler.get().scheduleDeferred(new ScheduledCommand() {
+                @Override
+                public void execute() {
+                    syncScheduled = false;
+                    if (isAttached() && (getOffsetHeight() > 0 || isValueChanged())) {
+                        syncListBox();
+                    }
+                }
+            });
         }
-        clearListBox();
-        setValue(this.value, true);
     }
     
     public void reset() {
         this.value = null;
-        hashToKeyMap.clear();
-        fqnsMap.clear();
-        clearListBox();
+        this.model = null;
+        syncedVersion = -1;
+        fqnListBox.clear();
         AvroChoosenListBox.setChoosenSearchFieldVisible(fqnListBox, true);
     }
     
+    private boolean isSynced() {
+        return model == null || syncedVersion == model.getVersion();
+    }
+    
+    private boolean isValueChanged() {
+        if (value == null || syncedVersion == -1) {
+            return false;
+        }
+        List<Delta> deltas = model.getDeltasSince(syncedVersion);
+        if (deltas == null) {
+            return true;
+        }
+        for (Delta delta : deltas) {
+            if (value.equals(delta.getKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void syncListBox() {
+        if (isSynced()) {
+            return;
+        }
+        List<Delta> deltas = syncedVersion > -1 ? model.getDeltasSince(syncedVersion) : null;
+        if (deltas == null) {
+            fqnListBox.clear(false);
+            for (FqnKey key : model.getSortedKeys()) {
+                fqnListBox.addItem(fqnValueText(model.getFqn(key)), DeclaredTypesModel.toValue(key));
+            }
+        } else {
+            for (Delta delta : deltas) {
+                switch (delta.getType()) {
+                    case ADD:
+                        fqnListBox.insertItem(fqnValueText(delta.getFqn()), 
+                                DeclaredTypesModel.toValue(delta.getKey()), delta.getNewIndex());
+                        break;
+                    case REMOVE:
+                        fqnListBox.removeItem(delta.getOldIndex());
+                        break;
+                    case RENAME:
+                        fqnListBox.removeItem(delta.getOldIndex());
+                        fqnListBox.insertItem(fqnValueText(delta.getFqn()), 
+                                DeclaredTypesModel.toValue(delta.getKey()), delta.getNewIndex());
+                        break;
+                }
+            }
+        }
+        syncedVersion = model.getVersion();
+        updateListBox();
+    }
+    
     private void updateListBox() {
+        fqnListBox.setSelectedIndex(-1);
         if (value != null) {
-            fqnListBox.setSelectedValue(value.hashCode() + "");
-        } else {
-           clearListBox();
+            fqnListBox.setSelectedValue(DeclaredTypesModel.toValue(value));
         }
         if (fqnListBox.getValues().length == 0) {
             AvroChoosenListBox.setChoosenSearchFieldVisible(fqnListBox, true);
@@ -143,15 +241,6 @@ public class FqnReferenceBox extends SimplePanel implements HasValue<FqnKey>, Ch
         }
     }
     
-    private void clearListBox() {
-        fqnListBox.clear();
-        for (String hash : hashToKeyMap.keySet()) {
-            FqnKey key = hashToKeyMap.get(hash);
-            fqnListBox.addItem(fqnValueText(fqnsMap.get(key)), hash);
-        }
-        fqnListBox.update();
-    }
-    
     private String fqnValueText(Fqn fqn) {
         if (fqn != null) {
             return updateFqnTextWidth(fqn.getFqnString(), lastRenderedWidth);
@@ -160,7 +249,28 @@ public class FqnReferenceBox extends SimplePanel implements HasValue<FqnKey>, Ch
         }
     }
     
-    private String updateFqnTextWidth(String stringFqn, int width) {
+    private static String updateFqnTextWidth(String text, int width) {
+        Map<String, String> widthCache = textWidthCache.get(width);
+        if (widthCache == null) {
+            widthCache = new HashMap<>();
+            textWidthCache.put(width, widthCache);
+        }
+        String result = widthCache.get(text);
+        if (result == null) {
+            result = splitFqnText(text, width);
+            if (cachedTextsCount >= MAX_CACHED_TEXTS) {
+                textWidthCache.clear();
+                cachedTextsCount = 0;
+                widthCache = new HashMap<>();
+                textWidthCache.put(width, widthCache);
+            }
+            widthCache.put(text, result);
+            cachedTextsCount++;
+        }
+        return result;
+    }
+    
+    private static String splitFqnText(String stringFqn, int width) {
         stringFqn = stringFqn.replaceAll("\\s+","");
         if (width == 0) {
             return stringFqn;
@@ -168,20 +278,21 @@ public class FqnReferenceBox extends SimplePanel implements HasValue<FqnKey>, Ch
         int maxRowChars = (int) ((float)width / 7.5f);
         if (stringFqn.length() > maxRowChars) {
             String parts[] = stringFqn.split("\\.");
-            stringFqn = "";
+            StringBuilder result = new StringBuilder();
             int rowLength = 0;
             for (int i = 0; i < parts.length; i++) {
                 if (i > 0) {
-                    stringFqn += ".";
+                    result.append('.');
                     rowLength++;
                 }
                 if (rowLength + parts[i].length() > maxRowChars) {
-                    stringFqn += "\n";
+                    result.append('\n');
                     rowLength = 0;
                 }
-                stringFqn += parts[i];
+                result.append(parts[i]);
                 rowLength += parts[i].length();
             }
+            stringFqn = result.toString();
         }
         return stringFqn;
     }
@@ -191,6 +302,7 @@ public class FqnReferenceBox extends SimplePanel implements HasValue<FqnKey>, Ch
         super.onAttach();
         fqnListBox.setWidth("100%");
         AvroChoosenListBox.setChoosenListBoxWidth(fqnListBox, "100%");
+        syncListBox();
         AvroChoosenListBox.setChoosenSearchFieldVisible(fqnListBox, fqnListBox.getValues().length == 0);
         updateTextWidth();
         fqnListBox.update();
@@ -198,6 +310,7 @@ public class FqnReferenceBox extends SimplePanel implements HasValue<FqnKey>, Ch
     
     @Override
     public void onShown() {
+        syncListBox();
         updateTextWidth();
     }
     
@@ -213,29 +326,5 @@ public class FqnReferenceBox extends SimplePanel implements HasValue<FqnKey>, Ch
             lastRenderedWidth = width;
         }
     }
-    
-    class FqnComparator implements Comparator<FqnKey> {
-        
-        Map<FqnKey, Fqn> map;
-     
-        public FqnComparator(Map<FqnKey, Fqn> base) {
-            this.map = base;
-        }
-     
-        public int compare(FqnKey a, FqnKey b) {
-            Fqn af = map.get(a);
-            Fqn bf = map.get(b);
-            if (af == null) {
-                if (a.equals(b)) {
-                    return 0;
-                } else {
-                    return -1;
-                }
-            } else {
-                return af.compareTo(bf);
-            }
-        }
-    }
-
 
 }
@@ -34,7 +34,8 @@ import org.kaaproject.avro.ui.shared.FormField;
 import org.kaaproject.avro.ui.shared.RecordField;
 import org.kaaproject.avro.ui.shared.UnionField;
 
-import com.google.gwt.core.shared.GWT;
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.RunAsyncCallback;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.Node;
 import com.google.gwt.dom.client.Style.Overflow;
@@ -209,6 +210,71 @@ public class RecordFieldWidget extends AbstractFieldWidget<RecordField> implemen
         return resizePanel;
     }
     
+    private void showZoomPopup() {
+        final int prevPreferredWidthPx = preferredWidthPx;
+        final int prevPreferredHeightPx = preferredHeightPx;
+        final String prevWidth;
+        if (lastWidth != null) {
+            prevWidth = lastWidth;
+        } else {
+            prevWidth = resizePanel.getElement().getClientWidth() + "px";
+        }
+        final String prevHeight;
+        if (lastHeight != null) {
+            prevHeight = lastHeight;
+        } else {
+            prevHeight = resizePanel.getElement().getClientHeight() + "px";
+        }
+        final AvroWidgetsConfig prevConfig = config;
+
+        final FormPopup popup = new FormPopup();
+
+        popup.setTitle(value.getDisplayName());
+
+        int dWidth = Window.getClientWidth() - 150;
+        int dHeight = Window.getClientHeight() - 200;
+
+        AvroWidgetsConfig config = new AvroWidgetsConfig.Builder().recordPanelWidth(dWidth-100).
+                gridHeight(dHeight-350).tableHeight(dHeight-370).createConfig();
+           
+        enableZoom(false);
+        setPreferredWidthPx(dWidth);
+        setPreferredHeightPx(dHeight);
+        updateConfig(config);
+
+        popup.add(getAnchorWidget());
+
+        Button close = new Button(Utils.constants.close(), new ClickHandler() {
+            @Override
+            public void onClick(ClickEvent event) {
+                popup.hide();
+            }
+        });
+        popup.addButton(close);
+
+        popup.addCloseHandler(new CloseHandler<PopupPanel>() {
+            @Override
+            public void onClose(CloseEvent<PopupPanel> event) {
+                enableZoom(true);
+                setWidget(getAnchorWidget());
+                updateConfig(prevConfig);
+                setPreferredWidthPx(prevPreferredWidthPx);
+                setPreferredHeightPx(prevPreferredHeightPx);
+                if (prevWidth != null) {
+                    setWidth(prevWidth);
+                }
+                if (prevHeight != null) {
+                    setHeight(prevHeight);
+                }
+                traverseShown((HasWidgets)getAnchorWidget());
+            }
+        });
+
+        popup.center();
+        popup.show();
+        traverseShown((HasWidgets)getAnchorWidget());
+    }
+    
     private void initNavigation() {
         if (resizePanel == null) {
             resizePanel = new ResizePanel(style);
@@ -218,69 +284,16 @@ public class RecordFieldWidget extends AbstractFieldWidget<RecordField> implemen
             navPanel.setZoomListener(new ZoomListener() {
                 @Override
                 public void onZoom() {
-                    
-                    final int prevPreferredWidthPx = preferredWidthPx;
-                    final int prevPreferredHeightPx = preferredHeightPx;
-                    final String prevWidth;
-                    if (lastWidth != null) {
-                        prevWidth = lastWidth;
-                    } else {
-                        prevWidth = resizePanel.getElement().getClientWidth() + "px";
-                    }
-                    final String prevHeight;
-                    if (lastHeight != null) {
-                        prevHeight = lastHeight;
-                    } else {
-                        prevHeight = resizePanel.getElement().getClientHeight() + "px";
-                    }
-                    final AvroWidgetsConfig prevConfig = config;
-                    
-                    final FormPopup popup = new FormPopup();
-                    
-                    popup.setTitle(value.getDisplayName());
-                    
-                    int dWidth = Window.getClientWidth() - 150;
-                    int dHeight = Window.getClientHeight() - 200;
-                    
-                    AvroWidgetsConfig config = new AvroWidgetsConfig.Builder().recordPanelWidth(dWidth-100).
-                            gridHeight(dHeight-350).tableHeight(dHeight-370).createConfig();
-           
-                    enableZoom(false);
-                    setPreferredWidthPx(dWidth);
-                    setPreferredHeightPx(dHeight);
-                    updateConfig(config);
-                    
-                    popup.add(getAnchorWidget());
-
-                    Button close = new Button(Utils.constants.close(), new ClickHandler() {
+                    GWT.runAsync(FormPopup.class, new RunAsyncCallback() {
                         @Override
-                        public void onClick(ClickEvent event) {
-                            popup.hide();
+                        public void onSuccess() {
+                            showZoomPopup();
                         }
-                    });
-                    popup.addButton(close);
-                    
-                    popup.addCloseHandler(new CloseHandler<PopupPanel>() {
                         @Override
-                        public void onClose(CloseEvent<PopupPanel> event) {
-                            enableZoom(true);
-                            setWidget(getAnchorWidget());
-                            updateConfig(prevConfig);
-                            setPreferredWidthPx(prevPreferredWidthPx);
-                            setPreferredHeightPx(prevPreferredHeightPx);
-                            if (prevWidth != null) {
-                                setWidth(prevWidth);
-                            }
-                            if (prevHeight != null) {
-                                setHeight(prevHeight);
-                            }
-                            traverseShown((HasWidgets)getAnchorWidget());
+                        public void onFailure(Throwable reason) {
+                            Window.alert(Utils.messages.widgetLoadFailed(reason.getMessage()));
                         }
                     });
-
-                    popup.center();
-                    popup.show();
-                    traverseShown((HasWidgets)getAnchorWidget());
                 }
             });
             
@@ -314,6 +327,7 @@ public class RecordFieldWidget extends AbstractFieldWidget<RecordField> implemen
             navPanel.clear();
             navPanel = null;
             fragmentPanel = null;
+            closeNavElements(navElements);
             navElements.clear();
             navElements = null;
         }
@@ -437,6 +451,7 @@ public class RecordFieldWidget extends AbstractFieldWidget<RecordField> implemen
             isAnimating = false;
             initNavigation();
             navPanel.clearNavElements();
+            closeNavElements(navElements);
             navElements.clear();
             fragmentPanel.clear();
             if (value != null) {
@@ -523,6 +538,7 @@ public class RecordFieldWidget extends AbstractFieldWidget<RecordField> implemen
                 @Override
                 public void onAnimationComplete() {
                     for (NavigationElement oldNavElement : navElements.subList(index+1, navElements.size())) {
+                        oldNavElement.close();
                         navPanel.removeNavElement(oldNavElement.getLink());
                         fragmentPanel.remove(oldNavElement.getWidget());
                     }
@@ -538,6 +554,12 @@ public class RecordFieldWidget extends AbstractFieldWidget<RecordField> implemen
         }
     }
     
+    private static void closeNavElements(List<NavigationElement> elements) {
+        for (NavigationElement navElement : elements) {
+            navElement.close();
+        }
+    }
+    
     private int confirmIndex(int index) {
         int confirmedIndex = index;
         for (int i=navElements.size()-1;i>index;i--) {
@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.kaaproject.avro.ui.gwt.client.AvroUiResources.AvroUiStyle;
+import org.kaaproject.avro.ui.gwt.client.widget.FieldWidgetPanel.ContentFactory;
 import org.kaaproject.avro.ui.gwt.client.widget.nav.NavigationContainer;
 import org.kaaproject.avro.ui.shared.FormField;
 import org.kaaproject.avro.ui.shared.FormField.ValueChangeListener;
@@ -64,7 +65,6 @@ public class UnionFieldWidget extends AbstractFieldWidget<UnionField> implements
         
         recordTable = new FlexTable();
         fieldWidgetPanel.setWidth(config.getUnionPanelWidth());
-        fieldWidgetPanel.setContent(recordTable);
 
         boolean isReadOnly = readOnly || value.isReadOnly();
         
@@ -113,7 +113,13 @@ public class UnionFieldWidget extends AbstractFieldWidget<UnionField> implements
         
         recordTable.getColumnFormatter().setWidth(0, config.getLabelsColumnWidth());
         recordTable.getColumnFormatter().setWidth(1, config.getFieldsColumnWidth());
-        constructFormData(recordTable, value.getValue(), recordTableRegistrations);
+        fieldWidgetPanel.setContentFactory(new ContentFactory() {
+            @Override
+            public Widget createContent() {
+                constructFormData(recordTable, value.getValue(), recordTableRegistrations);
+                return recordTable;
+            }
+        });
         return fieldWidgetPanel;
     }
     
@@ -153,10 +159,7 @@ public class UnionFieldWidget extends AbstractFieldWidget<UnionField> implements
     private void updateForm() {
         clearRecordTableRegistrations();
 
-        if (value.getValue() == null) {
-            recordTable.clear();
-        }
-        else {
+        if (!fieldWidgetPanel.isContentPending()) {
             constructFormData(recordTable, value.getValue(), recordTableRegistrations);
         }
         fieldWidgetPanel.setValue(true, false, true);
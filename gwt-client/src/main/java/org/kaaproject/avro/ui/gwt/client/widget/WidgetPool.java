@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kaaproject.avro.ui.gwt.client.widget;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.kaaproject.avro.ui.gwt.client.AvroUiResources.AvroUiStyle;
+
+import com.google.gwt.user.client.ui.Widget;
+
+/**
+ * Pool of detached input widgets, grouped by a key that describes 
+ * their construction parameters. Widgets taken from the pool are rebound 
+ * to new fields instead of being constructed again. Callers reset the
+ * widgets before releasing them. Both the number of widgets per key and
+ * the total number of pooled widgets are bounded, and keys without
+ * pooled widgets are dropped, so the pool does not grow with the number
+ * of distinct prompts seen.
+ */
+public class WidgetPool {
+    
+    private static final int MAX_POOLED_WIDGETS_PER_KEY = 50;
+    private static final int MAX_POOLED_WIDGETS = 200;
+    
+    private static final Map<AvroUiStyle, WidgetPool> pools = new HashMap<>();
+    
+    public static WidgetPool get(AvroUiStyle style) {
+        WidgetPool pool = pools.get(style);
+        if (pool == null) {
+            pool = new WidgetPool();
+            pools.put(style, pool);
+        }
+        return pool;
+    }
+    
+    private final Map<String, List<Widget>> widgets = new HashMap<>();
+    
+    private int size = 0;
+    
+    private WidgetPool() {
+    }
+    
+    @SuppressWarnings("unchecked")
+    public <W extends Widget> W acquire(String key) {
+        List<Widget> pooled = widgets.get(key);
+        if (pooled != null && !pooled.isEmpty()) {
+            W widget = (W)pooled.remove(pooled.size()-1);
+            if (pooled.isEmpty()) {
+                widgets.remove(key);
+            }
+            size--;
+            return widget;
+        }
+        return null;
+    }
+    
+    public void release(String key, Widget widget) {
+        widget.removeFromParent();
+        if (size >= MAX_POOLED_WIDGETS) {
+            return;
+        }
+        List<Widget> pooled = widgets.get(key);
+        if (pooled == null) {
+            pooled = new ArrayList<>();
+            widgets.put(key, pooled);
+        }
+        if (pooled.size() < MAX_POOLED_WIDGETS_PER_KEY && !pooled.contains(widget)) {
+            pooled.add(widget);
+            size++;
+        }
+    }
+    
+    public void clear() {
+        widgets.clear();
+        size = 0;
+    }
+
+}
@@ -30,6 +30,7 @@ import com.google.gwt.user.cellview.client.Header;
 import com.google.gwt.user.cellview.client.SafeHtmlHeader;
 import com.google.gwt.user.cellview.client.SimplePager;
 import com.google.gwt.user.cellview.client.SimplePager.TextLocation;
+import com.google.gwt.user.client.Timer;
 import com.google.gwt.user.client.ui.DockLayoutPanel;
 import com.google.gwt.user.client.ui.HTMLPanel;
 import com.google.gwt.user.client.ui.Label;
@@ -38,6 +39,7 @@ import com.google.gwt.view.client.HasRows;
 import com.google.gwt.view.client.MultiSelectionModel;
 import com.google.gwt.view.client.ProvidesKey;
 import com.google.gwt.view.client.Range;
+import com.google.gwt.view.client.RowCountChangeEvent;
 import com.google.gwt.view.client.SelectionChangeEvent;
 
 import org.kaaproject.avro.ui.gwt.client.util.Utils;
@@ -55,7 +57,6 @@ import org.kaaproject.avro.ui.gwt.client.widget.grid.event.RowActionEvent;
 import org.kaaproject.avro.ui.gwt.client.widget.grid.event.RowActionEventHandler;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -68,6 +69,8 @@ public abstract class AbstractGrid<T, K> extends DockLayoutPanel implements HasR
     protected static final int ACTION_COLUMN_WIDTH = 40;
 
     private static final int DEFAULT_PAGE_SIZE = 20;
+    
+    private static final int FILTER_DELAY_MS = 250;
 
     private static SimplePager.Resources pagerResourcesDefault = GWT.create(SimplePager.Resources.class);
     private static AvroUiPagerResourcesSmall pagerResourcesSmall = GWT.create(AvroUiPagerResourcesSmall.class);
@@ -90,6 +93,10 @@ public abstract class AbstractGrid<T, K> extends DockLayoutPanel implements HasR
     
     private final List<FiltrableStringColumn<T>> filtrableColumns = new ArrayList<>();
     
+    private final GridDataIndex<T> dataIndex = new GridDataIndex<>();
+    
+    private Timer filterTimer;
+    
     public AbstractGrid(Style.Unit unit) {
         this(unit, true);
     }
@@ -146,6 +153,12 @@ public abstract class AbstractGrid<T, K> extends DockLayoutPanel implements HasR
         };
         table = new AvroUiDataGrid<T>(this.pageSize, keyProvider, gridResources);
         table.setAutoHeaderRefreshDisabled(true);
+        table.addRowCountChangeHandler(new RowCountChangeEvent.Handler() {
+            @Override
+            public void onRowCountChange(RowCountChangeEvent event) {
+                dataIndex.invalidate();
+            }
+        });
         Label emptyTableLabel = new Label(Utils.constants.dataGridEmpty());
         if (embedded) {
             emptyTableLabel.getElement().getStyle().setFontSize(14, Unit.PX);
@@ -217,35 +230,36 @@ public abstract class AbstractGrid<T, K> extends DockLayoutPanel implements HasR
     }
 
     public void sort(List<T> data, Column<?, ?> column, boolean isSortAscending) {
-        final Comparator<T> comparator = comparators.get(column);
+        Comparator<T> comparator = comparators.get(column);
         if (comparator == null) {
             return;
         }
-        if (isSortAscending) {
-            Collections.sort(data, comparator);
-        } else {
-            Collections.sort(data, new Comparator<T>() {
-                public int compare(T o1, T o2) {
-                    return -comparator.compare(o1, o2);
-                }
-            });
-        }
+        dataIndex.sort(data, column, comparator, isSortAscending);
     }
     
     public List<T> filter(List<T> data) {
-        List<T> filteredData = data;
-        for (FiltrableStringColumn<T> filtrableStringColumn : filtrableColumns) {
-            if (!filtrableStringColumn.isFilterEmpty()) {
-                List<T> newFilteredData = new ArrayList<>();
-                for (T object : filteredData) {
-                    if (filtrableStringColumn.matched(object)) {
-                        newFilteredData.add(object);
-                    }
+        return dataIndex.filter(data, filtrableColumns);
+    }
+    
+    /**
+     * Drops cached sort and filter indexes. The grid does this by itself when
+     * its row count changes; data providers must call it when they reload the
+     * grid or when row objects already shown by the grid are modified in place.
+     */
+    public void invalidateDataIndex() {
+        dataIndex.invalidate();
+    }
+    
+    public void scheduleColumnFilter() {
+        if (filterTimer == null) {
+            filterTimer = new Timer() {
+                @Override
+                public void run() {
+                    ColumnFilterEvent.fire(AbstractGrid.this);
                 }
-                filteredData = newFilteredData;
-            }
+            };
         }
-        return filteredData;
+        filterTimer.schedule(FILTER_DELAY_MS);
     }
     
     protected void onRowClicked(K id) {
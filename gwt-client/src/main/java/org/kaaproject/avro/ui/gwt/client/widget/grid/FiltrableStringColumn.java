@@ -22,6 +22,7 @@ import com.google.gwt.user.cellview.client.Column;
 public abstract class FiltrableStringColumn<T> extends Column<T, String> {
 
     private String filterString = "";
+    private String lowerCaseFilterString = "";
     
     public FiltrableStringColumn(Cell<String> cell) {
         super(cell);
@@ -33,6 +34,11 @@ public abstract class FiltrableStringColumn<T> extends Column<T, String> {
 
     public void setFilterString(String filterString) {
         this.filterString = filterString;
+        this.lowerCaseFilterString = filterString != null ? filterString.toLowerCase() : "";
+    }
+    
+    public String getLowerCaseFilterString() {
+        return lowerCaseFilterString;
     }
     
     public boolean isFilterEmpty() {
@@ -42,7 +48,7 @@ public abstract class FiltrableStringColumn<T> extends Column<T, String> {
     public boolean matched(T object) {
         if (!isFilterEmpty()) {
             String value = getValue(object);
-            return value != null ? value.toLowerCase().contains(filterString.toLowerCase()) : false;
+            return value != null ? value.toLowerCase().contains(lowerCaseFilterString) : false;
         } else {
             return true;
         }
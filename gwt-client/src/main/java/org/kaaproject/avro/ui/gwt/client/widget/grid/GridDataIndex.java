@@ -0,0 +1,249 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kaaproject.avro.ui.gwt.client.widget.grid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gwt.user.cellview.client.Column;
+
+/**
+ * Sort and filter index over the rows of an {@link AbstractGrid}.
+ * <p>
+ * Rows are snapshotted once per data set. Column values used by filters are
+ * extracted and lower-cased once per row, sorted permutations are built once
+ * per column and reused for both directions, and filters narrow their previous
+ * result when the new filter text contains the previous one.
+ * <p>
+ * Lists passed in are recognized by identity of their elements against the
+ * positions this index last produced for them, so a list that was changed
+ * behind the index is simply re-indexed. Row objects changed in place must be
+ * reported through {@link #invalidate()}.
+ */
+class GridDataIndex<T> {
+
+    private List<T> rows = new ArrayList<>();
+
+    private List<T> dataList;
+    private int[] dataOrder = new int[0];
+
+    private List<T> viewList;
+    private int[] viewOrder;
+
+    private final Map<Column<?, ?>, int[]> ascendingIndexes = new HashMap<>();
+    private final Map<Column<?, ?>, int[]> descendingIndexes = new HashMap<>();
+    private final Map<FiltrableStringColumn<T>, FilterState> filterStates = new HashMap<>();
+
+    private int[] hits = new int[0];
+
+    public void invalidate() {
+        dataList = null;
+        viewList = null;
+        viewOrder = null;
+        rows = new ArrayList<>();
+        dataOrder = new int[0];
+        ascendingIndexes.clear();
+        descendingIndexes.clear();
+        filterStates.clear();
+    }
+
+    public List<T> filter(List<T> data, List<FiltrableStringColumn<T>> columns) {
+        int[] order = resolve(data);
+        int active = 0;
+        for (FiltrableStringColumn<T> column : columns) {
+            if (!column.isFilterEmpty()) {
+                if (active == 0) {
+                    Arrays.fill(hits, 0);
+                }
+                FilterState state = getFilterState(column);
+                state.apply(column.getLowerCaseFilterString());
+                for (int i=0;i<state.matchedCount;i++) {
+                    hits[state.matched[i]]++;
+                }
+                active++;
+            }
+        }
+        if (active == 0) {
+            return data;
+        }
+        List<T> filteredData = new ArrayList<>();
+        int[] filteredOrder = new int[data.size()];
+        for (int i=0;i<order.length;i++) {
+            int row = order[i];
+            if (hits[row] == active) {
+                filteredOrder[filteredData.size()] = row;
+                filteredData.add(rows.get(row));
+            }
+        }
+        viewList = filteredData;
+        viewOrder = new int[filteredData.size()];
+        System.arraycopy(filteredOrder, 0, viewOrder, 0, viewOrder.length);
+        return filteredData;
+    }
+
+    public void sort(List<T> data, Column<?, ?> column, Comparator<T> comparator, boolean isSortAscending) {
+        int[] order = resolve(data);
+        int[] index = getSortIndex(column, comparator, isSortAscending);
+        if (order.length == rows.size()) {
+            for (int i=0;i<index.length;i++) {
+                order[i] = index[i];
+                data.set(i, rows.get(index[i]));
+            }
+        } else {
+            boolean[] members = new boolean[rows.size()];
+            for (int row : order) {
+                members[row] = true;
+            }
+            int position = 0;
+            for (int row : index) {
+                if (members[row]) {
+                    order[position] = row;
+                    data.set(position++, rows.get(row));
+                }
+            }
+        }
+    }
+
+    private int[] resolve(List<T> data) {
+        if (data == dataList && matches(data, dataOrder)) {
+            return dataOrder;
+        }
+        if (data == viewList && matches(data, viewOrder)) {
+            return viewOrder;
+        }
+        invalidate();
+        rows = new ArrayList<>(data);
+        dataList = data;
+        dataOrder = new int[rows.size()];
+        for (int i=0;i<dataOrder.length;i++) {
+            dataOrder[i] = i;
+        }
+        hits = new int[rows.size()];
+        return dataOrder;
+    }
+
+    private boolean matches(List<T> data, int[] order) {
+        if (order == null || data.size() != order.length) {
+            return false;
+        }
+        for (int i=0;i<order.length;i++) {
+            if (data.get(i) != rows.get(order[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int[] getSortIndex(Column<?, ?> column, final Comparator<T> comparator, boolean isSortAscending) {
+        int[] ascending = ascendingIndexes.get(column);
+        if (ascending == null) {
+            Integer[] permutation = new Integer[rows.size()];
+            for (int i=0;i<permutation.length;i++) {
+                permutation[i] = i;
+            }
+            Arrays.sort(permutation, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer o1, Integer o2) {
+                    return comparator.compare(rows.get(o1), rows.get(o2));
+                }
+            });
+            ascending = new int[permutation.length];
+            for (int i=0;i<permutation.length;i++) {
+                ascending[i] = permutation[i];
+            }
+            ascendingIndexes.put(column, ascending);
+        }
+        if (isSortAscending) {
+            return ascending;
+        }
+        int[] descending = descendingIndexes.get(column);
+        if (descending == null) {
+            descending = new int[ascending.length];
+            int position = descending.length;
+            int runStart = 0;
+            while (runStart < ascending.length) {
+                int runEnd = runStart + 1;
+                while (runEnd < ascending.length && 
+                        comparator.compare(rows.get(ascending[runStart]), rows.get(ascending[runEnd])) == 0) {
+                    runEnd++;
+                }
+                position -= runEnd - runStart;
+                System.arraycopy(ascending, runStart, descending, position, runEnd - runStart);
+                runStart = runEnd;
+            }
+            descendingIndexes.put(column, descending);
+        }
+        return descending;
+    }
+
+    private FilterState getFilterState(FiltrableStringColumn<T> column) {
+        FilterState state = filterStates.get(column);
+        if (state == null) {
+            String[] values = new String[rows.size()];
+            for (int i=0;i<values.length;i++) {
+                String value = column.getValue(rows.get(i));
+                values[i] = value != null ? value.toLowerCase() : null;
+            }
+            state = new FilterState(values);
+            filterStates.put(column, state);
+        }
+        return state;
+    }
+
+    private static class FilterState {
+
+        private final String[] values;
+        private String filter;
+        private int[] matched;
+        private int matchedCount;
+
+        FilterState(String[] values) {
+            this.values = values;
+            this.matched = new int[values.length];
+        }
+
+        void apply(String newFilter) {
+            if (newFilter.equals(filter)) {
+                return;
+            }
+            if (filter != null && newFilter.contains(filter)) {
+                int count = 0;
+                for (int i=0;i<matchedCount;i++) {
+                    int row = matched[i];
+                    if (values[row].contains(newFilter)) {
+                        matched[count++] = row;
+                    }
+                }
+                matchedCount = count;
+            } else {
+                matchedCount = 0;
+                for (int row=0;row<values.length;row++) {
+                    if (values[row] != null && values[row].contains(newFilter)) {
+                        matched[matchedCount++] = row;
+                    }
+                }
+            }
+            filter = newFilter;
+        }
+    }
+
+}
@@ -44,7 +44,11 @@ public class StringFilterHeader extends Header<String> implements ValueUpdater<S
             prev != null && value == null ||
             prev != null && value != null && !prev.equals(value)) { 
             column.setFilterString(value);
-            ColumnFilterEvent.fire(source);
+            if (source instanceof AbstractGrid) {
+                ((AbstractGrid<?, ?>)source).scheduleColumnFilter();
+            } else {
+                ColumnFilterEvent.fire(source);
+            }
         }
     }
 
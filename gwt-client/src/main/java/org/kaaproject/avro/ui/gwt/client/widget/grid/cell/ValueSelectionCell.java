@@ -20,8 +20,10 @@ import com.google.gwt.cell.client.AbstractInputCell;
 import com.google.gwt.cell.client.ValueUpdater;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.dom.client.BrowserEvents;
+import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.NativeEvent;
+import com.google.gwt.dom.client.OptionElement;
 import com.google.gwt.dom.client.SelectElement;
 import com.google.gwt.safehtml.client.SafeHtmlTemplates;
 import com.google.gwt.safehtml.shared.SafeHtml;
@@ -33,7 +35,9 @@ import java.util.HashMap;
 import java.util.List;
 
 /**
- * A {@link Cell} used to render a drop-down list.
+ * A {@link Cell} used to render a drop-down list. Only the selected option 
+ * is rendered with the cell, the full option list is populated on first 
+ * interaction with the select element.
  */
 public class ValueSelectionCell<T> extends AbstractInputCell<T, T> {
 
@@ -45,6 +49,8 @@ public class ValueSelectionCell<T> extends AbstractInputCell<T, T> {
     SafeHtml selected(String option);
   }
 
+  private static final String POPULATED_ATTRIBUTE = "data-populated";
+
   private static Template template;
 
   private HashMap<T, Integer> indexForOption = new HashMap<T, Integer>();
@@ -52,6 +58,8 @@ public class ValueSelectionCell<T> extends AbstractInputCell<T, T> {
   private final List<T> options;
   
   private final Renderer<T> renderer;
+  
+  private String[] optionTexts;
 
   /**
    * Construct a new {@link ValueSelectionCell} with the specified options.
@@ -60,7 +68,7 @@ public class ValueSelectionCell<T> extends AbstractInputCell<T, T> {
    * @param renderer the renderer to render options in the cell
    */
   public ValueSelectionCell(List<T> options, Renderer<T> renderer) {
-    super(BrowserEvents.CHANGE);
+    super(BrowserEvents.CHANGE, BrowserEvents.MOUSEDOWN);
     if (template == null) {
       template = GWT.create(Template.class);
     }
@@ -77,9 +85,15 @@ public class ValueSelectionCell<T> extends AbstractInputCell<T, T> {
       NativeEvent event, ValueUpdater<T> valueUpdater) {
     super.onBrowserEvent(context, parent, value, event, valueUpdater);
     String type = event.getType();
-    if (BrowserEvents.CHANGE.equals(type)) {
+    SelectElement select = parent.getFirstChild().cast();
+    if (BrowserEvents.MOUSEDOWN.equals(type) || BrowserEvents.FOCUS.equals(type)
+        || BrowserEvents.KEYDOWN.equals(type)) {
+      ensureOptions(select, value);
+    } else if (BrowserEvents.CHANGE.equals(type)) {
+      if (!isPopulated(select)) {
+        return;
+      }
       Object key = context.getKey();
-      SelectElement select = parent.getFirstChild().cast();
       T newValue = options.get(select.getSelectedIndex());
       //setViewData(key, newValue);
       finishEditing(parent, newValue, key, valueUpdater);
@@ -93,17 +107,48 @@ public class ValueSelectionCell<T> extends AbstractInputCell<T, T> {
   public void render(Context context, T value, SafeHtmlBuilder sb) {
     int selectedIndex = getSelectedIndex(value);
     sb.appendHtmlConstant("<select tabindex=\"-1\">");
-    int index = 0;
-    for (T option : options) {
-      if (index++ == selectedIndex) {
-        sb.append(template.selected(renderer.render(option)));
-      } else {
-        sb.append(template.deselected(renderer.render(option)));
-      }
+    if (selectedIndex > -1) {
+      sb.append(template.selected(getOptionTexts()[selectedIndex]));
+    } else {
+      sb.append(template.selected(""));
     }
     sb.appendHtmlConstant("</select>");
   }
 
+  private boolean isPopulated(SelectElement select) {
+    return select.hasAttribute(POPULATED_ATTRIBUTE);
+  }
+
+  private void ensureOptions(SelectElement select, T value) {
+    if (isPopulated(select)) {
+      return;
+    }
+    int selectedIndex = getSelectedIndex(value);
+    String[] texts = getOptionTexts();
+    while (select.getLength() > 0) {
+      select.remove(0);
+    }
+    Document document = Document.get();
+    for (int i = 0; i < texts.length; i++) {
+      OptionElement option = document.createOptionElement();
+      option.setValue(texts[i]);
+      option.setText(texts[i]);
+      select.add(option, null);
+    }
+    select.setSelectedIndex(selectedIndex);
+    select.setAttribute(POPULATED_ATTRIBUTE, "true");
+  }
+
+  private String[] getOptionTexts() {
+    if (optionTexts == null) {
+      optionTexts = new String[options.size()];
+      for (int i = 0; i < optionTexts.length; i++) {
+        optionTexts[i] = renderer.render(options.get(i));
+      }
+    }
+    return optionTexts;
+  }
+
   private int getSelectedIndex(T value) {
     Integer index = indexForOption.get(value);
     if (index == null) {
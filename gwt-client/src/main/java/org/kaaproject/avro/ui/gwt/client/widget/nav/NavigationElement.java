@@ -16,10 +16,14 @@
 
 package org.kaaproject.avro.ui.gwt.client.widget.nav;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.kaaproject.avro.ui.gwt.client.AvroUiResources.AvroUiStyle;
 import org.kaaproject.avro.ui.gwt.client.util.Utils;
 import org.kaaproject.avro.ui.gwt.client.widget.AbstractFieldWidget;
 import org.kaaproject.avro.ui.gwt.client.widget.ArrayFieldWidget;
+import org.kaaproject.avro.ui.gwt.client.widget.AsyncWidgetHolder;
 import org.kaaproject.avro.ui.gwt.client.widget.AvroWidgetsConfig;
 import org.kaaproject.avro.ui.gwt.client.widget.RecordFieldWidget;
 import org.kaaproject.avro.ui.gwt.client.widget.UnionFieldWidget;
@@ -28,10 +32,13 @@ import org.kaaproject.avro.ui.shared.FormField;
 import org.kaaproject.avro.ui.shared.RecordField;
 import org.kaaproject.avro.ui.shared.UnionField;
 
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.core.client.RunAsyncCallback;
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
 import com.google.gwt.event.logical.shared.ValueChangeHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.ui.Button;
 import com.google.gwt.user.client.ui.HasHorizontalAlignment;
 import com.google.gwt.user.client.ui.HorizontalPanel;
@@ -46,11 +53,13 @@ public class NavigationElement {
     private final NavLink link;
     private final FormField field;
     private final ScrollPanel widget = new ScrollPanel();
-    private final AbstractFieldWidget<?> fieldWidget;
+    private AbstractFieldWidget<?> fieldWidget;
+    private boolean shown = false;
     private final NavigationAction action;
     private final NavigationActionListener listener;
     private Button addButton;
     private boolean added = false;
+    private final List<HandlerRegistration> registrations = new ArrayList<>();
     
     public NavigationElement(AvroWidgetsConfig config, AvroUiStyle style, NavigationContainer container, int index, 
             FormField field, NavigationAction action, NavigationActionListener listener) {
@@ -86,18 +95,39 @@ public class NavigationElement {
             verticalPanel.add(recordFieldWidget);
             break;
         case ARRAY:
-            ArrayFieldWidget arrayFieldWidget = new ArrayFieldWidget(config, style, container, readOnly);
-            arrayFieldWidget.setValue((ArrayField)field);
-            if (!readOnly) {
-                arrayFieldWidget.addValueChangeHandler(new ValueChangeHandler<ArrayField>() {
-                    @Override
-                    public void onValueChange(ValueChangeEvent<ArrayField> event) {
-                        valueChanged();
+            final AsyncWidgetHolder arrayHolder = new AsyncWidgetHolder(style, registrations);
+            final AvroWidgetsConfig arrayConfig = config;
+            final AvroUiStyle arrayStyle = style;
+            final boolean arrayReadOnly = readOnly;
+            GWT.runAsync(ArrayFieldWidget.class, new RunAsyncCallback() {
+                @Override
+                public void onSuccess() {
+                    if (!arrayHolder.isActive()) {
+                        return;
                     }
-                });
-            }
-            fieldWidget = arrayFieldWidget;
-            verticalPanel.add(arrayFieldWidget);
+                    ArrayFieldWidget arrayFieldWidget = new ArrayFieldWidget(arrayConfig, arrayStyle, 
+                            NavigationElement.this.container, arrayReadOnly);
+                    arrayFieldWidget.setValue((ArrayField)NavigationElement.this.field);
+                    if (!arrayReadOnly) {
+                        arrayFieldWidget.addValueChangeHandler(new ValueChangeHandler<ArrayField>() {
+                            @Override
+                            public void onValueChange(ValueChangeEvent<ArrayField> event) {
+                                valueChanged();
+                            }
+                        });
+                    }
+                    fieldWidget = arrayFieldWidget;
+                    arrayHolder.setWidget(arrayFieldWidget);
+                    if (shown) {
+                        arrayFieldWidget.onShown();
+                    }
+                }
+                @Override
+                public void onFailure(Throwable reason) {
+                    arrayHolder.onLoadFailure(reason);
+                }
+            });
+            verticalPanel.add(arrayHolder);
             break;
         case UNION:
             UnionFieldWidget unionFieldWidget = new UnionFieldWidget(config, style, container, readOnly);
@@ -173,7 +203,20 @@ public class NavigationElement {
     }
     
     public void onShown() {
-        fieldWidget.onShown();
+        shown = true;
+        if (fieldWidget != null) {
+            fieldWidget.onShown();
+        }
+    }
+    
+    /**
+     * Cancels pending asynchronous loads once the element is closed.
+     */
+    public void close() {
+        for (HandlerRegistration registration : registrations) {
+            registration.removeHandler();
+        }
+        registrations.clear();
     }
     
     public String mayClose() {
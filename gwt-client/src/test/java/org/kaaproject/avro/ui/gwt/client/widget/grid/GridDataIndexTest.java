@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kaaproject.avro.ui.gwt.client.widget.grid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gwt.cell.client.TextCell;
+
+public class GridDataIndexTest {
+
+    private static class Row {
+        String name;
+
+        Row(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final Comparator<Row> NAME_COMPARATOR = new Comparator<Row>() {
+        @Override
+        public int compare(Row o1, Row o2) {
+            return o1.name.compareTo(o2.name);
+        }
+    };
+
+    private GridDataIndex<Row> index;
+    private FiltrableStringColumn<Row> nameColumn;
+    private List<FiltrableStringColumn<Row>> columns;
+
+    @Before
+    public void setUp() {
+        index = new GridDataIndex<>();
+        nameColumn = new FiltrableStringColumn<Row>(new TextCell()) {
+            @Override
+            public String getValue(Row row) {
+                return row.name;
+            }
+        };
+        columns = new ArrayList<>();
+        columns.add(nameColumn);
+    }
+
+    @Test
+    public void testSortAndFilter() {
+        List<Row> data = rows("delta", "alpha", "charlie", "bravo");
+        index.sort(data, nameColumn, NAME_COMPARATOR, true);
+        Assert.assertEquals(Arrays.asList("alpha", "bravo", "charlie", "delta"), names(data));
+        index.sort(data, nameColumn, NAME_COMPARATOR, false);
+        Assert.assertEquals(Arrays.asList("delta", "charlie", "bravo", "alpha"), names(data));
+
+        nameColumn.setFilterString("A");
+        List<Row> filtered = index.filter(data, columns);
+        Assert.assertEquals(Arrays.asList("delta", "charlie", "bravo", "alpha"), names(filtered));
+        nameColumn.setFilterString("al");
+        filtered = index.filter(data, columns);
+        Assert.assertEquals(Arrays.asList("alpha"), names(filtered));
+    }
+
+    @Test
+    public void testChangedListIsReindexed() {
+        List<Row> data = rows("charlie", "alpha", "bravo");
+        index.sort(data, nameColumn, NAME_COMPARATOR, true);
+        Assert.assertEquals(Arrays.asList("alpha", "bravo", "charlie"), names(data));
+
+        data.add(new Row("aardvark"));
+        index.sort(data, nameColumn, NAME_COMPARATOR, true);
+        Assert.assertEquals(Arrays.asList("aardvark", "alpha", "bravo", "charlie"), names(data));
+
+        data.set(1, new Row("zulu"));
+        nameColumn.setFilterString("u");
+        Assert.assertEquals(Arrays.asList("zulu"), names(index.filter(data, columns)));
+    }
+
+    @Test
+    public void testInvalidateAfterInPlaceChange() {
+        List<Row> data = rows("charlie", "alpha", "bravo");
+        nameColumn.setFilterString("a");
+        Assert.assertEquals(3, index.filter(data, columns).size());
+        index.sort(data, nameColumn, NAME_COMPARATOR, true);
+
+        data.get(0).name = "zulu";
+        data.get(1).name = "echo";
+
+        index.invalidate();
+        index.sort(data, nameColumn, NAME_COMPARATOR, true);
+        Assert.assertEquals(Arrays.asList("charlie", "echo", "zulu"), names(data));
+        nameColumn.setFilterString("u");
+        Assert.assertEquals(Arrays.asList("zulu"), names(index.filter(data, columns)));
+    }
+
+    private static List<Row> rows(String... names) {
+        List<Row> rows = new ArrayList<>();
+        for (String name : names) {
+            rows.add(new Row(name));
+        }
+        return rows;
+    }
+
+    private static List<String> names(List<Row> rows) {
+        List<String> names = new ArrayList<>();
+        for (Row row : rows) {
+            names.add(row.name);
+        }
+        return names;
+    }
+
+}
@@ -34,7 +34,6 @@ import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
 import com.google.gwt.event.shared.EventBus;
 import com.google.gwt.event.shared.HandlerRegistration;
-import com.google.gwt.user.client.rpc.AsyncCallback;
 import com.google.gwt.user.client.ui.FormPanel;
 import com.google.gwt.user.client.ui.AcceptsOneWidget;
 
@@ -57,6 +56,8 @@ public class MainActivity extends AbstractActivity  {
         containerWidget.setWidget(view.asWidget());
         view.getRecordConstructorView().getGenerateRecordButton().setEnabled(false);
         view.getRecordConstructorView().getGenerateRecordButton().setVisible(false);
+        view.getSchemaConstructorView().getDownloadRecordJsonButton().setVisible(false);
+        view.getSchemaConstructorView().getDownloadRecordBinaryButton().setVisible(false);
     }
     
     @Override
@@ -158,6 +159,19 @@ public class MainActivity extends AbstractActivity  {
             }
         }));
         
+        registrations.add(recordConstructor.getDownloadRecordJsonButton().addClickHandler(new ClickHandler() {
+            @Override
+            public void onClick(ClickEvent event) {
+                downloadRecord(false);
+            }
+        }));
+        registrations.add(recordConstructor.getDownloadRecordBinaryButton().addClickHandler(new ClickHandler() {
+            @Override
+            public void onClick(ClickEvent event) {
+                downloadRecord(true);
+            }
+        }));
+        
         registrations.add(clientFactory.getHeaderView().getResetButton().addClickHandler(new ClickHandler() {
             @Override
             public void onClick(ClickEvent event) {
@@ -173,29 +187,17 @@ public class MainActivity extends AbstractActivity  {
 
     private void doGenerateRecordForm() {
         RecordField schemaForm = view.getSchemaConstructorView().getValue();
-        AvroUiSandbox.getAvroUiSandboxService().getJsonStringFromSchemaForm(schemaForm,
-                new AsyncCallback<String>() {
-            @Override
-            public void onFailure(Throwable caught) {
-                        view.setErrorMessage(Utils.getErrorMessage(caught));
-                    }
-
+        AvroUiSandbox.getAvroUiSandboxService().generateFormFromSchemaForm(schemaForm,
+                new BusyAsyncCallback<RecordField>() {
             @Override
-            public void onSuccess(String result) {
+            public void onSuccessImpl(RecordField result) {
                 view.clearMessages();
-                AvroUiSandbox.getAvroUiSandboxService().generateFormFromSchema(result,
-                        new BusyAsyncCallback<RecordField>() {
-                    @Override
-                    public void onSuccessImpl(RecordField result) {
-                        view.clearMessages();
-                        view.getRecordConstructorView().setValue(result, true);
-                    }
+                view.getRecordConstructorView().setValue(result, true);
+            }
 
-                    @Override
-                    public void onFailureImpl(Throwable caught) {
-                        view.setErrorMessage(Utils.getErrorMessage(caught));
-                    }
-                });
+            @Override
+            public void onFailureImpl(Throwable caught) {
+                view.setErrorMessage(Utils.getErrorMessage(caught));
             }
         });
     }
@@ -223,33 +225,39 @@ public class MainActivity extends AbstractActivity  {
         }
     }
     
-    private void uploadRecordFromJson() {
-        RecordField schemaForm = view.getSchemaConstructorView().getValue();
-        AvroUiSandbox.getAvroUiSandboxService().getJsonStringFromSchemaForm(schemaForm,
-                new AsyncCallback<String>() {
+    private void downloadRecord(final boolean binary) {
+        RecordField recordField = view.getRecordConstructorView().getValue();
+        view.clearMessages();
+        if (recordField == null || !recordField.isValid()) {
+            view.setErrorMessage(Utils.constants.unableToGenerateJsonIncompleteRecordForm());
+            return;
+        }
+        AvroUiSandbox.getAvroUiSandboxService().prepareRecordDownload(recordField,
+                new BusyAsyncCallback<String>() {
             @Override
-            public void onFailure(Throwable caught) {
+            public void onSuccessImpl(String result) {
+                ServletHelper.downloadRecord(result, binary);
+            }
+            @Override
+            public void onFailureImpl(Throwable caught) {
                 view.setErrorMessage(Utils.getErrorMessage(caught));
             }
-
+        });
+    }
+    
+    private void uploadRecordFromJson() {
+        RecordField schemaForm = view.getSchemaConstructorView().getValue();
+        String json = view.getRecordConstructorView().getFormJson().getValue();
+        AvroUiSandbox.getAvroUiSandboxService().generateFormDataFromSchemaFormAndJson(schemaForm,
+                json, new BusyAsyncCallback<RecordField>() {
             @Override
-            public void onSuccess(String avroSchema) {
+            public void onSuccessImpl(RecordField result) {
                 view.clearMessages();
-
-                String json = view.getRecordConstructorView().getFormJson().getValue();
-
-                AvroUiSandbox.getAvroUiSandboxService().generateFormDataFromJson(avroSchema,
-                        json, new BusyAsyncCallback<RecordField>() {
-                    @Override
-                    public void onSuccessImpl(RecordField result) {
-                        view.clearMessages();
-                        view.getRecordConstructorView().setValue(result, true);
-                    }
-                    @Override
-                    public void onFailureImpl(Throwable caught) {
-                        view.setErrorMessage(Utils.getErrorMessage(caught));
-                    }
-                });
+                view.getRecordConstructorView().setValue(result, true);
+            }
+            @Override
+            public void onFailureImpl(Throwable caught) {
+                view.setErrorMessage(Utils.getErrorMessage(caught));
             }
         });
     }
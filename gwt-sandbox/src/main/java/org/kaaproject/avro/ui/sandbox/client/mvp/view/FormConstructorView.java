@@ -33,6 +33,10 @@ public interface FormConstructorView extends IsWidget, HasValue<RecordField> {
     Button getGenerateRecordButton();
     
     Button getDownloadJsonButton();
+    
+    Button getDownloadRecordJsonButton();
+    
+    Button getDownloadRecordBinaryButton();
 
     HasClickHandlers getShowJsonButton();
 
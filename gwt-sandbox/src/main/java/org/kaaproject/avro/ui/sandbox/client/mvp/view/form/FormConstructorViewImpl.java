@@ -69,6 +69,8 @@ public class FormConstructorViewImpl extends FlexTable implements FormConstructo
     private final FileUpload fileUpload = new FileUpload();
 
     private Button generateRecordButton;
+    private Button downloadRecordJsonButton;
+    private Button downloadRecordBinaryButton;
 
     public FormConstructorViewImpl() {
         setWidth(FULL_WIDTH);
@@ -131,6 +133,11 @@ public class FormConstructorViewImpl extends FlexTable implements FormConstructo
             }
         });
 
+        downloadRecordJsonButton = new Button(Utils.constants.downloadRecordJson());
+        downloadRecordJsonButton.setEnabled(false);
+        downloadRecordBinaryButton = new Button(Utils.constants.downloadRecordBinary());
+        downloadRecordBinaryButton.setEnabled(false);
+
         FlexTable buttonTable = new FlexTable();
         buttonTable.setWidth(FULL_WIDTH);
 
@@ -140,6 +147,8 @@ public class FormConstructorViewImpl extends FlexTable implements FormConstructo
         buttonsPanel1.add(loadJsonButton);
         HorizontalPanel buttonsPanel2 = new HorizontalPanel();
         buttonsPanel2.setSpacing(15);
+        buttonsPanel2.add(downloadRecordJsonButton);
+        buttonsPanel2.add(downloadRecordBinaryButton);
         buttonsPanel2.add(generateRecordButton);
 
         buttonTable.setWidget(0, 0, buttonsPanel1);
@@ -215,8 +224,10 @@ public class FormConstructorViewImpl extends FlexTable implements FormConstructo
     }
 
     private void fireFormChanged() {
-        generateRecordButton.setEnabled(form.getValue() != null
-                && form.getValue().isValid());
+        boolean isValid = form.getValue() != null && form.getValue().isValid();
+        generateRecordButton.setEnabled(isValid);
+        downloadRecordJsonButton.setEnabled(isValid);
+        downloadRecordBinaryButton.setEnabled(isValid);
         loadJsonButton.setEnabled(form.getValue() != null
                 && jsonArea.getValue() != null && !jsonArea.getValue().isEmpty());
     }
@@ -241,6 +252,8 @@ public class FormConstructorViewImpl extends FlexTable implements FormConstructo
         formJsonPanel.setVisible(false);
         uploadForm.reset();
         generateRecordButton.setEnabled(false);
+        downloadRecordJsonButton.setEnabled(false);
+        downloadRecordBinaryButton.setEnabled(false);
     }
     
     @Override
@@ -304,4 +317,14 @@ public class FormConstructorViewImpl extends FlexTable implements FormConstructo
     public Button getDownloadJsonButton() {
         return downloadButton;
     }
+
+    @Override
+    public Button getDownloadRecordJsonButton() {
+        return downloadRecordJsonButton;
+    }
+
+    @Override
+    public Button getDownloadRecordBinaryButton() {
+        return downloadRecordBinaryButton;
+    }
 }
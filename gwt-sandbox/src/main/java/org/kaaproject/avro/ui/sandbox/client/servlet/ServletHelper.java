@@ -27,10 +27,14 @@ public class ServletHelper {
     private static final String UPLOAD_SERVLET_PATH = "servlet/fileUploadServlet";
     
     private static final String JSON_KEY = "jsonKey";
+    private static final String RECORD_KEY = "recordKey";
     private static final String FILE_NAME = "fileName";
+    private static final String FORMAT = "format";
+    private static final String FORMAT_BINARY = "binary";
     
     private static final String JSON_SCHEMA_FILE = "schema.json";
     private static final String JSON_RECORD_FILE = "record.json";
+    private static final String BINARY_RECORD_FILE = "record.avro";
 
     public static void downloadJsonSchema(String key) {
         String getUrl = composeURL(UPLOAD_SERVLET_PATH, JSON_KEY+"="+key, FILE_NAME+"="+JSON_SCHEMA_FILE);
@@ -44,6 +48,14 @@ public class ServletHelper {
         Window.open( url, "_self", "enabled");
     }
 
+    public static void downloadRecord(String key, boolean binary) {
+        String getUrl = binary 
+                ? composeURL(UPLOAD_SERVLET_PATH, RECORD_KEY+"="+key, FORMAT+"="+FORMAT_BINARY, FILE_NAME+"="+BINARY_RECORD_FILE)
+                : composeURL(UPLOAD_SERVLET_PATH, RECORD_KEY+"="+key, FILE_NAME+"="+JSON_RECORD_FILE);
+        String url = GWT.getModuleBaseURL() + getUrl;
+        Window.open( url, "_self", "enabled");
+    }
+
     private static String composeURL(String servletPath, String... params) {
         String ret = servletPath;
         ret = ret.replaceAll("[\\?&]+$", "");
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.avro.ui.sandbox.load;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.spring4gwt.server.LatencyHistogram;
+
+/**
+ * Local load generator for the conversion API served by 
+ * {@link org.kaaproject.avro.ui.sandbox.services.ConversionApiServlet}.
+ * Registers the schema once and then posts the record from several threads 
+ * for a fixed time, reporting throughput and latency percentiles.
+ * 
+ * <pre>
+ * ConversionLoadGenerator &lt;apiUrl&gt; &lt;schemaFile&gt; &lt;recordFile&gt; [threads] [seconds] [validate|convert]
+ * </pre>
+ * 
+ * e.g. <code>http://localhost:8080/avroUiSandbox/api</code> as the api url.
+ */
+public class ConversionLoadGenerator {
+    
+    private static final int DEFAULT_THREADS = 4;
+    private static final int DEFAULT_SECONDS = 30;
+    private static final String DEFAULT_OPERATION = "validate";
+    
+    private final String apiUrl;
+    private final byte[] record;
+    private final String operation;
+    
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong responseBytes = new AtomicLong();
+    
+    public ConversionLoadGenerator(String apiUrl, byte[] record, String operation) {
+        this.apiUrl = apiUrl;
+        this.record = record;
+        this.operation = operation;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: ConversionLoadGenerator <apiUrl> <schemaFile> <recordFile> "
+                    + "[threads] [seconds] [validate|convert]");
+            System.exit(1);
+        }
+        String apiUrl = args[0];
+        byte[] schema = Files.readAllBytes(new File(args[1]).toPath());
+        byte[] record = Files.readAllBytes(new File(args[2]).toPath());
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_THREADS;
+        int seconds = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_SECONDS;
+        String operation = args.length > 5 ? args[5] : DEFAULT_OPERATION;
+        
+        ConversionLoadGenerator generator = new ConversionLoadGenerator(apiUrl, record, operation);
+        String schemaId = generator.registerSchema(schema);
+        System.out.println("Registered schema " + schemaId + ", running " + threads 
+                + " threads for " + seconds + " s");
+        generator.run(schemaId, threads, TimeUnit.SECONDS.toMillis(seconds));
+    }
+    
+    public String registerSchema(byte[] schema) throws IOException {
+        byte[] response = post(apiUrl + "/schemas", schema);
+        return new ObjectMapper().readTree(response).path("schemaId").getTextValue();
+    }
+    
+    public void run(final String schemaId, int threads, long durationMs) throws InterruptedException {
+        final String url = apiUrl + "/records/" + operation + "?schemaId=" + schemaId;
+        final long deadline = System.currentTimeMillis() + durationMs;
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    while (System.currentTimeMillis() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            responseBytes.addAndGet(post(url, record).length);
+                            latency.record(System.nanoTime() - start);
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }
+            }, "load-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        report(durationMs);
+    }
+    
+    private void report(long durationMs) {
+        long calls = latency.getCount();
+        System.out.println("Calls:       " + calls + " (" + errors.get() + " errors)");
+        System.out.println("Throughput:  " + (calls * 1000 / Math.max(1, durationMs)) + " calls/s");
+        System.out.println("Latency p50: " + latency.getPercentileMicros(50) + " us");
+        System.out.println("Latency p99: " + latency.getPercentileMicros(99) + " us");
+        System.out.println("Latency max: " + latency.getMaxMicros() + " us");
+        System.out.println("Received:    " + responseBytes.get() + " bytes");
+    }
+    
+    private static byte[] post(String url, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        connection.setRequestProperty("Content-Type", "application/json");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        int status = connection.getResponseCode();
+        if (status != HttpURLConnection.HTTP_OK) {
+            drain(connection.getErrorStream());
+            throw new IOException("Unexpected response status " + status + " from " + url);
+        }
+        return drain(connection.getInputStream());
+    }
+    
+    private static byte[] drain(InputStream stream) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (stream != null) {
+            try (InputStream in = stream) {
+                byte[] buffer = new byte[8 * 1024];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+}
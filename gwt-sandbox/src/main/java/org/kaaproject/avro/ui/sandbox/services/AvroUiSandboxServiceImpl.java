@@ -20,26 +20,24 @@ import java.nio.charset.Charset;
 
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericDatumReader;
-import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.io.DatumReader;
-import org.apache.avro.io.DatumWriter;
 import org.apache.avro.io.DecoderFactory;
-import org.apache.avro.io.EncoderFactory;
 import org.apache.avro.io.JsonDecoder;
-import org.apache.avro.io.JsonEncoder;
-import org.codehaus.jackson.JsonEncoding;
-import org.codehaus.jackson.JsonFactory;
-import org.codehaus.jackson.JsonGenerator;
 import org.kaaproject.avro.ui.converter.FormAvroConverter;
 import org.kaaproject.avro.ui.converter.SchemaFormAvroConverter;
+import org.kaaproject.avro.ui.sandbox.services.cache.CachedSchema;
 import org.kaaproject.avro.ui.sandbox.services.cache.JsonCacheService;
+import org.kaaproject.avro.ui.sandbox.services.cache.RecordCacheService;
+import org.kaaproject.avro.ui.sandbox.services.cache.SchemaCacheService;
+import org.kaaproject.avro.ui.sandbox.services.util.AvroEncoding;
 import org.kaaproject.avro.ui.sandbox.services.util.Utils;
 import org.kaaproject.avro.ui.sandbox.shared.services.AvroUiSandboxService;
 import org.kaaproject.avro.ui.sandbox.shared.services.AvroUiSandboxServiceException;
 import org.kaaproject.avro.ui.shared.RecordField;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.spring4gwt.server.RpcCall;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -52,11 +50,20 @@ public class AvroUiSandboxServiceImpl implements AvroUiSandboxService, Initializ
     
     private static final Charset UTF8 = Charset.forName("UTF-8");
     
+    /** Tag of slow call log entries carrying the schema fingerprint. */
+    private static final String SCHEMA_TAG = "schema";
+    
     private SchemaFormAvroConverter schemaFormConverter;
     
     @Autowired
     private JsonCacheService jsonCacheService;
     
+    @Autowired
+    private SchemaCacheService schemaCacheService;
+    
+    @Autowired
+    private RecordCacheService recordCacheService;
+    
     @Override
     public void afterPropertiesSet() throws Exception {
         schemaFormConverter = new SchemaFormAvroConverter();
@@ -66,9 +73,37 @@ public class AvroUiSandboxServiceImpl implements AvroUiSandboxService, Initializ
     public RecordField generateFormFromSchema(String avroSchema)
             throws AvroUiSandboxServiceException {
         try {
-            Schema schema = new Schema.Parser().parse(avroSchema);
-            RecordField generatedForm = FormAvroConverter.createRecordFieldFromSchema(schema);
-            return generatedForm;
+            return cacheSchema(avroSchema).getFormTemplate();
+        } catch (Exception e) {
+            throw Utils.handleException(e);
+        }
+    }
+    
+    @Override
+    public String getSchemaHandle(String avroSchema)
+            throws AvroUiSandboxServiceException {
+        try {
+            return cacheSchema(avroSchema).getHandle();
+        } catch (Exception e) {
+            throw Utils.handleException(e);
+        }
+    }
+
+    @Override
+    public RecordField generateFormFromSchemaHandle(String schemaHandle)
+            throws AvroUiSandboxServiceException {
+        try {
+            return getCachedSchema(schemaHandle).getFormTemplate();
+        } catch (Exception e) {
+            throw Utils.handleException(e);
+        }
+    }
+
+    @Override
+    public RecordField generateFormDataFromJsonWithSchemaHandle(String schemaHandle, String json)
+            throws AvroUiSandboxServiceException {
+        try {
+            return createFormDataFromJson(getCachedSchema(schemaHandle).getSchema(), json);
         } catch (Exception e) {
             throw Utils.handleException(e);
         }
@@ -80,29 +115,30 @@ public class AvroUiSandboxServiceImpl implements AvroUiSandboxService, Initializ
         try {
             GenericRecord record = FormAvroConverter.createGenericRecordFromRecordField(field);
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            JsonGenerator jsonGenerator
-                = new JsonFactory().createJsonGenerator(baos, JsonEncoding.UTF8);
-            jsonGenerator.useDefaultPrettyPrinter();
-            JsonEncoder jsonEncoder = EncoderFactory.get().jsonEncoder(record.getSchema(), jsonGenerator);
-            DatumWriter<GenericRecord> datumWriter = new GenericDatumWriter<GenericRecord>(record.getSchema());
-            datumWriter.write(record, jsonEncoder);
-            jsonEncoder.flush();
-            baos.flush();            
+            AvroEncoding.writeJson(record, baos, true);
             return new String(baos.toByteArray(), UTF8);
         } catch (Exception e) {
             throw Utils.handleException(e);
         }
     }
+    
+    @Override
+    public String prepareRecordDownload(RecordField field)
+            throws AvroUiSandboxServiceException {
+        try {
+            GenericRecord record = FormAvroConverter.createGenericRecordFromRecordField(field);
+            return recordCacheService.putRecord(record);
+        } catch (Exception e) {
+            throw Utils.handleException(e);
+        }
+    }
 
     @Override
     public RecordField generateFormDataFromJson(String avroSchema, String json)
             throws AvroUiSandboxServiceException {
         try {
-            Schema schema = new Schema.Parser().parse(avroSchema);
-            JsonDecoder jsonDecoder = DecoderFactory.get().jsonDecoder(schema, json);
-            DatumReader<GenericRecord> datumReader = new GenericDatumReader<GenericRecord>(schema);
-            GenericRecord genericRecord = datumReader.read(null, jsonDecoder);
-            return FormAvroConverter.createRecordFieldFromGenericRecord(genericRecord);
+            Schema schema = cacheSchema(avroSchema).getSchema();
+            return createFormDataFromJson(schema, json);
         } catch (Exception e) {
             throw Utils.handleException(e);
         }
@@ -122,8 +158,7 @@ public class AvroUiSandboxServiceImpl implements AvroUiSandboxService, Initializ
     public RecordField generateSchemaFormFromSchema(String avroSchema)
             throws AvroUiSandboxServiceException {
         try {
-            RecordField generatedForm = schemaFormConverter.createSchemaFormFromSchema(avroSchema);
-            return generatedForm;
+            return cacheSchema(avroSchema).getSchemaForm(schemaFormConverter);
         } catch (Exception e) {
             throw Utils.handleException(e);
         }
@@ -140,10 +175,63 @@ public class AvroUiSandboxServiceImpl implements AvroUiSandboxService, Initializ
         }
     }
 
+    @Override
+    public RecordField generateFormFromSchemaForm(RecordField schemaForm)
+            throws AvroUiSandboxServiceException {
+        try {
+            return cacheSchemaForm(schemaForm).getFormTemplate();
+        } catch (Exception e) {
+            throw Utils.handleException(e);
+        }
+    }
+
+    @Override
+    public RecordField generateFormDataFromSchemaFormAndJson(RecordField schemaForm, String json)
+            throws AvroUiSandboxServiceException {
+        try {
+            return createFormDataFromJson(cacheSchemaForm(schemaForm).getSchema(), json);
+        } catch (Exception e) {
+            throw Utils.handleException(e);
+        }
+    }
+
     @Override
     public String uploadJsonToFile(String json)
             throws AvroUiSandboxServiceException {
         return jsonCacheService.putJson(json);
     }
+    
+    private CachedSchema cacheSchema(String avroSchema) {
+        CachedSchema cached = schemaCacheService.getSchema(avroSchema);
+        RpcCall.tag(SCHEMA_TAG, cached.getHandle());
+        return cached;
+    }
+    
+    /**
+     * Caches the schema built from the schema form by the same text 
+     * {@link #getJsonStringFromSchemaForm} returns, so that it is validated 
+     * by the schema parser and shares its cache entry with the two-step path.
+     */
+    private CachedSchema cacheSchemaForm(RecordField schemaForm) throws Exception {
+        Schema schema = schemaFormConverter.createSchemaFromSchemaForm(schemaForm);
+        return cacheSchema(SchemaFormAvroConverter.createSchemaString(schema, true));
+    }
+    
+    private CachedSchema getCachedSchema(String schemaHandle) throws AvroUiSandboxServiceException {
+        RpcCall.tag(SCHEMA_TAG, schemaHandle);
+        CachedSchema cached = schemaHandle != null ? schemaCacheService.getSchemaByHandle(schemaHandle) : null;
+        if (cached == null) {
+            throw new AvroUiSandboxServiceException("Schema with handle '" + schemaHandle 
+                    + "' is not cached anymore, the schema has to be sent again.");
+        }
+        return cached;
+    }
+    
+    private static RecordField createFormDataFromJson(Schema schema, String json) throws Exception {
+        JsonDecoder jsonDecoder = DecoderFactory.get().jsonDecoder(schema, json);
+        DatumReader<GenericRecord> datumReader = new GenericDatumReader<GenericRecord>(schema);
+        GenericRecord genericRecord = datumReader.read(null, jsonDecoder);
+        return FormAvroConverter.createRecordFieldFromGenericRecord(genericRecord);
+    }
 
 }
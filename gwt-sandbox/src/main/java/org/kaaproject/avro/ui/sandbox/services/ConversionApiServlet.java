@@ -0,0 +1,300 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.avro.ui.sandbox.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.JsonDecoder;
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.MappingJsonFactory;
+import org.kaaproject.avro.ui.converter.FormAvroConverter;
+import org.kaaproject.avro.ui.converter.SchemaFormAvroConverter;
+import org.kaaproject.avro.ui.sandbox.services.cache.CachedSchema;
+import org.kaaproject.avro.ui.sandbox.services.cache.SchemaCacheService;
+import org.kaaproject.avro.ui.sandbox.services.util.AvroEncoding;
+import org.kaaproject.avro.ui.shared.RecordField;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.context.support.SpringBeanAutowiringSupport;
+
+/**
+ * JSON over HTTP access to the form converters for clients without GWT.
+ * 
+ * <ul>
+ * <li><code>POST /schemas</code> registers the schema in the body and returns its id</li>
+ * <li><code>POST /schemas/normalize</code> returns the schema rebuilt from its schema form</li>
+ * <li><code>POST /records/validate?schemaId=</code> converts the Avro JSON record 
+ * in the body into a form and reports its invalid fields</li>
+ * <li><code>POST /records/convert?schemaId=&amp;format=json|binary</code> converts 
+ * the record into a form and back, streaming the resulting record</li>
+ * <li><code>POST /batch</code> runs an array of <code>{"operation", "schemaId", "record"}</code> 
+ * validate or convert requests, streaming an array of results</li>
+ * </ul>
+ * 
+ * Request and response bodies are streamed; errors are returned as 
+ * <code>{"error": message}</code>.
+ */
+public class ConversionApiServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 3411052283516460224L;
+    
+    /** The Constant logger. */
+    private static final Logger logger = LoggerFactory.getLogger(ConversionApiServlet.class);
+    
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    
+    private static final String SCHEMAS = "/schemas";
+    private static final String NORMALIZE_SCHEMA = "/schemas/normalize";
+    private static final String VALIDATE_RECORD = "/records/validate";
+    private static final String CONVERT_RECORD = "/records/convert";
+    private static final String BATCH = "/batch";
+    
+    private static final String VALIDATE = "validate";
+    private static final String CONVERT = "convert";
+    
+    private static final String SCHEMA_ID = "schemaId";
+    private static final String FORMAT = "format";
+    private static final String FORMAT_BINARY = "binary";
+    private static final String OPERATION = "operation";
+    private static final String RECORD = "record";
+    
+    private static final JsonFactory JSON_FACTORY = new MappingJsonFactory();
+    
+    @Autowired
+    private SchemaCacheService schemaCacheService;
+    
+    private SchemaFormAvroConverter schemaFormConverter;
+    
+    @Override
+    public void init(ServletConfig config) throws ServletException {
+        super.init(config);
+        SpringBeanAutowiringSupport.processInjectionBasedOnServletContext(this,
+          config.getServletContext());
+        try {
+            schemaFormConverter = new SchemaFormAvroConverter();
+        } catch (IOException e) {
+            throw new ServletException(e);
+        }
+    }
+    
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) 
+            throws ServletException, IOException {
+        String path = request.getPathInfo();
+        try {
+            if (SCHEMAS.equals(path)) {
+                CachedSchema schema = schemaCacheService.getSchema(readText(request));
+                JsonGenerator json = startJson(response);
+                json.writeStartObject();
+                json.writeStringField(SCHEMA_ID, schema.getHandle());
+                json.writeEndObject();
+                json.close();
+            } else if (NORMALIZE_SCHEMA.equals(path)) {
+                CachedSchema schema = request.getParameter(SCHEMA_ID) != null 
+                        ? getSchema(request.getParameter(SCHEMA_ID)) 
+                        : schemaCacheService.getSchema(readText(request));
+                // createSchemaFromSchemaForm reorders the form it is given, 
+                // so the shared cached schema form is not used here
+                RecordField schemaForm = schemaFormConverter.createSchemaFormFromSchema(schema.getSchema());
+                Schema normalized = schemaFormConverter.createSchemaFromSchemaForm(schemaForm);
+                response.setContentType("application/json");
+                response.setCharacterEncoding("utf-8");
+                response.getWriter().write(SchemaFormAvroConverter.createSchemaString(normalized, true));
+            } else if (VALIDATE_RECORD.equals(path)) {
+                Schema schema = getSchema(request.getParameter(SCHEMA_ID)).getSchema();
+                RecordField form = toForm(readRecord(schema, request.getInputStream()));
+                JsonGenerator json = startJson(response);
+                writeValidation(json, form);
+                json.close();
+            } else if (CONVERT_RECORD.equals(path)) {
+                Schema schema = getSchema(request.getParameter(SCHEMA_ID)).getSchema();
+                GenericRecord record = convert(readRecord(schema, request.getInputStream()));
+                if (FORMAT_BINARY.equals(request.getParameter(FORMAT))) {
+                    response.setContentType("avro/binary");
+                    AvroEncoding.writeBinary(record, response.getOutputStream());
+                } else {
+                    response.setContentType("application/json");
+                    response.setCharacterEncoding("utf-8");
+                    AvroEncoding.writeJson(record, response.getOutputStream(), false);
+                }
+            } else if (BATCH.equals(path)) {
+                processBatch(request, response);
+            } else {
+                sendError(response, HttpServletResponse.SC_NOT_FOUND, "Unknown operation: " + path);
+            }
+        } catch (UnknownSchemaException e) {
+            sendError(response, HttpServletResponse.SC_NOT_FOUND, e.getMessage());
+        } catch (Exception e) {
+            logger.debug("Unable to process {} request: ", path, e);
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, String.valueOf(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Reads the batch array element by element and writes each result 
+     * as soon as it is computed, so neither side is held in memory as a whole.
+     */
+    private void processBatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        JsonParser parser = JSON_FACTORY.createJsonParser(request.getInputStream());
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new IOException("Batch request body must be a json array");
+        }
+        JsonGenerator json = startJson(response);
+        json.writeStartArray();
+        int count = 0;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            JsonNode item = parser.readValueAsTree();
+            json.writeStartObject();
+            try {
+                String operation = item.path(OPERATION).getTextValue();
+                Schema schema = getSchema(item.path(SCHEMA_ID).getTextValue()).getSchema();
+                JsonNode recordNode = item.get(RECORD);
+                if (recordNode == null) {
+                    throw new IllegalArgumentException("Batch item has no record");
+                }
+                GenericRecord record = readRecord(schema, recordNode.toString());
+                if (VALIDATE.equals(operation)) {
+                    writeValidationFields(json, toForm(record));
+                } else if (CONVERT.equals(operation)) {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    AvroEncoding.writeJson(convert(record), out, false);
+                    json.writeFieldName(RECORD);
+                    json.writeRawValue(new String(out.toByteArray(), UTF8));
+                } else {
+                    throw new IllegalArgumentException("Unknown batch operation: " + operation);
+                }
+            } catch (Exception e) {
+                json.writeStringField("error", String.valueOf(e.getMessage()));
+            }
+            json.writeEndObject();
+            count++;
+        }
+        json.writeEndArray();
+        json.close();
+        logger.debug("Processed batch of {} items", count);
+    }
+    
+    private CachedSchema getSchema(String schemaId) throws UnknownSchemaException {
+        CachedSchema schema = schemaId != null ? schemaCacheService.getSchemaByHandle(schemaId) : null;
+        if (schema == null) {
+            throw new UnknownSchemaException("Unknown schema id: " + schemaId);
+        }
+        return schema;
+    }
+    
+    private static GenericRecord readRecord(Schema schema, InputStream in) throws IOException {
+        return readRecord(schema, DecoderFactory.get().jsonDecoder(schema, in));
+    }
+    
+    private static GenericRecord readRecord(Schema schema, String json) throws IOException {
+        return readRecord(schema, DecoderFactory.get().jsonDecoder(schema, json));
+    }
+    
+    private static GenericRecord readRecord(Schema schema, JsonDecoder jsonDecoder) throws IOException {
+        DatumReader<GenericRecord> datumReader = new GenericDatumReader<GenericRecord>(schema);
+        return datumReader.read(null, jsonDecoder);
+    }
+    
+    private static RecordField toForm(GenericRecord record) throws IOException {
+        return FormAvroConverter.createRecordFieldFromGenericRecord(record);
+    }
+    
+    private static GenericRecord convert(GenericRecord record) throws IOException {
+        return FormAvroConverter.createGenericRecordFromRecordField(toForm(record));
+    }
+    
+    private static void writeValidation(JsonGenerator json, RecordField form) throws IOException {
+        json.writeStartObject();
+        writeValidationFields(json, form);
+        json.writeEndObject();
+    }
+    
+    private static void writeValidationFields(JsonGenerator json, RecordField form) throws IOException {
+        json.writeBooleanField("valid", form.isValid());
+        json.writeArrayFieldStart("invalidFields");
+        for (String path : form.getInvalidPaths()) {
+            json.writeString(path);
+        }
+        json.writeEndArray();
+    }
+    
+    private static String readText(HttpServletRequest request) throws IOException {
+        StringBuilder text = new StringBuilder();
+        try (Reader reader = new InputStreamReader(request.getInputStream(), UTF8)) {
+            char[] buffer = new char[8 * 1024];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                text.append(buffer, 0, read);
+            }
+        }
+        return text.toString();
+    }
+    
+    private static JsonGenerator startJson(HttpServletResponse response) throws IOException {
+        response.setContentType("application/json");
+        response.setCharacterEncoding("utf-8");
+        OutputStream out = response.getOutputStream();
+        return JSON_FACTORY.createJsonGenerator(out, JsonEncoding.UTF8);
+    }
+    
+    private static void sendError(HttpServletResponse response, int status, String message) throws IOException {
+        if (response.isCommitted()) {
+            logger.warn("Unable to report error '{}', the response is already committed", message);
+            return;
+        }
+        response.reset();
+        response.setStatus(status);
+        JsonGenerator json = startJson(response);
+        json.writeStartObject();
+        json.writeStringField("error", message);
+        json.writeEndObject();
+        json.close();
+    }
+    
+    private static class UnknownSchemaException extends Exception {
+
+        private static final long serialVersionUID = -4105914064811880223L;
+
+        UnknownSchemaException(String message) {
+            super(message);
+        }
+    }
+
+}
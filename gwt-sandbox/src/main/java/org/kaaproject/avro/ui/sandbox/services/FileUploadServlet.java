@@ -17,9 +17,17 @@
 package org.kaaproject.avro.ui.sandbox.services;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
@@ -27,11 +35,15 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.avro.generic.GenericRecord;
 import org.apache.commons.fileupload.FileItemIterator;
 import org.apache.commons.fileupload.FileItemStream;
 import org.apache.commons.fileupload.servlet.ServletFileUpload;
-import org.apache.commons.fileupload.util.Streams;
+import org.apache.commons.fileupload.servlet.ServletRequestContext;
+import org.kaaproject.avro.ui.sandbox.services.cache.CachedJson;
 import org.kaaproject.avro.ui.sandbox.services.cache.JsonCacheService;
+import org.kaaproject.avro.ui.sandbox.services.cache.RecordCacheService;
+import org.kaaproject.avro.ui.sandbox.services.util.AvroEncoding;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -43,6 +55,21 @@ public class FileUploadServlet extends HttpServlet {
     
     private static final String FILE_NAME = "fileName";
     private static final String JSON_KEY = "jsonKey";
+    private static final String RECORD_KEY = "recordKey";
+    private static final String FORMAT = "format";
+    private static final String FORMAT_BINARY = "binary";
+    
+    private static final String UTF8 = "utf-8";
+    private static final String GZIP = "gzip";
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+    
+    /** Uploads larger than this are spooled to a temp file instead of the heap. */
+    private static final int SPOOL_THRESHOLD = 256 * 1024;
+    
+    /** Responses larger than this are gzipped if the client accepts it. */
+    private static final int GZIP_THRESHOLD = 8 * 1024;
+    
+    private static final int BUFFER_SIZE = 8 * 1024;
 
     /** The Constant logger. */
     private static final Logger logger = LoggerFactory.getLogger(FileUploadServlet.class);
@@ -50,6 +77,9 @@ public class FileUploadServlet extends HttpServlet {
     @Autowired
     private JsonCacheService jsonCacheService;
     
+    @Autowired
+    private RecordCacheService recordCacheService;
+    
     @Override
     public void init(ServletConfig config) throws ServletException {
         super.init(config);
@@ -62,25 +92,23 @@ public class FileUploadServlet extends HttpServlet {
         ServletFileUpload upload = new ServletFileUpload();
 
         try{
-            FileItemIterator iterator = upload.getItemIterator(request);
+            FileItemIterator iterator = upload.getItemIterator(new UploadRequestContext(request));
             if (iterator.hasNext()) {
                 FileItemStream item = iterator.next();
                 String name = item.getFieldName();
+                boolean gzipped = item.getHeaders() != null 
+                        && isGzipEncoded(item.getHeaders().getHeader(CONTENT_ENCODING));
 
-                logger.debug("Uploading file '{}' with item name '{}'", item.getName(), name);
-
-                InputStream stream = item.openStream();
+                logger.debug("Uploading file '{}' with item name '{}', gzipped: {}", item.getName(), name, gzipped);
 
-                ByteArrayOutputStream out = new ByteArrayOutputStream();
-                Streams.copy(stream, out, true);
-
-                byte[] data = out.toByteArray();
-
-                response.setStatus(HttpServletResponse.SC_OK);
-                response.setContentType("text/html");
-                response.setCharacterEncoding("utf-8");
-                response.getWriter().print(new String(data));
-                response.flushBuffer();
+                try (SpooledContent content = spool(openUncompressed(item.openStream(), gzipped))) {
+                    logger.debug("Uploaded file '{}' of {} bytes, spooled to disk: {}", 
+                            item.getName(), content.getLength(), content.isSpooled());
+                    response.setStatus(HttpServletResponse.SC_OK);
+                    response.setContentType("text/html");
+                    response.setCharacterEncoding(UTF8);
+                    writeContent(request, response, content);
+                }
             }
             else {
                 logger.error("No file found in post request!");
@@ -96,15 +124,36 @@ public class FileUploadServlet extends HttpServlet {
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
         String jsonKey = request.getParameter(JSON_KEY);
+        String recordKey = request.getParameter(RECORD_KEY);
         String fileName = request.getParameter(FILE_NAME);
-        if (jsonKey != null && fileName != null) {
-            try ( OutputStream os = response.getOutputStream() )  {
-                  response.setContentType("application/json");
-                  response.setHeader("Content-Disposition", "attachment;filename=" + fileName);
-                  byte[] content = jsonCacheService.getJson(jsonKey).getBytes();
-                  os.write(content, 0, content.length);
-                  logger.debug("Returning text file with name '{}'", fileName);
-                  response.flushBuffer();
+        if (recordKey != null && fileName != null) {
+            writeRecord(request, response, recordKey, fileName);
+        } else if (jsonKey != null && fileName != null) {
+            try (CachedJson json = jsonCacheService.takeJson(jsonKey)) {
+                if (json == null) {
+                    logger.warn("Json with key '{}' is expired or was already downloaded", jsonKey);
+                    response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                    return;
+                }
+                response.setContentType("application/json");
+                response.setCharacterEncoding(UTF8);
+                response.setHeader("Content-Disposition", "attachment;filename=" + fileName);
+                long length = json.getContentLength();
+                if (acceptsGzip(request) && (length < 0 || length > GZIP_THRESHOLD)) {
+                    response.setHeader(CONTENT_ENCODING, GZIP);
+                    try (GZIPOutputStream os = new GZIPOutputStream(response.getOutputStream(), BUFFER_SIZE)) {
+                        json.writeTo(os);
+                    }
+                } else {
+                    if (length >= 0) {
+                        setContentLength(response, length);
+                    }
+                    try (OutputStream os = response.getOutputStream()) {
+                        json.writeTo(os);
+                    }
+                }
+                logger.debug("Returning text file with name '{}'", fileName);
+                response.flushBuffer();
             } catch (IOException e) {
                 logger.error("Unexpected error in FileUploadServlet.doGet: ", e);
                 throw new RuntimeException(e);
@@ -114,4 +163,182 @@ public class FileUploadServlet extends HttpServlet {
             throw new RuntimeException("Empty parameter with file content in get file request!");
         }
     }
+    
+    /**
+     * Encodes the record prepared for download straight into the response, 
+     * as Avro binary if requested and as pretty printed Avro JSON otherwise.
+     */
+    private void writeRecord(HttpServletRequest request, HttpServletResponse response, 
+            String recordKey, String fileName) throws IOException {
+        GenericRecord record = recordCacheService.takeRecord(recordKey);
+        if (record == null) {
+            logger.warn("Record with key '{}' is expired or was already downloaded", recordKey);
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        boolean binary = FORMAT_BINARY.equals(request.getParameter(FORMAT));
+        if (binary) {
+            response.setContentType("avro/binary");
+        } else {
+            response.setContentType("application/json");
+            response.setCharacterEncoding(UTF8);
+        }
+        response.setHeader("Content-Disposition", "attachment;filename=" + fileName);
+        OutputStream os = response.getOutputStream();
+        if (acceptsGzip(request)) {
+            response.setHeader(CONTENT_ENCODING, GZIP);
+            os = new GZIPOutputStream(os, BUFFER_SIZE);
+        }
+        try {
+            if (binary) {
+                AvroEncoding.writeBinary(record, os);
+            } else {
+                AvroEncoding.writeJson(record, os, true);
+            }
+        } finally {
+            os.close();
+        }
+        logger.debug("Returning record file with name '{}'", fileName);
+    }
+    
+    private void writeContent(HttpServletRequest request, HttpServletResponse response, 
+            SpooledContent content) throws IOException {
+        if (acceptsGzip(request) && content.getLength() > GZIP_THRESHOLD) {
+            response.setHeader(CONTENT_ENCODING, GZIP);
+            try (GZIPOutputStream os = new GZIPOutputStream(response.getOutputStream(), BUFFER_SIZE)) {
+                content.writeTo(os);
+            }
+        } else {
+            setContentLength(response, content.getLength());
+            try (OutputStream os = response.getOutputStream()) {
+                content.writeTo(os);
+            }
+        }
+        response.flushBuffer();
+    }
+    
+    private static void setContentLength(HttpServletResponse response, long length) {
+        if (length <= Integer.MAX_VALUE) {
+            response.setContentLength((int) length);
+        }
+    }
+    
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains(GZIP);
+    }
+    
+    static boolean isGzipEncoded(String contentEncoding) {
+        return contentEncoding != null && GZIP.equalsIgnoreCase(contentEncoding.trim());
+    }
+    
+    /**
+     * Inflates the uploaded stream if its part declared a gzip content encoding.
+     */
+    static InputStream openUncompressed(InputStream stream, boolean gzipped) throws IOException {
+        return gzipped ? new GZIPInputStream(stream, BUFFER_SIZE) : stream;
+    }
+    
+    /**
+     * Copies the stream into memory while it fits under the spool threshold 
+     * and into a temp file once it grows past it.
+     */
+    static SpooledContent spool(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            ByteArrayOutputStream memory = new ByteArrayOutputStream(BUFFER_SIZE);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                if (memory.size() + read > SPOOL_THRESHOLD) {
+                    File file = File.createTempFile("upload-", ".tmp");
+                    try (OutputStream out = new FileOutputStream(file)) {
+                        memory.writeTo(out);
+                        memory = null;
+                        out.write(buffer, 0, read);
+                        while ((read = stream.read(buffer)) != -1) {
+                            out.write(buffer, 0, read);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        deleteQuietly(file);
+                        throw e;
+                    }
+                    return new SpooledContent(null, file);
+                }
+                memory.write(buffer, 0, read);
+            }
+            return new SpooledContent(memory.toByteArray(), null);
+        }
+    }
+    
+    private static void deleteQuietly(File file) {
+        if (!file.delete() && file.exists()) {
+            logger.warn("Unable to delete temp file '{}'", file);
+            file.deleteOnExit();
+        }
+    }
+    
+    /**
+     * Multipart request context inflating the whole request body if the 
+     * request declared a gzip content encoding.
+     */
+    private static class UploadRequestContext extends ServletRequestContext {
+        
+        private final boolean gzipped;
+        
+        UploadRequestContext(HttpServletRequest request) {
+            super(request);
+            this.gzipped = isGzipEncoded(request.getHeader(CONTENT_ENCODING));
+        }
+        
+        @Override
+        public long contentLength() {
+            return gzipped ? -1 : super.contentLength();
+        }
+        
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return openUncompressed(super.getInputStream(), gzipped);
+        }
+    }
+    
+    static class SpooledContent implements AutoCloseable {
+        
+        private final byte[] data;
+        private final File file;
+        
+        SpooledContent(byte[] data, File file) {
+            this.data = data;
+            this.file = file;
+        }
+        
+        boolean isSpooled() {
+            return file != null;
+        }
+        
+        long getLength() {
+            return file != null ? file.length() : data.length;
+        }
+        
+        void writeTo(OutputStream out) throws IOException {
+            if (file == null) {
+                out.write(data);
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(out);
+                long position = 0;
+                long length = channel.size();
+                while (position < length) {
+                    position += channel.transferTo(position, length - position, target);
+                }
+            }
+        }
+        
+        @Override
+        public void close() {
+            if (file != null) {
+                deleteQuietly(file);
+            }
+        }
+    }
 }
@@ -16,28 +16,341 @@
 
 package org.kaaproject.avro.ui.sandbox.services;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.RandomStringUtils;
+import org.kaaproject.avro.ui.sandbox.services.cache.CachedJson;
 import org.kaaproject.avro.ui.sandbox.services.cache.JsonCacheService;
+import org.kaaproject.avro.ui.sandbox.services.cache.JsonCacheStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.spring4gwt.server.StatusReporter;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.stereotype.Service;
 
+/**
+ * Concurrent JSON cache bounded by the memory taken by cached payloads.
+ * Entries expire after a time to live and are removed by a background 
+ * sweeper; the oldest entries are evicted first when a bound is exceeded.
+ * Payloads above the spill threshold are written to temp files, streamed 
+ * to clients with {@link FileChannel#transferTo} and read back as strings 
+ * through a memory mapping.
+ * <p>
+ * Payloads kept in memory are measured by their heap size, two bytes per 
+ * char, both for the spill threshold and for the memory bound. Spilled 
+ * payloads are measured by their UTF-8 file size.
+ */
 @Service("jsonCacheService")
-public class JsonCacheServiceImpl implements JsonCacheService {
+public class JsonCacheServiceImpl implements JsonCacheService, StatusReporter, InitializingBean, DisposableBean {
 
-    private Map<String, String> uploadedJsonMap = new HashMap<>();  
+    /** The Constant LOG. */
+    private static final Logger LOG = LoggerFactory.getLogger(JsonCacheServiceImpl.class);
+    
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    
+    private static final int KEY_LENGTH = 10;
+    
+    private long maxMemoryBytes = 64L * 1024 * 1024;
+    private long maxSpillBytes = 512L * 1024 * 1024;
+    private int spillThresholdBytes = 1024 * 1024;
+    private boolean spillEnabled = true;
+    private long timeToLiveMs = TimeUnit.MINUTES.toMillis(10);
+    private long sweepIntervalMs = TimeUnit.SECONDS.toMillis(30);
+    
+    private final ConcurrentMap<String, CacheEntry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<CacheEntry> insertionOrder = new ConcurrentLinkedQueue<>();
+    
+    private final AtomicLong memoryBytes = new AtomicLong();
+    private final AtomicLong spillBytes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong spills = new AtomicLong();
+    
+    private ScheduledExecutorService sweeper;
+    
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        sweeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "json-cache-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        sweeper.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    sweep();
+                } catch (RuntimeException e) {
+                    LOG.error("Unexpected error while sweeping json cache: ", e);
+                }
+            }
+        }, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public void destroy() throws Exception {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+        for (CacheEntry entry : entries.values()) {
+            if (remove(entry)) {
+                entry.release();
+            }
+        }
+        insertionOrder.clear();
+    }
     
     @Override
     public String putJson(String json) {
-        String jsonKey = RandomStringUtils.randomAlphanumeric(10);
-        uploadedJsonMap.put(jsonKey, json);
+        CacheEntry entry = createEntry(json);
+        String jsonKey;
+        do {
+            jsonKey = RandomStringUtils.randomAlphanumeric(KEY_LENGTH);
+            entry.key = jsonKey;
+        } while (entries.putIfAbsent(jsonKey, entry) != null);
+        if (entry.file != null) {
+            spillBytes.addAndGet(entry.size);
+        } else {
+            memoryBytes.addAndGet(entry.size);
+        }
+        insertionOrder.add(entry);
+        enforceBounds();
         return jsonKey;
     }
 
     @Override
     public String getJson(String jsonKey) {
-        return uploadedJsonMap.remove(jsonKey);
+        CacheEntry entry = takeJson(jsonKey);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            return entry.read();
+        } catch (IOException e) {
+            LOG.error("Unable to read spilled json with key '{}': ", jsonKey, e);
+            return null;
+        } finally {
+            entry.release();
+        }
+    }
+    
+    @Override
+    public CacheEntry takeJson(String jsonKey) {
+        CacheEntry entry = jsonKey != null ? entries.get(jsonKey) : null;
+        if (entry == null || !remove(entry)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            expirations.incrementAndGet();
+            misses.incrementAndGet();
+            entry.release();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry;
+    }
+    
+    @Override
+    public JsonCacheStatistics getStatistics() {
+        return new JsonCacheStatistics(hits.get(), misses.get(), evictions.get(), expirations.get(), 
+                spills.get(), entries.size(), memoryBytes.get(), spillBytes.get());
+    }
+    
+    @Override
+    public String getStatusName() {
+        return "jsonCache";
+    }
+    
+    @Override
+    public Object getStatus() {
+        return getStatistics();
+    }
+    
+    void sweep() {
+        long now = System.currentTimeMillis();
+        CacheEntry entry;
+        while ((entry = insertionOrder.peek()) != null && (entry.removed || entry.isExpired(now))) {
+            insertionOrder.poll();
+            if (remove(entry)) {
+                expirations.incrementAndGet();
+                entry.release();
+            }
+        }
+    }
+    
+    private void enforceBounds() {
+        while (memoryBytes.get() > maxMemoryBytes || spillBytes.get() > maxSpillBytes) {
+            CacheEntry entry = insertionOrder.poll();
+            if (entry == null) {
+                break;
+            }
+            if (remove(entry)) {
+                evictions.incrementAndGet();
+                LOG.debug("Evicted json with key '{}' of {} bytes", entry.key, entry.size);
+                entry.release();
+            }
+        }
+    }
+    
+    private boolean remove(CacheEntry entry) {
+        if (entries.remove(entry.key, entry)) {
+            entry.removed = true;
+            if (entry.file != null) {
+                spillBytes.addAndGet(-entry.size);
+            } else {
+                memoryBytes.addAndGet(-entry.size);
+            }
+            return true;
+        }
+        return false;
+    }
+    
+    private CacheEntry createEntry(String json) {
+        long expiresAt = System.currentTimeMillis() + timeToLiveMs;
+        long heapBytes = 2L * json.length();
+        if (spillEnabled && heapBytes > spillThresholdBytes) {
+            File file = null;
+            try {
+                file = File.createTempFile("json-cache-", ".json");
+                file.deleteOnExit();
+                try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), UTF8)) {
+                    writer.write(json);
+                }
+                spills.incrementAndGet();
+                return new CacheEntry(null, file, file.length(), expiresAt);
+            } catch (IOException e) {
+                LOG.warn("Unable to spill json of {} chars to temp file, keeping it in memory: ", json.length(), e);
+                if (file != null && !file.delete()) {
+                    file.deleteOnExit();
+                }
+            }
+        }
+        return new CacheEntry(json, null, heapBytes, expiresAt);
+    }
+    
+    public void setMaxMemoryBytes(long maxMemoryBytes) {
+        this.maxMemoryBytes = maxMemoryBytes;
     }
 
+    public void setMaxSpillBytes(long maxSpillBytes) {
+        this.maxSpillBytes = maxSpillBytes;
+    }
+
+    public void setSpillThresholdBytes(int spillThresholdBytes) {
+        this.spillThresholdBytes = spillThresholdBytes;
+    }
+
+    public void setSpillEnabled(boolean spillEnabled) {
+        this.spillEnabled = spillEnabled;
+    }
+
+    public void setTimeToLiveMs(long timeToLiveMs) {
+        this.timeToLiveMs = timeToLiveMs;
+    }
+
+    public void setSweepIntervalMs(long sweepIntervalMs) {
+        this.sweepIntervalMs = sweepIntervalMs;
+    }
+
+    private static class CacheEntry implements CachedJson {
+        
+        private volatile String key;
+        private volatile String json;
+        private volatile File file;
+        private final long size;
+        private final long expiresAt;
+        private volatile boolean removed;
+        
+        CacheEntry(String json, File file, long size, long expiresAt) {
+            this.json = json;
+            this.file = file;
+            this.size = size;
+            this.expiresAt = expiresAt;
+        }
+        
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+        
+        @Override
+        public long getContentLength() {
+            return file != null ? size : -1;
+        }
+        
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            File spilled = file;
+            if (spilled == null) {
+                Writer writer = new OutputStreamWriter(out, UTF8);
+                writer.write(json);
+                writer.flush();
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(spilled.toPath(), StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(out);
+                long position = 0;
+                long length = channel.size();
+                while (position < length) {
+                    position += channel.transferTo(position, length - position, target);
+                }
+            }
+        }
+        
+        @Override
+        public void close() {
+            release();
+        }
+        
+        String read() throws IOException {
+            File spilled = file;
+            if (spilled == null) {
+                return json;
+            }
+            try (FileChannel channel = FileChannel.open(spilled.toPath(), StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                return UTF8.decode(buffer).toString();
+            }
+        }
+        
+        void release() {
+            json = null;
+            File spilled = file;
+            if (spilled != null) {
+                try {
+                    Files.deleteIfExists(spilled.toPath());
+                } catch (IOException e) {
+                    LOG.warn("Unable to delete spilled json file '{}': ", spilled, e);
+                }
+            }
+        }
+        
+    }
+    
 }
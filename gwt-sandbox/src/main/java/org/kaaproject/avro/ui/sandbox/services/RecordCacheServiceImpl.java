@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.avro.ui.sandbox.services;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.generic.GenericRecord;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.kaaproject.avro.ui.sandbox.services.cache.RecordCacheService;
+import org.springframework.stereotype.Service;
+
+/**
+ * Holds records prepared for download until the download request takes them.
+ * The oldest records are dropped once the cache is full or their time 
+ * to live has passed.
+ */
+@Service("recordCacheService")
+public class RecordCacheServiceImpl implements RecordCacheService {
+    
+    private static final int KEY_LENGTH = 10;
+    
+    private int maxEntries = 64;
+    private long timeToLiveMs = TimeUnit.MINUTES.toMillis(10);
+    
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>();
+    
+    @Override
+    public String putRecord(GenericRecord record) {
+        CacheEntry entry = new CacheEntry(record, System.currentTimeMillis() + timeToLiveMs);
+        synchronized (entries) {
+            String recordKey;
+            do {
+                recordKey = RandomStringUtils.randomAlphanumeric(KEY_LENGTH);
+            } while (entries.containsKey(recordKey));
+            entries.put(recordKey, entry);
+            evict(System.currentTimeMillis());
+            return recordKey;
+        }
+    }
+
+    @Override
+    public GenericRecord takeRecord(String recordKey) {
+        long now = System.currentTimeMillis();
+        CacheEntry entry;
+        synchronized (entries) {
+            entry = entries.remove(recordKey);
+            evict(now);
+        }
+        return entry != null && entry.expiresAt > now ? entry.record : null;
+    }
+    
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public void setTimeToLiveMs(long timeToLiveMs) {
+        this.timeToLiveMs = timeToLiveMs;
+    }
+
+    private void evict(long now) {
+        Iterator<CacheEntry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            CacheEntry eldest = iterator.next();
+            if (entries.size() > maxEntries || eldest.expiresAt <= now) {
+                iterator.remove();
+            } else {
+                break;
+            }
+        }
+    }
+    
+    private static class CacheEntry {
+        
+        private final GenericRecord record;
+        private final long expiresAt;
+        
+        CacheEntry(GenericRecord record, long expiresAt) {
+            this.record = record;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+}
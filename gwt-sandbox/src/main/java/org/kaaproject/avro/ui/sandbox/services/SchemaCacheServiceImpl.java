@@ -0,0 +1,178 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.avro.ui.sandbox.services;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.kaaproject.avro.ui.sandbox.services.cache.CachedSchema;
+import org.kaaproject.avro.ui.sandbox.services.cache.SchemaCacheService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * LRU cache of parsed schemas keyed by the fingerprint of the schema text.
+ * The cache is bounded both by the number of entries and by their estimated 
+ * memory footprint.
+ */
+@Service("schemaCacheService")
+public class SchemaCacheServiceImpl implements SchemaCacheService {
+
+    /** The Constant LOG. */
+    private static final Logger LOG = LoggerFactory.getLogger(SchemaCacheServiceImpl.class);
+    
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    
+    private static final int FINGERPRINT_BYTES = 16;
+    
+    /** 
+     * Estimated bytes per schema node, covering the parsed schema 
+     * and the form fields generated for it. 
+     */
+    private static final int NODE_WEIGHT = 2048;
+    
+    private int maxEntries = 256;
+    private long maxMemoryBytes = 32L * 1024 * 1024;
+    
+    private final LinkedHashMap<String, CachedSchema> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+    
+    @Override
+    public CachedSchema getSchema(String avroSchema) {
+        String handle = fingerprint(avroSchema);
+        CachedSchema cached = getSchemaByHandle(handle);
+        if (cached != null && cached.getSchemaText().equals(avroSchema)) {
+            return cached;
+        }
+        Schema schema = new Schema.Parser().parse(avroSchema);
+        long weight = 2L * avroSchema.length() + (long) NODE_WEIGHT * countNodes(schema);
+        CachedSchema created = new CachedSchema(handle, avroSchema, schema, weight);
+        if (weight > maxMemoryBytes) {
+            LOG.debug("Schema '{}' of {} estimated bytes is too large to be cached", handle, weight);
+            return created;
+        }
+        synchronized (entries) {
+            CachedSchema previous = entries.put(handle, created);
+            if (previous != null) {
+                memoryBytes -= previous.getWeight();
+            }
+            memoryBytes += weight;
+            evict();
+        }
+        return created;
+    }
+
+    @Override
+    public CachedSchema getSchemaByHandle(String schemaHandle) {
+        synchronized (entries) {
+            return entries.get(schemaHandle);
+        }
+    }
+    
+    @Override
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        synchronized (entries) {
+            return memoryBytes;
+        }
+    }
+    
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public void setMaxMemoryBytes(long maxMemoryBytes) {
+        this.maxMemoryBytes = maxMemoryBytes;
+    }
+
+    private void evict() {
+        Iterator<CachedSchema> iterator = entries.values().iterator();
+        while ((entries.size() > maxEntries || memoryBytes > maxMemoryBytes) && iterator.hasNext()) {
+            CachedSchema eldest = iterator.next();
+            iterator.remove();
+            memoryBytes -= eldest.getWeight();
+            LOG.debug("Evicted schema '{}' of {} estimated bytes", eldest.getHandle(), eldest.getWeight());
+        }
+    }
+    
+    private static String fingerprint(String avroSchema) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(avroSchema.getBytes(UTF8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        char[] hex = new char[FINGERPRINT_BYTES * 2];
+        for (int i = 0; i < FINGERPRINT_BYTES; i++) {
+            hex[2 * i] = HEX_DIGITS[(digest[i] >> 4) & 0xf];
+            hex[2 * i + 1] = HEX_DIGITS[digest[i] & 0xf];
+        }
+        return new String(hex);
+    }
+    
+    private static int countNodes(Schema schema) {
+        return countNodes(schema, new IdentityHashMap<Schema, Boolean>());
+    }
+    
+    private static int countNodes(Schema schema, Map<Schema, Boolean> visited) {
+        if (visited.put(schema, Boolean.TRUE) != null) {
+            return 1;
+        }
+        int count = 1;
+        switch (schema.getType()) {
+        case RECORD:
+            for (Field field : schema.getFields()) {
+                count += countNodes(field.schema(), visited);
+            }
+            break;
+        case UNION:
+            for (Schema type : schema.getTypes()) {
+                count += countNodes(type, visited);
+            }
+            break;
+        case ARRAY:
+            count += countNodes(schema.getElementType(), visited);
+            break;
+        case MAP:
+            count += countNodes(schema.getValueType(), visited);
+            break;
+        case ENUM:
+            count += schema.getEnumSymbols().size() / 8;
+            break;
+        default:
+            break;
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.avro.ui.sandbox.services.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Json taken out of the {@link JsonCacheService}, written to the client 
+ * without being materialized as a single byte array. Closing it releases 
+ * the underlying memory or spill file.
+ */
+public interface CachedJson extends Closeable {
+
+    /**
+     * Returns the length of the UTF-8 encoded json, or -1 if it is not known
+     * without encoding it.
+     */
+    long getContentLength();
+    
+    void writeTo(OutputStream out) throws IOException;
+    
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.avro.ui.sandbox.services.cache;
+
+import java.io.IOException;
+
+import org.apache.avro.Schema;
+import org.kaaproject.avro.ui.converter.FormAvroConverter;
+import org.kaaproject.avro.ui.converter.SchemaFormAvroConverter;
+import org.kaaproject.avro.ui.shared.RecordField;
+
+/**
+ * Parsed schema held by the {@link SchemaCacheService} together with the 
+ * forms generated from it. The forms are built on first use and shared 
+ * between callers, so they must not be modified on the server side.
+ */
+public class CachedSchema {
+    
+    private final String handle;
+    private final String schemaText;
+    private final Schema schema;
+    private final long weight;
+    
+    private volatile RecordField formTemplate;
+    private volatile RecordField schemaForm;
+    
+    public CachedSchema(String handle, String schemaText, Schema schema, long weight) {
+        this.handle = handle;
+        this.schemaText = schemaText;
+        this.schema = schema;
+        this.weight = weight;
+    }
+
+    public String getHandle() {
+        return handle;
+    }
+
+    public String getSchemaText() {
+        return schemaText;
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Returns the estimated number of bytes taken by this entry, 
+     * including the forms built from it.
+     */
+    public long getWeight() {
+        return weight;
+    }
+    
+    public RecordField getFormTemplate() throws IOException {
+        RecordField form = formTemplate;
+        if (form == null) {
+            form = FormAvroConverter.createRecordFieldFromSchema(schema);
+            formTemplate = form;
+        }
+        return form;
+    }
+    
+    public RecordField getSchemaForm(SchemaFormAvroConverter converter) throws IOException {
+        RecordField form = schemaForm;
+        if (form == null) {
+            form = converter.createSchemaFormFromSchema(schema);
+            schemaForm = form;
+        }
+        return form;
+    }
+
+}
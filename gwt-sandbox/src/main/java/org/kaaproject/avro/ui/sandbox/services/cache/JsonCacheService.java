@@ -21,5 +21,13 @@ public interface JsonCacheService {
     String putJson(String json);
     
     String getJson(String jsonKey);
+    
+    /**
+     * Removes the json from the cache and returns it for streaming, 
+     * or null if the key is unknown or expired.
+     */
+    CachedJson takeJson(String jsonKey);
+    
+    JsonCacheStatistics getStatistics();
 
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.avro.ui.sandbox.services.cache;
+
+public class JsonCacheStatistics {
+    
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final long spills;
+    private final int entries;
+    private final long memoryBytes;
+    private final long spillBytes;
+    
+    public JsonCacheStatistics(long hits, long misses, long evictions, long expirations, 
+            long spills, int entries, long memoryBytes, long spillBytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.spills = spills;
+        this.entries = entries;
+        this.memoryBytes = memoryBytes;
+        this.spillBytes = spillBytes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getExpirations() {
+        return expirations;
+    }
+
+    public long getSpills() {
+        return spills;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public long getSpillBytes() {
+        return spillBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "JsonCacheStatistics [hits=" + hits + ", misses=" + misses
+                + ", evictions=" + evictions + ", expirations=" + expirations
+                + ", spills=" + spills + ", entries=" + entries
+                + ", memoryBytes=" + memoryBytes + ", spillBytes=" + spillBytes + "]";
+    }
+
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.avro.ui.sandbox.services.cache;
+
+import org.apache.avro.generic.GenericRecord;
+
+public interface RecordCacheService {
+    
+    String putRecord(GenericRecord record);
+    
+    /**
+     * Removes the record from the cache and returns it, 
+     * or null if the key is unknown or expired.
+     */
+    GenericRecord takeRecord(String recordKey);
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.avro.ui.sandbox.services.cache;
+
+public interface SchemaCacheService {
+    
+    /**
+     * Returns the cached entry for the schema text, parsing and caching 
+     * the schema if it is not cached yet.
+     */
+    CachedSchema getSchema(String avroSchema);
+    
+    /**
+     * Returns the cached entry for the schema handle, or null if the handle 
+     * is unknown or its entry was evicted.
+     */
+    CachedSchema getSchemaByHandle(String schemaHandle);
+    
+    int size();
+    
+    long getMemoryBytes();
+
+}
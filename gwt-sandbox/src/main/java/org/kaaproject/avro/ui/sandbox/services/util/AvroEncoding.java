@@ -0,0 +1,84 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.avro.ui.sandbox.services.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.io.JsonEncoder;
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+
+/**
+ * Writes generic records as Avro JSON or binary straight to an output stream.
+ * Datum writers are cached per schema and binary encoders are reused per thread.
+ */
+public class AvroEncoding {
+    
+    private static final int MAX_CACHED_WRITERS = 256;
+    
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    
+    private static final ConcurrentMap<Schema, DatumWriter<GenericRecord>> WRITERS = new ConcurrentHashMap<>();
+    
+    private static final ThreadLocal<BinaryEncoder> BINARY_ENCODER = new ThreadLocal<>();
+    
+    private AvroEncoding() {
+    }
+    
+    public static void writeJson(GenericRecord record, OutputStream out, boolean pretty) throws IOException {
+        JsonGenerator jsonGenerator = JSON_FACTORY.createJsonGenerator(out, JsonEncoding.UTF8);
+        if (pretty) {
+            jsonGenerator.useDefaultPrettyPrinter();
+        }
+        JsonEncoder jsonEncoder = EncoderFactory.get().jsonEncoder(record.getSchema(), jsonGenerator);
+        getDatumWriter(record.getSchema()).write(record, jsonEncoder);
+        jsonEncoder.flush();
+    }
+    
+    public static void writeBinary(GenericRecord record, OutputStream out) throws IOException {
+        BinaryEncoder binaryEncoder = EncoderFactory.get().binaryEncoder(out, BINARY_ENCODER.get());
+        BINARY_ENCODER.set(binaryEncoder);
+        getDatumWriter(record.getSchema()).write(record, binaryEncoder);
+        binaryEncoder.flush();
+    }
+    
+    private static DatumWriter<GenericRecord> getDatumWriter(Schema schema) {
+        DatumWriter<GenericRecord> datumWriter = WRITERS.get(schema);
+        if (datumWriter == null) {
+            if (WRITERS.size() >= MAX_CACHED_WRITERS) {
+                WRITERS.clear();
+            }
+            datumWriter = new GenericDatumWriter<GenericRecord>(schema);
+            DatumWriter<GenericRecord> existing = WRITERS.putIfAbsent(schema, datumWriter);
+            if (existing != null) {
+                datumWriter = existing;
+            }
+        }
+        return datumWriter;
+    }
+
+}
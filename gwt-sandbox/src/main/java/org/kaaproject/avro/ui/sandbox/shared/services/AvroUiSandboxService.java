@@ -26,8 +26,16 @@ public interface AvroUiSandboxService extends RemoteService {
     
     public RecordField generateFormFromSchema(String avroSchema) throws AvroUiSandboxServiceException;
     
+    public String getSchemaHandle(String avroSchema) throws AvroUiSandboxServiceException;
+    
+    public RecordField generateFormFromSchemaHandle(String schemaHandle) throws AvroUiSandboxServiceException;
+    
+    public RecordField generateFormDataFromJsonWithSchemaHandle(String schemaHandle, String json) throws AvroUiSandboxServiceException;
+    
     public String getJsonStringFromRecord(RecordField field) throws AvroUiSandboxServiceException;
     
+    public String prepareRecordDownload(RecordField field) throws AvroUiSandboxServiceException;
+    
     public RecordField generateFormDataFromJson(String avroSchema, String json) throws AvroUiSandboxServiceException;
     
     public RecordField getEmptySchemaForm() throws AvroUiSandboxServiceException;
@@ -36,6 +44,10 @@ public interface AvroUiSandboxService extends RemoteService {
 
     public String getJsonStringFromSchemaForm(RecordField field) throws AvroUiSandboxServiceException;
     
+    public RecordField generateFormFromSchemaForm(RecordField schemaForm) throws AvroUiSandboxServiceException;
+    
+    public RecordField generateFormDataFromSchemaFormAndJson(RecordField schemaForm, String json) throws AvroUiSandboxServiceException;
+    
     public String uploadJsonToFile(String json) throws AvroUiSandboxServiceException;
 
 }
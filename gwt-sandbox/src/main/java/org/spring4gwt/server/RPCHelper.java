@@ -35,11 +35,26 @@ public class RPCHelper {
 	  public static String invokeAndEncodeResponse(Object target, Method serviceMethod, Object[] args,
 		      SerializationPolicy serializationPolicy) throws SerializationException {
 		    return invokeAndEncodeResponse(target, serviceMethod, args, serializationPolicy,
-		        AbstractSerializationStream.DEFAULT_FLAGS);
+		        AbstractSerializationStream.DEFAULT_FLAGS, null);
 		  }
 	  
+	  public static String invokeAndEncodeResponse(Object target, Method serviceMethod, Object[] args,
+	          SerializationPolicy serializationPolicy, RpcCall call) throws SerializationException {
+	      return invokeAndEncodeResponse(target, serviceMethod, args, serializationPolicy,
+	              AbstractSerializationStream.DEFAULT_FLAGS, call);
+	  }
+	  
 	  public static String invokeAndEncodeResponse(Object target, Method serviceMethod, Object[] args,
 		      SerializationPolicy serializationPolicy, int flags) throws SerializationException {
+	      return invokeAndEncodeResponse(target, serviceMethod, args, serializationPolicy, flags, null);
+	  }
+	  
+	  /**
+	   * Invokes the service method and encodes its result, marking the end of 
+	   * the invocation and of the encoding on the call if one is given.
+	   */
+	  public static String invokeAndEncodeResponse(Object target, Method serviceMethod, Object[] args,
+		      SerializationPolicy serializationPolicy, int flags, RpcCall call) throws SerializationException {
 		    if (serviceMethod == null) {
 		      throw new NullPointerException("serviceMethod");
 		    }
@@ -51,6 +66,9 @@ public class RPCHelper {
 		    String responsePayload;
 		    try {
 		      Object result = serviceMethod.invoke(target, args);
+		      if (call != null) {
+		          call.invoked(false);
+		      }
 
 		      responsePayload = RPC.encodeResponseForSuccess(serviceMethod, result, serializationPolicy, flags);
 		    } catch (IllegalAccessException e) {
@@ -67,6 +85,9 @@ public class RPCHelper {
 		      // Try to encode the caught exception
 		      //
 		      Throwable cause = e.getCause();
+		      if (call != null) {
+		          call.invoked(true);
+		      }
 		      
 		      LOG.error("Unexpected exception occured while invoking service method - " 
 		      + (serviceMethod != null ? serviceMethod.getName() : "null"), cause);
@@ -74,6 +95,9 @@ public class RPCHelper {
 		      responsePayload = RPC.encodeResponseForFailure(serviceMethod, cause, serializationPolicy, flags);
 		    }
 
+		    if (call != null) {
+		        call.encoded(responsePayload.length());
+		    }
 		    return responsePayload;
 		  }
 	  
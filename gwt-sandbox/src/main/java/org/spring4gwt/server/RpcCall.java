@@ -0,0 +1,171 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spring4gwt.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Timings and sizes of a single RPC call. The call being processed by the 
+ * current thread can be tagged by the invoked service, e.g. with the 
+ * fingerprint of the schema it works on, so that slow calls can be traced.
+ */
+public class RpcCall {
+    
+    private static final ThreadLocal<RpcCall> CURRENT = new ThreadLocal<>();
+    
+    private final String service;
+    private final long startNanos;
+    private final int requestSize;
+    private String methodName;
+    private long decodedNanos;
+    private long invokedNanos;
+    private long encodedNanos;
+    private int responseSize;
+    private boolean failed;
+    private long compressStartNanos;
+    private long compressNanos;
+    private int writtenBytes = -1;
+    private Map<String, String> tags;
+    
+    RpcCall(String service, int requestSize) {
+        this.service = service;
+        this.requestSize = requestSize;
+        this.startNanos = System.nanoTime();
+    }
+    
+    static RpcCall begin(String service, int requestSize) {
+        RpcCall call = new RpcCall(service, requestSize);
+        CURRENT.set(call);
+        return call;
+    }
+    
+    static RpcCall current() {
+        return CURRENT.get();
+    }
+    
+    static RpcCall end() {
+        RpcCall call = CURRENT.get();
+        CURRENT.remove();
+        return call;
+    }
+    
+    /**
+     * Tags the call processed by the current thread, if any.
+     * 
+     * @param name
+     *            the tag name
+     * @param value
+     *            the tag value
+     */
+    public static void tag(String name, String value) {
+        RpcCall call = CURRENT.get();
+        if (call != null) {
+            if (call.tags == null) {
+                call.tags = new LinkedHashMap<>();
+            }
+            call.tags.put(name, value);
+        }
+    }
+    
+    void decoded(String methodName) {
+        this.methodName = methodName;
+        decodedNanos = System.nanoTime();
+    }
+    
+    void invoked(boolean failed) {
+        this.failed = failed;
+        invokedNanos = System.nanoTime();
+    }
+    
+    void encoded(int responseSize) {
+        this.responseSize = responseSize;
+        encodedNanos = System.nanoTime();
+    }
+    
+    void compressing() {
+        compressStartNanos = System.nanoTime();
+    }
+    
+    void written(int bytes) {
+        writtenBytes = bytes;
+        if (compressStartNanos != 0) {
+            compressNanos = System.nanoTime() - compressStartNanos;
+        }
+    }
+    
+    public String getService() {
+        return service;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+    
+    public boolean isComplete() {
+        return encodedNanos != 0;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+    
+    public int getRequestSize() {
+        return requestSize;
+    }
+
+    public int getResponseSize() {
+        return responseSize;
+    }
+
+    public boolean isCompressed() {
+        return compressStartNanos != 0;
+    }
+    
+    /**
+     * Returns the number of bytes written to the client, 
+     * or -1 if the response was not written by the RPC servlet.
+     */
+    public int getWrittenBytes() {
+        return writtenBytes;
+    }
+    
+    public long getCompressNanos() {
+        return compressNanos;
+    }
+
+    public long getDecodeNanos() {
+        return decodedNanos - startNanos;
+    }
+    
+    public long getInvokeNanos() {
+        return invokedNanos - decodedNanos;
+    }
+    
+    public long getEncodeNanos() {
+        return encodedNanos - invokedNanos;
+    }
+    
+    public long getTotalNanos() {
+        return encodedNanos - startNanos;
+    }
+    
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spring4gwt.server;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.codehaus.jackson.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Per-method RPC metrics: decode, invoke and encode latency histograms, 
+ * request and response sizes, failures and rejected calls. Calls slower 
+ * than the threshold are logged together with their tags.
+ * 
+ * The metrics of the RPC servlet are published as the servlet context 
+ * attribute named after this class.
+ */
+public class RpcMetrics {
+    
+    /** The Constant LOG. */
+    private static final Logger LOG = LoggerFactory.getLogger(RpcMetrics.class);
+    
+    public static final String ATTRIBUTE_NAME = RpcMetrics.class.getName();
+    
+    private final ConcurrentMap<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+    
+    private final AtomicLong rejected = new AtomicLong();
+    
+    private final AtomicLong timedOut = new AtomicLong();
+    
+    private final long slowCallThresholdNanos;
+    
+    private ThreadPoolExecutor executor;
+    
+    public RpcMetrics(long slowCallThresholdMs) {
+        this.slowCallThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowCallThresholdMs);
+    }
+    
+    void setExecutor(ThreadPoolExecutor executor) {
+        this.executor = executor;
+    }
+    
+    void rejected() {
+        rejected.incrementAndGet();
+    }
+    
+    void timedOut() {
+        timedOut.incrementAndGet();
+    }
+    
+    void record(RpcCall call) {
+        if (!call.isComplete()) {
+            return;
+        }
+        String key = call.getService() + "." + call.getMethodName();
+        MethodMetrics metrics = methods.get(key);
+        if (metrics == null) {
+            metrics = new MethodMetrics();
+            MethodMetrics existing = methods.putIfAbsent(key, metrics);
+            if (existing != null) {
+                metrics = existing;
+            }
+        }
+        metrics.record(call);
+        if (call.getTotalNanos() >= slowCallThresholdNanos) {
+            LOG.warn("Slow call {}: total {} ms (decode {} ms, invoke {} ms, encode {} ms), "
+                    + "request {} chars, response {} chars ({} bytes written), tags {}", key, 
+                    toMillis(call.getTotalNanos()), toMillis(call.getDecodeNanos()), 
+                    toMillis(call.getInvokeNanos()), toMillis(call.getEncodeNanos()),
+                    call.getRequestSize(), call.getResponseSize(), call.getWrittenBytes(), call.getTags());
+        }
+    }
+    
+    public void writeJson(JsonGenerator json) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("rejected", rejected.get());
+        json.writeNumberField("timedOut", timedOut.get());
+        ThreadPoolExecutor pool = executor;
+        if (pool != null) {
+            json.writeObjectFieldStart("executor");
+            json.writeNumberField("poolSize", pool.getPoolSize());
+            json.writeNumberField("active", pool.getActiveCount());
+            json.writeNumberField("queued", pool.getQueue().size());
+            json.writeNumberField("completed", pool.getCompletedTaskCount());
+            json.writeEndObject();
+        }
+        json.writeObjectFieldStart("methods");
+        for (Map.Entry<String, MethodMetrics> entry : new TreeMap<>(methods).entrySet()) {
+            json.writeFieldName(entry.getKey());
+            entry.getValue().writeJson(json);
+        }
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+    
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+    
+    private static class MethodMetrics {
+        
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong requestChars = new AtomicLong();
+        private final AtomicLong responseChars = new AtomicLong();
+        private final AtomicLong maxResponseChars = new AtomicLong();
+        private final AtomicLong compressedCalls = new AtomicLong();
+        private final AtomicLong compressedInputChars = new AtomicLong();
+        private final AtomicLong compressedOutputBytes = new AtomicLong();
+        private final LatencyHistogram decode = new LatencyHistogram();
+        private final LatencyHistogram invoke = new LatencyHistogram();
+        private final LatencyHistogram encode = new LatencyHistogram();
+        private final LatencyHistogram total = new LatencyHistogram();
+        private final LatencyHistogram compress = new LatencyHistogram();
+        
+        void record(RpcCall call) {
+            if (call.isFailed()) {
+                failures.incrementAndGet();
+            }
+            requestChars.addAndGet(call.getRequestSize());
+            responseChars.addAndGet(call.getResponseSize());
+            long max;
+            while (call.getResponseSize() > (max = maxResponseChars.get()) 
+                    && !maxResponseChars.compareAndSet(max, call.getResponseSize())) {
+                // retry until the maximum is updated or a larger one is recorded
+            }
+            if (call.isCompressed() && call.getWrittenBytes() >= 0) {
+                compressedCalls.incrementAndGet();
+                compressedInputChars.addAndGet(call.getResponseSize());
+                compressedOutputBytes.addAndGet(call.getWrittenBytes());
+                compress.record(call.getCompressNanos());
+            }
+            decode.record(call.getDecodeNanos());
+            invoke.record(call.getInvokeNanos());
+            encode.record(call.getEncodeNanos());
+            total.record(call.getTotalNanos());
+        }
+        
+        void writeJson(JsonGenerator json) throws IOException {
+            json.writeStartObject();
+            json.writeNumberField("calls", total.getCount());
+            json.writeNumberField("failures", failures.get());
+            json.writeNumberField("requestChars", requestChars.get());
+            json.writeNumberField("responseChars", responseChars.get());
+            json.writeNumberField("maxResponseChars", maxResponseChars.get());
+            writeHistogram(json, "decode", decode);
+            writeHistogram(json, "invoke", invoke);
+            writeHistogram(json, "encode", encode);
+            writeHistogram(json, "total", total);
+            json.writeObjectFieldStart("compression");
+            json.writeNumberField("calls", compressedCalls.get());
+            json.writeNumberField("inputChars", compressedInputChars.get());
+            json.writeNumberField("outputBytes", compressedOutputBytes.get());
+            long input = compressedInputChars.get();
+            json.writeNumberField("ratio", input > 0 ? (double) compressedOutputBytes.get() / input : 0);
+            json.writeEndObject();
+            writeHistogram(json, "compress", compress);
+            json.writeEndObject();
+        }
+        
+        private static void writeHistogram(JsonGenerator json, String name, 
+                LatencyHistogram histogram) throws IOException {
+            json.writeObjectFieldStart(name);
+            json.writeNumberField("meanMicros", histogram.getMeanMicros());
+            json.writeNumberField("p50Micros", histogram.getPercentileMicros(50));
+            json.writeNumberField("p90Micros", histogram.getPercentileMicros(90));
+            json.writeNumberField("p99Micros", histogram.getPercentileMicros(99));
+            json.writeNumberField("maxMicros", histogram.getMaxMicros());
+            json.writeEndObject();
+        }
+    }
+
+}
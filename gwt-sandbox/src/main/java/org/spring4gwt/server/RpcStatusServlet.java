@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.spring4gwt.server;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.MappingJsonFactory;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+
+/**
+ * Serves the {@link RpcMetrics} of the RPC servlet as JSON, followed by 
+ * the status of every {@link StatusReporter} bean of the web application context.
+ */
+@SuppressWarnings("serial")
+public class RpcStatusServlet extends HttpServlet {
+    
+    private static final JsonFactory JSON_FACTORY = new MappingJsonFactory();
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) 
+            throws ServletException, IOException {
+        RpcMetrics metrics = (RpcMetrics) getServletContext().getAttribute(RpcMetrics.ATTRIBUTE_NAME);
+        if (metrics == null) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "RPC servlet is not initialized yet");
+            return;
+        }
+        response.setContentType("application/json");
+        response.setCharacterEncoding("utf-8");
+        response.setHeader("Cache-Control", "no-cache");
+        JsonGenerator json = JSON_FACTORY.createJsonGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+        json.useDefaultPrettyPrinter();
+        json.writeStartObject();
+        json.writeFieldName("rpc");
+        metrics.writeJson(json);
+        WebApplicationContext applicationContext = WebApplicationContextUtils
+                .getWebApplicationContext(getServletContext());
+        if (applicationContext != null) {
+            for (StatusReporter reporter : applicationContext.getBeansOfType(StatusReporter.class).values()) {
+                json.writeFieldName(reporter.getStatusName());
+                json.writeObject(reporter.getStatus());
+            }
+        }
+        json.writeEndObject();
+        json.close();
+    }
+
+}
@@ -16,7 +16,28 @@
 
 package org.spring4gwt.server;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,34 +51,163 @@ import com.google.gwt.user.server.rpc.RPC;
 import com.google.gwt.user.server.rpc.RPCRequest;
 import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 
+/**
+ * Dispatches GWT RPC calls to Spring beans named after the service path.
+ * When the container supports it, calls are processed asynchronously on a 
+ * bounded executor, so long conversions do not hold container threads; 
+ * calls beyond the executor queue depth are rejected with 503. Calls that 
+ * time out, including the time spent in the queue, are answered with 503 
+ * and anything their worker writes afterwards is dropped.
+ * 
+ * The executor is configured through the servlet init parameters 
+ * <code>maxThreads</code>, <code>maxQueueDepth</code> and <code>asyncTimeoutMs</code>.
+ * Responses longer than <code>compressionThreshold</code> characters are gzipped, 
+ * by default above GWT's own limit of 256 bytes, and calls slower than 
+ * <code>slowCallThresholdMs</code> are logged.
+ */
 @SuppressWarnings("serial")
 public class SpringGwtRemoteServiceServlet extends RemoteServiceServlet {
 
     /** The Constant logger. */
     private static final Logger LOG = LoggerFactory.getLogger(SpringGwtRemoteServiceServlet.class);
+    
+    private static final String MAX_THREADS = "maxThreads";
+    private static final String MAX_QUEUE_DEPTH = "maxQueueDepth";
+    private static final String ASYNC_TIMEOUT_MS = "asyncTimeoutMs";
+    private static final String SLOW_CALL_THRESHOLD_MS = "slowCallThresholdMs";
+    private static final String COMPRESSION_THRESHOLD = "compressionThreshold";
+    
+    private static final int DEFAULT_MAX_QUEUE_DEPTH = 100;
+    private static final long DEFAULT_ASYNC_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final int DEFAULT_SLOW_CALL_THRESHOLD_MS = 1000;
+    
+    /** GWT's built-in limit of 256 bytes, counted as two bytes per char. */
+    private static final int DEFAULT_COMPRESSION_THRESHOLD = 128;
+    
+    /** Seconds the client is asked to wait before retrying a rejected call. */
+    private static final String RETRY_AFTER_SECONDS = "1";
 
     static ThreadLocal<HttpServletRequest> perThreadRequest = 
             new ThreadLocal<HttpServletRequest>();
+    
+    private final ConcurrentMap<String, Object> beans = new ConcurrentHashMap<>();
+    
+    private ThreadPoolExecutor executor;
+    
+    private long asyncTimeoutMs;
+    
+    private RpcMetrics metrics;
+    
+    private int compressionThreshold;
 
 	@Override
 	public void init() {
+	    int maxThreads = getIntParameter(MAX_THREADS, Runtime.getRuntime().availableProcessors() * 2);
+	    int maxQueueDepth = getIntParameter(MAX_QUEUE_DEPTH, DEFAULT_MAX_QUEUE_DEPTH);
+	    asyncTimeoutMs = getIntParameter(ASYNC_TIMEOUT_MS, (int) DEFAULT_ASYNC_TIMEOUT_MS);
+	    executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS, 
+	            new ArrayBlockingQueue<Runnable>(maxQueueDepth), new ThreadFactory() {
+	        private final AtomicInteger counter = new AtomicInteger();
+	        @Override
+	        public Thread newThread(Runnable runnable) {
+	            Thread thread = new Thread(runnable, "gwt-rpc-" + counter.incrementAndGet());
+	            thread.setDaemon(true);
+	            return thread;
+	        }
+	    });
+	    executor.allowCoreThreadTimeOut(true);
+	    compressionThreshold = getIntParameter(COMPRESSION_THRESHOLD, DEFAULT_COMPRESSION_THRESHOLD);
+	    metrics = new RpcMetrics(getIntParameter(SLOW_CALL_THRESHOLD_MS, DEFAULT_SLOW_CALL_THRESHOLD_MS));
+	    metrics.setExecutor(executor);
+	    getServletContext().setAttribute(RpcMetrics.ATTRIBUTE_NAME, metrics);
 		if (LOG.isDebugEnabled()) {
-		    LOG.debug("Spring GWT service exporter deployed");
+		    LOG.debug("Spring GWT service exporter deployed with {} threads and queue depth {}", 
+		            maxThreads, maxQueueDepth);
 		}
 	}
+	
+	@Override
+	public void destroy() {
+	    if (executor != null) {
+	        executor.shutdown();
+	    }
+	    getServletContext().removeAttribute(RpcMetrics.ATTRIBUTE_NAME);
+	    super.destroy();
+	}
+	
+	@Override
+	protected void service(final HttpServletRequest request, final HttpServletResponse response) 
+	        throws ServletException, IOException {
+	    if (!"POST".equals(request.getMethod()) || !request.isAsyncSupported() || executor == null) {
+	        dispatch(request, response);
+	        return;
+	    }
+	    AsyncContext asyncContext = request.startAsync(request, response);
+	    asyncContext.setTimeout(asyncTimeoutMs);
+	    AsyncCall call = new AsyncCall(new AsyncRequest(request), response, asyncContext);
+	    asyncContext.addListener(call);
+	    try {
+	        executor.execute(call);
+	    } catch (RejectedExecutionException e) {
+	        LOG.warn("Rejecting call, {} calls are already queued", executor.getQueue().size());
+	        metrics.rejected();
+	        call.abandon(false);
+	    }
+	}
+	
+	/**
+	 * Processes the call and records its metrics once the response is written.
+	 */
+	private void dispatch(HttpServletRequest request, HttpServletResponse response) 
+	        throws ServletException, IOException {
+	    try {
+	        super.service(request, new MeteredResponse(response));
+	    } finally {
+	        RpcCall call = RpcCall.end();
+	        if (call != null && metrics != null) {
+	            metrics.record(call);
+	        }
+	    }
+	}
+	
+	/**
+	 * Compresses responses longer than the configured threshold; 
+	 * the client is known to accept gzip when this is called.
+	 */
+	@Override
+	protected boolean shouldCompressResponse(HttpServletRequest request, 
+	        HttpServletResponse response, String responsePayload) {
+	    boolean compress = responsePayload.length() > compressionThreshold;
+	    RpcCall call = RpcCall.current();
+	    if (compress && call != null) {
+	        call.compressing();
+	    }
+	    return compress;
+	}
+	
+	private static void complete(AsyncContext asyncContext) {
+	    try {
+	        asyncContext.complete();
+	    } catch (IllegalStateException e) {
+	        LOG.warn("Asynchronous call was already completed, probably timed out.", e);
+	    }
+	}
 
 	@Override
 	public String processCall(String payload) throws SerializationException {
+		RpcCall call = RpcCall.begin(getService(getThreadLocalRequest()), payload.length());
 		try {
 		    perThreadRequest.set(getThreadLocalRequest());
 			Object handler = getBean(getThreadLocalRequest());
 			RPCRequest rpcRequest = RPC.decodeRequest(payload, handler.getClass(), this);
 			onAfterRequestDeserialized(rpcRequest);
+			Method method = rpcRequest.getMethod();
+			call.decoded(method.getName());
 			if (LOG.isDebugEnabled()) {
-			    LOG.debug("Invoking " + handler.getClass().getName() + "." + rpcRequest.getMethod().getName());
+			    LOG.debug("Invoking " + handler.getClass().getName() + "." + method.getName());
 			}
-			return RPCHelper.invokeAndEncodeResponse(handler, rpcRequest.getMethod(), rpcRequest.getParameters(), rpcRequest
-					.getSerializationPolicy());
+			return RPCHelper.invokeAndEncodeResponse(handler, method, rpcRequest.getParameters(), rpcRequest
+					.getSerializationPolicy(), call);
 		} catch (IncompatibleRemoteServiceException ex) {
 			log("An IncompatibleRemoteServiceException was thrown while processing this call.", ex);
 			return RPC.encodeResponseForFailure(null, ex);
@@ -88,15 +238,349 @@ public class SpringGwtRemoteServiceServlet extends RemoteServiceServlet {
 	 */
 	protected Object getBean(HttpServletRequest request) {
 		String service = getService(request);
-		Object bean = getBean(service);
+		Object bean = beans.get(service);
+		if (bean != null) {
+		    return bean;
+		}
+		bean = getBean(service);
 		if (!(bean instanceof RemoteService)) {
 			throw new IllegalArgumentException("Spring bean is not a GWT RemoteService: " + service + " (" + bean + ")");
 		}
 		if (LOG.isDebugEnabled()) {
 		    LOG.debug("Bean for service " + service + " is " + bean);
 		}
+		beans.putIfAbsent(service, bean);
 		return bean;
 	}
+	
+	/**
+	 * Call processed on the executor and listening to its asynchronous context. 
+	 * Whichever of the worker and a timeout or error finishes the call first 
+	 * completes the context; a call abandoned while still queued is removed 
+	 * from the queue, and the worker of a call abandoned while running writes 
+	 * through a {@link GuardedResponse} that drops its output.
+	 */
+	private class AsyncCall implements Runnable, AsyncListener {
+	    
+	    private final HttpServletRequest request;
+	    private final HttpServletResponse response;
+	    private final AsyncContext asyncContext;
+	    
+	    /** Guarded by this. */
+	    private boolean finished;
+	    
+	    AsyncCall(HttpServletRequest request, HttpServletResponse response, AsyncContext asyncContext) {
+	        this.request = request;
+	        this.response = response;
+	        this.asyncContext = asyncContext;
+	    }
+	    
+	    @Override
+	    public void run() {
+	        synchronized (this) {
+	            if (finished) {
+	                return;
+	            }
+	        }
+	        try {
+	            dispatch(request, new GuardedResponse(response, this));
+	        } catch (ServletException | IOException | RuntimeException e) {
+	            if (!isFinished()) {
+	                LOG.error("Unexpected error while processing asynchronous call.", e);
+	            }
+	        } finally {
+	            synchronized (this) {
+	                if (!finished) {
+	                    finished = true;
+	                    complete(asyncContext);
+	                }
+	            }
+	        }
+	    }
+	    
+	    synchronized boolean isFinished() {
+	        return finished;
+	    }
+	    
+	    /**
+	     * Finishes the call with 503 unless the worker already finished it 
+	     * or started writing the response.
+	     */
+	    synchronized void abandon(boolean removeFromQueue) {
+	        if (finished) {
+	            return;
+	        }
+	        finished = true;
+	        if (removeFromQueue) {
+	            executor.remove(this);
+	        }
+	        if (!response.isCommitted()) {
+	            try {
+	                response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+	                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+	            } catch (IOException | IllegalStateException e) {
+	                LOG.debug("Unable to send error for abandoned call.", e);
+	            }
+	        }
+	        complete(asyncContext);
+	    }
+	    
+	    @Override
+	    public void onTimeout(AsyncEvent event) {
+	        if (!isFinished()) {
+	            LOG.warn("Call timed out after {} ms", asyncTimeoutMs);
+	            metrics.timedOut();
+	            abandon(true);
+	        }
+	    }
+	    
+	    @Override
+	    public void onError(AsyncEvent event) {
+	        if (!isFinished()) {
+	            LOG.warn("Asynchronous call failed.", event.getThrowable());
+	            abandon(true);
+	        }
+	    }
+	    
+	    @Override
+	    public void onComplete(AsyncEvent event) {
+	    }
+	    
+	    @Override
+	    public void onStartAsync(AsyncEvent event) {
+	    }
+	}
+	
+	/**
+	 * Request of an asynchronous call keeping the paths it was mapped with, 
+	 * which containers may reset once the container thread leaves the servlet.
+	 */
+	private static class AsyncRequest extends HttpServletRequestWrapper {
+	    
+	    private final String contextPath;
+	    private final String servletPath;
+	    private final String pathInfo;
+	    
+	    AsyncRequest(HttpServletRequest request) {
+	        super(request);
+	        this.contextPath = request.getContextPath();
+	        this.servletPath = request.getServletPath();
+	        this.pathInfo = request.getPathInfo();
+	    }
+	    
+	    @Override
+	    public String getContextPath() {
+	        return contextPath;
+	    }
+	    
+	    @Override
+	    public String getServletPath() {
+	        return servletPath;
+	    }
+	    
+	    @Override
+	    public String getPathInfo() {
+	        return pathInfo;
+	    }
+	}
+	
+	/**
+	 * Response of an asynchronous call that silently drops everything written 
+	 * once the call is finished by a timeout, as the container may recycle 
+	 * the underlying response by then.
+	 */
+	private static class GuardedResponse extends HttpServletResponseWrapper {
+	    
+	    private final AsyncCall call;
+	    private ServletOutputStream outputStream;
+	    private PrintWriter writer;
+	    
+	    GuardedResponse(HttpServletResponse response, AsyncCall call) {
+	        super(response);
+	        this.call = call;
+	    }
+	    
+	    @Override
+	    public void setStatus(int sc) {
+	        synchronized (call) {
+	            if (!call.finished) {
+	                super.setStatus(sc);
+	            }
+	        }
+	    }
+	    
+	    @Override
+	    public void setHeader(String name, String value) {
+	        synchronized (call) {
+	            if (!call.finished) {
+	                super.setHeader(name, value);
+	            }
+	        }
+	    }
+	    
+	    @Override
+	    public void addHeader(String name, String value) {
+	        synchronized (call) {
+	            if (!call.finished) {
+	                super.addHeader(name, value);
+	            }
+	        }
+	    }
+	    
+	    @Override
+	    public void setContentType(String type) {
+	        synchronized (call) {
+	            if (!call.finished) {
+	                super.setContentType(type);
+	            }
+	        }
+	    }
+	    
+	    @Override
+	    public void setCharacterEncoding(String charset) {
+	        synchronized (call) {
+	            if (!call.finished) {
+	                super.setCharacterEncoding(charset);
+	            }
+	        }
+	    }
+	    
+	    @Override
+	    public void setContentLength(int len) {
+	        synchronized (call) {
+	            if (!call.finished) {
+	                super.setContentLength(len);
+	            }
+	        }
+	    }
+	    
+	    @Override
+	    public void sendError(int sc) throws IOException {
+	        synchronized (call) {
+	            if (!call.finished) {
+	                super.sendError(sc);
+	            }
+	        }
+	    }
+	    
+	    @Override
+	    public void sendError(int sc, String msg) throws IOException {
+	        synchronized (call) {
+	            if (!call.finished) {
+	                super.sendError(sc, msg);
+	            }
+	        }
+	    }
+	    
+	    @Override
+	    public void flushBuffer() throws IOException {
+	        synchronized (call) {
+	            if (!call.finished) {
+	                super.flushBuffer();
+	            }
+	        }
+	    }
+	    
+	    @Override
+	    public ServletOutputStream getOutputStream() throws IOException {
+	        synchronized (call) {
+	            if (outputStream == null) {
+	                outputStream = new GuardedOutputStream(call.finished ? null : super.getOutputStream(), call);
+	            }
+	            return outputStream;
+	        }
+	    }
+	    
+	    @Override
+	    public PrintWriter getWriter() throws IOException {
+	        synchronized (call) {
+	            if (writer == null) {
+	                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+	            }
+	            return writer;
+	        }
+	    }
+	}
+	
+	private static class GuardedOutputStream extends ServletOutputStream {
+	    
+	    private final ServletOutputStream out;
+	    private final AsyncCall call;
+	    
+	    GuardedOutputStream(ServletOutputStream out, AsyncCall call) {
+	        this.out = out;
+	        this.call = call;
+	    }
+	    
+	    @Override
+	    public void write(int b) throws IOException {
+	        synchronized (call) {
+	            if (out != null && !call.finished) {
+	                out.write(b);
+	            }
+	        }
+	    }
+	    
+	    @Override
+	    public void write(byte[] b, int off, int len) throws IOException {
+	        synchronized (call) {
+	            if (out != null && !call.finished) {
+	                out.write(b, off, len);
+	            }
+	        }
+	    }
+	    
+	    @Override
+	    public void flush() throws IOException {
+	        synchronized (call) {
+	            if (out != null && !call.finished) {
+	                out.flush();
+	            }
+	        }
+	    }
+	    
+	    @Override
+	    public void close() throws IOException {
+	        synchronized (call) {
+	            if (out != null && !call.finished) {
+	                out.close();
+	            }
+	        }
+	    }
+	}
+	
+	/**
+	 * Captures the length of the written response, which GWT sets right 
+	 * after encoding and compressing the payload.
+	 */
+	private static class MeteredResponse extends HttpServletResponseWrapper {
+	    
+	    MeteredResponse(HttpServletResponse response) {
+	        super(response);
+	    }
+	    
+	    @Override
+	    public void setContentLength(int len) {
+	        RpcCall call = RpcCall.current();
+	        if (call != null) {
+	            call.written(len);
+	        }
+	        super.setContentLength(len);
+	    }
+	}
+	
+	private int getIntParameter(String name, int defaultValue) {
+	    String value = getInitParameter(name);
+	    if (value == null || value.trim().isEmpty()) {
+	        return defaultValue;
+	    }
+	    try {
+	        return Integer.parseInt(value.trim());
+	    } catch (NumberFormatException e) {
+	        LOG.warn("Invalid value '{}' of init parameter {}, using {}", value, name, defaultValue);
+	        return defaultValue;
+	    }
+	}
 
 	/**
 	 * Parse the service name from the request URL.
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spring4gwt.server;
+
+/**
+ * Implemented by Spring beans that publish a status section through 
+ * {@link RpcStatusServlet}. The status object is serialized to JSON 
+ * from its getters.
+ */
+public interface StatusReporter {
+    
+    String getStatusName();
+    
+    Object getStatus();
+
+}
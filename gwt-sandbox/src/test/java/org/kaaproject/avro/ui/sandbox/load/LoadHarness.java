@@ -0,0 +1,180 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.avro.ui.sandbox.load;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.spring4gwt.server.LatencyHistogram;
+
+/**
+ * Runs a task from a number of threads for a number of calls each and 
+ * measures throughput, latency percentiles, allocated bytes and GC time.
+ */
+public class LoadHarness {
+    
+    private final int threads;
+    private final int callsPerThread;
+    private final int warmupCalls;
+    
+    public LoadHarness(int threads, int callsPerThread, int warmupCalls) {
+        this.threads = threads;
+        this.callsPerThread = callsPerThread;
+        this.warmupCalls = warmupCalls;
+    }
+    
+    public Result run(String name, final Callable<?> task) throws Exception {
+        for (int i = 0; i < warmupCalls; i++) {
+            task.call();
+        }
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong allocatedBytes = new AtomicLong();
+        final Throwable[] firstError = new Throwable[1];
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    long allocatedBefore = threadAllocatedBytes();
+                    for (int call = 0; call < callsPerThread; call++) {
+                        long started = System.nanoTime();
+                        try {
+                            task.call();
+                            latency.record(System.nanoTime() - started);
+                        } catch (Throwable e) {
+                            if (errors.getAndIncrement() == 0) {
+                                firstError[0] = e;
+                            }
+                        }
+                    }
+                    allocatedBytes.addAndGet(threadAllocatedBytes() - allocatedBefore);
+                }
+            }, name + "-" + i);
+            workers.add(worker);
+            worker.start();
+        }
+        long gcBefore = gcTimeMs();
+        long started = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        Result result = new Result(name, threads, latency, errors.get(), firstError[0], 
+                elapsedNanos, allocatedBytes.get(), gcTimeMs() - gcBefore);
+        System.out.println(result);
+        return result;
+    }
+    
+    private static long threadAllocatedBytes() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreadBean = (com.sun.management.ThreadMXBean) threadBean;
+            if (sunThreadBean.isThreadAllocatedMemorySupported() && sunThreadBean.isThreadAllocatedMemoryEnabled()) {
+                return sunThreadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return 0;
+    }
+    
+    private static long gcTimeMs() {
+        long total = 0;
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gcBean.getCollectionTime());
+        }
+        return total;
+    }
+    
+    public static class Result {
+        
+        private final String name;
+        private final int threads;
+        private final LatencyHistogram latency;
+        private final long errors;
+        private final Throwable firstError;
+        private final long elapsedNanos;
+        private final long allocatedBytes;
+        private final long gcTimeMs;
+        
+        Result(String name, int threads, LatencyHistogram latency, long errors, Throwable firstError,
+                long elapsedNanos, long allocatedBytes, long gcTimeMs) {
+            this.name = name;
+            this.threads = threads;
+            this.latency = latency;
+            this.errors = errors;
+            this.firstError = firstError;
+            this.elapsedNanos = elapsedNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.gcTimeMs = gcTimeMs;
+        }
+        
+        public long getCalls() {
+            return latency.getCount();
+        }
+        
+        public long getErrors() {
+            return errors;
+        }
+        
+        public Throwable getFirstError() {
+            return firstError;
+        }
+        
+        public double getThroughput() {
+            return elapsedNanos > 0 ? latency.getCount() * 1e9 / elapsedNanos : 0;
+        }
+        
+        public long getP50Micros() {
+            return latency.getPercentileMicros(50);
+        }
+        
+        public long getP99Micros() {
+            return latency.getPercentileMicros(99);
+        }
+        
+        public long getAllocatedBytesPerCall() {
+            return latency.getCount() > 0 ? allocatedBytes / latency.getCount() : 0;
+        }
+        
+        public long getGcTimeMs() {
+            return gcTimeMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-40s threads %2d, calls %6d, errors %d, %9.1f calls/s, "
+                    + "p50 %7d us, p99 %7d us, %9d bytes/call, gc %d ms", name, threads, 
+                    getCalls(), errors, getThroughput(), getP50Micros(), getP99Micros(), 
+                    getAllocatedBytesPerCall(), gcTimeMs);
+        }
+    }
+
+}
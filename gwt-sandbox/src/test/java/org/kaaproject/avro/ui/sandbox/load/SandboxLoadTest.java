@@ -0,0 +1,309 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.avro.ui.sandbox.load;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.concurrent.Callable;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.kaaproject.avro.ui.sandbox.services.AvroUiSandboxServiceImpl;
+import org.kaaproject.avro.ui.sandbox.services.ConversionApiServlet;
+import org.kaaproject.avro.ui.sandbox.services.JsonCacheServiceImpl;
+import org.kaaproject.avro.ui.sandbox.services.RecordCacheServiceImpl;
+import org.kaaproject.avro.ui.sandbox.services.SchemaCacheServiceImpl;
+import org.kaaproject.avro.ui.sandbox.shared.services.AvroUiSandboxService;
+import org.kaaproject.avro.ui.shared.RecordField;
+import org.spring4gwt.server.SpringGwtRemoteServiceServlet;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.web.context.ContextLoaderListener;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+import com.google.gwt.user.server.rpc.SerializationPolicy;
+
+/**
+ * In-process load test of the sandbox service layer, of the GWT RPC servlet 
+ * and of the conversion API served by an embedded container, over generated 
+ * schemas of growing size. Form generation is measured without the schema 
+ * cache, so every call parses the schema and builds the form.
+ * 
+ * Load tests run only in the <code>loadtest</code> profile. Concurrency and 
+ * volume are set with the system properties <code>loadtest.threads</code>, 
+ * <code>loadtest.calls</code> (per thread) and <code>loadtest.fields</code> 
+ * (comma separated schema sizes), e.g.
+ * <code>mvn test -Ploadtest -Dloadtest.threads=16 -Dloadtest.calls=500</code>.
+ */
+public class SandboxLoadTest {
+    
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    
+    private static final int THREADS = Integer.getInteger("loadtest.threads", 
+            Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final int CALLS = Integer.getInteger("loadtest.calls", 20);
+    private static final int WARMUP_CALLS = 5;
+    private static final String FIELDS = System.getProperty("loadtest.fields", "10,100,500");
+    
+    private static final String RPC_SERVICE = "avroUiSandboxService";
+    private static final String RPC_PERMUTATION = "LoadTest";
+    
+    private static Server server;
+    private static AnnotationConfigWebApplicationContext applicationContext;
+    private static AnnotationConfigApplicationContext uncachedApplicationContext;
+    private static AvroUiSandboxService service;
+    private static AvroUiSandboxService uncachedService;
+    private static String moduleBaseUrl;
+    private static String apiUrl;
+    
+    private final LoadHarness harness = new LoadHarness(THREADS, CALLS, WARMUP_CALLS);
+    
+    @BeforeClass
+    public static void startServer() throws Exception {
+        applicationContext = new AnnotationConfigWebApplicationContext();
+        applicationContext.register(AvroUiSandboxServiceImpl.class, SchemaCacheServiceImpl.class,
+                JsonCacheServiceImpl.class, RecordCacheServiceImpl.class);
+        server = new Server(0);
+        ServletContextHandler context = new ServletContextHandler(ServletContextHandler.NO_SESSIONS);
+        context.setContextPath("/");
+        context.addEventListener(new ContextLoaderListener(applicationContext));
+        context.addServlet(new ServletHolder(new ConversionApiServlet()), "/api/*");
+        ServletHolder rpcServlet = new ServletHolder(new LoadTestRemoteServiceServlet());
+        rpcServlet.setAsyncSupported(true);
+        context.addServlet(rpcServlet, "/springGwtServices/*");
+        server.setHandler(context);
+        server.start();
+        service = applicationContext.getBean(AvroUiSandboxService.class);
+        moduleBaseUrl = "http://localhost:" + server.getConnectors()[0].getLocalPort() + "/";
+        apiUrl = moduleBaseUrl + "api";
+        
+        uncachedApplicationContext = new AnnotationConfigApplicationContext(AvroUiSandboxServiceImpl.class, 
+                SchemaCacheServiceImpl.class, JsonCacheServiceImpl.class, RecordCacheServiceImpl.class);
+        uncachedApplicationContext.getBean(SchemaCacheServiceImpl.class).setMaxEntries(0);
+        uncachedService = uncachedApplicationContext.getBean(AvroUiSandboxService.class);
+    }
+    
+    @AfterClass
+    public static void stopServer() throws Exception {
+        if (server != null) {
+            server.stop();
+        }
+        if (uncachedApplicationContext != null) {
+            uncachedApplicationContext.close();
+        }
+    }
+    
+    @Test
+    public void testFormGenerationLoad() throws Exception {
+        for (String fields : FIELDS.split(",")) {
+            final TestSchemaGenerator generator = new TestSchemaGenerator(Integer.parseInt(fields.trim()));
+            final RecordField dataForm = uncachedService.generateFormDataFromJson(generator.getSchema(), 
+                    generator.getRecord());
+            Assert.assertTrue(dataForm.isValid());
+            
+            check(harness.run("generateFormFromSchema[" + fields + "]", new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return uncachedService.generateFormFromSchema(generator.getSchema());
+                }
+            }));
+            check(harness.run("generateFormFromSchema cached[" + fields + "]", new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return service.generateFormFromSchema(generator.getSchema());
+                }
+            }));
+            check(harness.run("generateSchemaFormFromSchema[" + fields + "]", new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return uncachedService.generateSchemaFormFromSchema(generator.getSchema());
+                }
+            }));
+            check(harness.run("generateFormDataFromJson[" + fields + "]", new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return uncachedService.generateFormDataFromJson(generator.getSchema(), generator.getRecord());
+                }
+            }));
+            check(harness.run("getJsonStringFromRecord[" + fields + "]", new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return uncachedService.getJsonStringFromRecord(dataForm);
+                }
+            }));
+        }
+    }
+    
+    @Test
+    public void testConversionApiLoad() throws Exception {
+        for (String fields : FIELDS.split(",")) {
+            TestSchemaGenerator generator = new TestSchemaGenerator(Integer.parseInt(fields.trim()));
+            String schemaId = service.getSchemaHandle(generator.getSchema());
+            final String url = apiUrl + "/records/validate?schemaId=" + schemaId;
+            final byte[] record = generator.getRecord().getBytes(UTF8);
+            Assert.assertTrue(new String(post(url, record), UTF8).contains("\"valid\":true"));
+            
+            check(harness.run("POST /records/validate[" + fields + "]", new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return post(url, record);
+                }
+            }));
+        }
+    }
+    
+    @Test
+    public void testRemoteServiceLoad() throws Exception {
+        for (String fields : FIELDS.split(",")) {
+            TestSchemaGenerator generator = new TestSchemaGenerator(Integer.parseInt(fields.trim()));
+            final String url = moduleBaseUrl + "springGwtServices/" + RPC_SERVICE;
+            final byte[] request = rpcRequest("generateFormFromSchema", generator.getSchema()).getBytes(UTF8);
+            String response = rpc(url, request);
+            Assert.assertTrue(response, response.startsWith("//OK"));
+            
+            check(harness.run("RPC generateFormFromSchema[" + fields + "]", new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    String response = rpc(url, request);
+                    if (!response.startsWith("//OK")) {
+                        throw new IOException("RPC call failed: " + response);
+                    }
+                    return response;
+                }
+            }));
+        }
+    }
+    
+    private static void check(LoadHarness.Result result) {
+        if (result.getErrors() > 0) {
+            throw new AssertionError(result.getErrors() + " calls failed, first failure: " 
+                    + result.getFirstError(), result.getFirstError());
+        }
+        Assert.assertEquals((long) THREADS * CALLS, result.getCalls());
+    }
+    
+    /**
+     * Encodes a GWT RPC request to a service method taking a single string.
+     */
+    private static String rpcRequest(String method, String argument) {
+        String[] strings = { moduleBaseUrl, RPC_PERMUTATION, AvroUiSandboxService.class.getName(), 
+                method, "java.lang.String/2004016611", argument };
+        StringBuilder payload = new StringBuilder("7|0|").append(strings.length).append('|');
+        for (String string : strings) {
+            payload.append(string.replace("\\", "\\\\").replace("|", "\\!")).append('|');
+        }
+        return payload.append("1|2|3|4|1|5|6|").toString();
+    }
+    
+    private static String rpc(String url, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        connection.setRequestProperty("Content-Type", "text/x-gwt-rpc; charset=utf-8");
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        connection.setRequestProperty("X-GWT-Permutation", RPC_PERMUTATION);
+        connection.setRequestProperty("X-GWT-Module-Base", moduleBaseUrl);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+            throw new IOException("Status " + connection.getResponseCode());
+        }
+        InputStream stream = connection.getInputStream();
+        if ("gzip".equals(connection.getContentEncoding())) {
+            stream = new GZIPInputStream(stream);
+        }
+        return new String(read(stream), UTF8);
+    }
+    
+    private static byte[] read(InputStream stream) throws IOException {
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        try (InputStream in = stream) {
+            byte[] buffer = new byte[8 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                response.write(buffer, 0, read);
+            }
+        }
+        return response.toByteArray();
+    }
+    
+    private static byte[] post(String url, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        connection.setRequestProperty("Content-Type", "application/json");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        int status = connection.getResponseCode();
+        InputStream stream = status == HttpURLConnection.HTTP_OK 
+                ? connection.getInputStream() : connection.getErrorStream();
+        byte[] response = stream != null ? read(stream) : new byte[0];
+        if (status != HttpURLConnection.HTTP_OK) {
+            throw new IOException("Status " + status + ": " + new String(response, UTF8));
+        }
+        return response;
+    }
+    
+    /**
+     * The embedded container serves no compiled GWT module, so there is no 
+     * serialization policy file to load; any type below Object is allowed instead.
+     */
+    @SuppressWarnings("serial")
+    private static class LoadTestRemoteServiceServlet extends SpringGwtRemoteServiceServlet {
+        
+        @Override
+        protected SerializationPolicy doGetSerializationPolicy(HttpServletRequest request, 
+                String moduleBaseURL, String strongName) {
+            return new SerializationPolicy() {
+                @Override
+                public boolean shouldDeserializeFields(Class<?> clazz) {
+                    return clazz != null && clazz != Object.class;
+                }
+                
+                @Override
+                public boolean shouldSerializeFields(Class<?> clazz) {
+                    return clazz != null && clazz != Object.class;
+                }
+                
+                @Override
+                public void validateDeserialize(Class<?> clazz) {
+                }
+                
+                @Override
+                public void validateSerialize(Class<?> clazz) {
+                }
+            };
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.avro.ui.sandbox.load;
+
+/**
+ * Generates record schemas with a given number of fields of mixed types, 
+ * together with an Avro JSON record matching the schema.
+ */
+public class TestSchemaGenerator {
+    
+    private static final String NAMESPACE = "org.kaaproject.avro.ui.sandbox.load";
+    
+    private static final int FIELD_KINDS = 9;
+    
+    private final String schema;
+    private final String record;
+    
+    public TestSchemaGenerator(int fieldCount) {
+        StringBuilder schemaBuilder = new StringBuilder();
+        StringBuilder recordBuilder = new StringBuilder();
+        schemaBuilder.append("{\"type\":\"record\",\"name\":\"Generated").append(fieldCount)
+            .append("\",\"namespace\":\"").append(NAMESPACE).append("\",\"fields\":[");
+        recordBuilder.append('{');
+        for (int i = 0; i < fieldCount; i++) {
+            if (i > 0) {
+                schemaBuilder.append(',');
+                recordBuilder.append(',');
+            }
+            String name = "field" + i;
+            schemaBuilder.append("{\"name\":\"").append(name).append("\",\"type\":");
+            recordBuilder.append('"').append(name).append("\":");
+            switch (i % FIELD_KINDS) {
+            case 0:
+                schemaBuilder.append("\"string\"");
+                recordBuilder.append("\"value ").append(i).append('"');
+                break;
+            case 1:
+                schemaBuilder.append("\"int\"");
+                recordBuilder.append(i);
+                break;
+            case 2:
+                schemaBuilder.append("\"long\"");
+                recordBuilder.append(i * 1000000000L);
+                break;
+            case 3:
+                schemaBuilder.append("\"double\"");
+                recordBuilder.append(i + 0.5);
+                break;
+            case 4:
+                schemaBuilder.append("\"boolean\"");
+                recordBuilder.append(i % 2 == 0);
+                break;
+            case 5:
+                schemaBuilder.append("{\"type\":\"enum\",\"name\":\"Enum").append(i)
+                    .append("\",\"symbols\":[\"ONE\",\"TWO\",\"THREE\"]}");
+                recordBuilder.append("\"TWO\"");
+                break;
+            case 6:
+                schemaBuilder.append("{\"type\":\"array\",\"items\":\"string\"}");
+                recordBuilder.append("[\"first\",\"second\",\"third\"]");
+                break;
+            case 7:
+                schemaBuilder.append("{\"type\":\"record\",\"name\":\"Nested").append(i)
+                    .append("\",\"fields\":[{\"name\":\"text\",\"type\":\"string\"},")
+                    .append("{\"name\":\"number\",\"type\":\"int\"}]}");
+                recordBuilder.append("{\"text\":\"nested ").append(i).append("\",\"number\":").append(i).append('}');
+                break;
+            default:
+                schemaBuilder.append("[\"null\",\"string\"]");
+                recordBuilder.append("null");
+                break;
+            }
+            schemaBuilder.append('}');
+        }
+        schemaBuilder.append("]}");
+        recordBuilder.append('}');
+        schema = schemaBuilder.toString();
+        record = recordBuilder.toString();
+    }
+
+    public String getSchema() {
+        return schema;
+    }
+
+    public String getRecord() {
+        return record;
+    }
+
+}
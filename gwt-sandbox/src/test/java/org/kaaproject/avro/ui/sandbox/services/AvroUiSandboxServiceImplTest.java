@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kaaproject.avro.ui.sandbox.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import org.apache.avro.generic.GenericRecord;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.kaaproject.avro.ui.converter.FormAvroConverter;
+import org.kaaproject.avro.ui.converter.SchemaFormConstants;
+import org.kaaproject.avro.ui.sandbox.shared.services.AvroUiSandboxService;
+import org.kaaproject.avro.ui.sandbox.shared.services.AvroUiSandboxServiceException;
+import org.kaaproject.avro.ui.shared.RecordField;
+import org.kaaproject.avro.ui.shared.StringField;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+public class AvroUiSandboxServiceImplTest {
+    
+    private static final String SCHEMA = "{\"type\":\"record\",\"name\":\"TypeA\","
+            + "\"namespace\":\"org.kaaproject.avro.ui.test\",\"fields\":["
+            + "{\"name\":\"testString\",\"type\":\"string\"},"
+            + "{\"name\":\"testInt\",\"type\":[\"int\",\"null\"]},"
+            + "{\"name\":\"testEnum\",\"type\":{\"type\":\"enum\",\"name\":\"TypeE\",\"symbols\":[\"A\",\"B\"]}},"
+            + "{\"name\":\"testRecord\",\"type\":[{\"type\":\"record\",\"name\":\"TypeB\",\"fields\":["
+            + "{\"name\":\"testLong\",\"type\":\"long\"}]},\"null\"]},"
+            + "{\"name\":\"testReference\",\"type\":[\"TypeB\",\"null\"]},"
+            + "{\"name\":\"testArray\",\"type\":{\"type\":\"array\",\"items\":\"TypeB\"}}]}";
+    
+    private static final String JSON = "{\"testString\":\"value\",\"testInt\":{\"int\":5},"
+            + "\"testEnum\":\"B\",\"testRecord\":{\"org.kaaproject.avro.ui.test.TypeB\":{\"testLong\":7}},"
+            + "\"testReference\":null,\"testArray\":[{\"testLong\":1},{\"testLong\":2}]}";
+    
+    private static AnnotationConfigApplicationContext applicationContext;
+    private static AvroUiSandboxService service;
+    
+    @BeforeClass
+    public static void init() {
+        applicationContext = new AnnotationConfigApplicationContext(AvroUiSandboxServiceImpl.class, 
+                SchemaCacheServiceImpl.class, JsonCacheServiceImpl.class, RecordCacheServiceImpl.class);
+        service = applicationContext.getBean(AvroUiSandboxService.class);
+    }
+    
+    @AfterClass
+    public static void destroy() {
+        applicationContext.close();
+    }
+    
+    @Test
+    public void testFormFromSchemaForm() throws Exception {
+        RecordField schemaForm = service.generateSchemaFormFromSchema(SCHEMA);
+        String schema = service.getJsonStringFromSchemaForm(schemaForm);
+        RecordField expected = service.generateFormFromSchema(schema);
+        RecordField actual = service.generateFormFromSchemaForm(schemaForm);
+        assertSame(expected, actual);
+        assertEquals(expected.getTypeFullname(), actual.getTypeFullname());
+        assertEquals(expected.getValue().size(), actual.getValue().size());
+    }
+    
+    @Test
+    public void testFormDataFromSchemaFormAndJson() throws Exception {
+        RecordField schemaForm = service.generateSchemaFormFromSchema(SCHEMA);
+        String schema = service.getJsonStringFromSchemaForm(schemaForm);
+        RecordField expected = service.generateFormDataFromJson(schema, JSON);
+        RecordField actual = service.generateFormDataFromSchemaFormAndJson(schemaForm, JSON);
+        assertEquals(toRecord(expected), toRecord(actual));
+        assertEquals(service.getJsonStringFromRecord(expected), service.getJsonStringFromRecord(actual));
+    }
+    
+    @Test
+    public void testInvalidSchemaForm() throws Exception {
+        RecordField schemaForm = service.generateSchemaFormFromSchema(SCHEMA);
+        ((StringField) schemaForm.getFieldByName(SchemaFormConstants.RECORD_NAME)).setValue("Invalid-Name");
+        try {
+            service.generateFormFromSchema(service.getJsonStringFromSchemaForm(schemaForm));
+            fail("Schema with invalid record name was accepted by the two-step path");
+        } catch (AvroUiSandboxServiceException e) {
+        }
+        try {
+            service.generateFormFromSchemaForm(schemaForm);
+            fail("Schema with invalid record name was accepted by generateFormFromSchemaForm");
+        } catch (AvroUiSandboxServiceException e) {
+        }
+        try {
+            service.generateFormDataFromSchemaFormAndJson(schemaForm, JSON);
+            fail("Schema with invalid record name was accepted by generateFormDataFromSchemaFormAndJson");
+        } catch (AvroUiSandboxServiceException e) {
+        }
+    }
+    
+    private static GenericRecord toRecord(RecordField field) throws Exception {
+        return FormAvroConverter.createGenericRecordFromRecordField(field);
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kaaproject.avro.ui.sandbox.services;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.web.context.ContextLoaderListener;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+public class FileUploadServletTest {
+    
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final String BOUNDARY = "avro-ui-test-boundary";
+    
+    private static Server server;
+    private static String uploadUrl;
+    
+    @BeforeClass
+    public static void startServer() throws Exception {
+        AnnotationConfigWebApplicationContext applicationContext = new AnnotationConfigWebApplicationContext();
+        applicationContext.register(JsonCacheServiceImpl.class, RecordCacheServiceImpl.class);
+        server = new Server(0);
+        ServletContextHandler context = new ServletContextHandler(ServletContextHandler.NO_SESSIONS);
+        context.setContextPath("/");
+        context.addEventListener(new ContextLoaderListener(applicationContext));
+        context.addServlet(new ServletHolder(new FileUploadServlet()), "/upload");
+        server.setHandler(context);
+        server.start();
+        uploadUrl = "http://localhost:" + server.getConnectors()[0].getLocalPort() + "/upload";
+    }
+    
+    @AfterClass
+    public static void stopServer() throws Exception {
+        if (server != null) {
+            server.stop();
+        }
+    }
+    
+    @Test
+    public void testSpoolInMemory() throws Exception {
+        byte[] data = content(1024);
+        try (FileUploadServlet.SpooledContent content = FileUploadServlet.spool(new ByteArrayInputStream(data))) {
+            assertFalse(content.isSpooled());
+            assertEquals(data.length, content.getLength());
+            assertArrayEquals(data, writeContent(content));
+        }
+    }
+    
+    @Test
+    public void testSpoolToFile() throws Exception {
+        byte[] data = content(1024 * 1024);
+        try (FileUploadServlet.SpooledContent content = FileUploadServlet.spool(new ByteArrayInputStream(data))) {
+            assertTrue(content.isSpooled());
+            assertEquals(data.length, content.getLength());
+            assertArrayEquals(data, writeContent(content));
+        }
+    }
+    
+    @Test
+    public void testGzipEncoding() {
+        assertTrue(FileUploadServlet.isGzipEncoded("gzip"));
+        assertTrue(FileUploadServlet.isGzipEncoded(" GZIP "));
+        assertFalse(FileUploadServlet.isGzipEncoded(null));
+        assertFalse(FileUploadServlet.isGzipEncoded("identity"));
+    }
+    
+    @Test
+    public void testUpload() throws Exception {
+        byte[] data = content(1024);
+        assertArrayEquals(data, upload(multipart(data, null), null));
+    }
+    
+    @Test
+    public void testLargeUpload() throws Exception {
+        byte[] data = content(1024 * 1024);
+        assertArrayEquals(data, upload(multipart(data, null), null));
+    }
+    
+    @Test
+    public void testGzipPartUpload() throws Exception {
+        byte[] data = content(512 * 1024);
+        assertArrayEquals(data, upload(multipart(gzip(data), "gzip"), null));
+    }
+    
+    @Test
+    public void testGzipRequestUpload() throws Exception {
+        byte[] data = content(512 * 1024);
+        assertArrayEquals(data, upload(gzip(multipart(data, null)), "gzip"));
+    }
+    
+    @Test
+    public void testUndeclaredGzipIsNotInflated() throws Exception {
+        byte[] data = gzip(content(1024));
+        assertArrayEquals(data, upload(multipart(data, null), null));
+    }
+    
+    private static byte[] content(int length) {
+        byte[] pattern = "{\"field\":\"value\"}\n".getBytes(UTF8);
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = pattern[i % pattern.length];
+        }
+        return content;
+    }
+    
+    private static byte[] writeContent(FileUploadServlet.SpooledContent content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        content.writeTo(out);
+        return out.toByteArray();
+    }
+    
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+    
+    private static byte[] multipart(byte[] data, String contentEncoding) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StringBuilder header = new StringBuilder();
+        header.append("--").append(BOUNDARY).append("\r\n");
+        header.append("Content-Disposition: form-data; name=\"uploadFormElement\"; filename=\"test.json\"\r\n");
+        header.append("Content-Type: application/octet-stream\r\n");
+        if (contentEncoding != null) {
+            header.append("Content-Encoding: ").append(contentEncoding).append("\r\n");
+        }
+        header.append("\r\n");
+        out.write(header.toString().getBytes(UTF8));
+        out.write(data);
+        out.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(UTF8));
+        return out.toByteArray();
+    }
+    
+    private static byte[] upload(byte[] body, String contentEncoding) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(uploadUrl).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        connection.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + BOUNDARY);
+        connection.setRequestProperty("Accept-Encoding", "identity");
+        if (contentEncoding != null) {
+            connection.setRequestProperty("Content-Encoding", contentEncoding);
+        }
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        assertEquals(HttpURLConnection.HTTP_OK, connection.getResponseCode());
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        try (InputStream in = connection.getInputStream()) {
+            byte[] buffer = new byte[8 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                response.write(buffer, 0, read);
+            }
+        }
+        return response.toByteArray();
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kaaproject.avro.ui.sandbox.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.nio.charset.Charset;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kaaproject.avro.ui.sandbox.services.cache.CachedJson;
+import org.kaaproject.avro.ui.sandbox.services.cache.JsonCacheStatistics;
+
+public class JsonCacheServiceImplTest {
+    
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    
+    private JsonCacheServiceImpl cache;
+    
+    @Before
+    public void setUp() {
+        cache = new JsonCacheServiceImpl();
+    }
+    
+    @After
+    public void tearDown() throws Exception {
+        cache.destroy();
+    }
+    
+    @Test
+    public void testPutAndGet() {
+        String key = cache.putJson("{\"a\":1}");
+        assertEquals("{\"a\":1}", cache.getJson(key));
+        assertNull(cache.getJson(key));
+        assertNull(cache.getJson(null));
+        JsonCacheStatistics statistics = cache.getStatistics();
+        assertEquals(1, statistics.getHits());
+        assertEquals(2, statistics.getMisses());
+        assertEquals(0, statistics.getEntries());
+        assertEquals(0, statistics.getMemoryBytes());
+    }
+    
+    @Test
+    public void testTimeToLive() {
+        cache.setTimeToLiveMs(0);
+        String first = cache.putJson("{}");
+        cache.putJson("[]");
+        assertNull(cache.getJson(first));
+        cache.sweep();
+        JsonCacheStatistics statistics = cache.getStatistics();
+        assertEquals(2, statistics.getExpirations());
+        assertEquals(1, statistics.getMisses());
+        assertEquals(0, statistics.getEntries());
+        assertEquals(0, statistics.getMemoryBytes());
+    }
+    
+    @Test
+    public void testMemoryBoundEvictsOldestFirst() {
+        cache.setSpillEnabled(false);
+        cache.setMaxMemoryBytes(30);
+        String first = cache.putJson("\"12345\"");
+        String second = cache.putJson("\"abcde\"");
+        assertEquals(28, cache.getStatistics().getMemoryBytes());
+        assertEquals(0, cache.getStatistics().getEvictions());
+        String third = cache.putJson("\"ABCDE\"");
+        JsonCacheStatistics statistics = cache.getStatistics();
+        assertEquals(1, statistics.getEvictions());
+        assertEquals(2, statistics.getEntries());
+        assertEquals(28, statistics.getMemoryBytes());
+        assertNull(cache.getJson(first));
+        assertEquals("\"abcde\"", cache.getJson(second));
+        assertEquals("\"ABCDE\"", cache.getJson(third));
+    }
+    
+    @Test
+    public void testSpillBoundEvictsOldestFirst() {
+        cache.setSpillThresholdBytes(8);
+        cache.setMaxSpillBytes(20);
+        String small = cache.putJson("[]");
+        String first = cache.putJson("\"12345678\"");
+        String second = cache.putJson("\"abcdefgh\"");
+        JsonCacheStatistics statistics = cache.getStatistics();
+        assertEquals(2, statistics.getSpills());
+        assertEquals(20, statistics.getSpillBytes());
+        assertEquals(4, statistics.getMemoryBytes());
+        String third = cache.putJson("\"ABCDEFGH\"");
+        statistics = cache.getStatistics();
+        assertEquals(3, statistics.getSpills());
+        assertEquals(2, statistics.getEvictions());
+        assertEquals(20, statistics.getSpillBytes());
+        assertNull(cache.getJson(small));
+        assertNull(cache.getJson(first));
+        assertEquals("\"abcdefgh\"", cache.getJson(second));
+        assertEquals("\"ABCDEFGH\"", cache.getJson(third));
+        assertEquals(0, cache.getStatistics().getSpillBytes());
+    }
+    
+    @Test
+    public void testSpillReadBack() throws Exception {
+        cache.setSpillThresholdBytes(0);
+        String json = "{\"name\":\"жé€\"}";
+        byte[] expected = json.getBytes(UTF8);
+        
+        String readKey = cache.putJson(json);
+        String writeKey = cache.putJson(json);
+        assertEquals(2L * expected.length, cache.getStatistics().getSpillBytes());
+        assertEquals(json, cache.getJson(readKey));
+        
+        CachedJson cached = cache.takeJson(writeKey);
+        assertNotNull(cached);
+        try {
+            assertEquals(expected.length, cached.getContentLength());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            cached.writeTo(out);
+            assertEquals(json, new String(out.toByteArray(), UTF8));
+        } finally {
+            cached.close();
+        }
+        assertEquals(0, cache.getStatistics().getSpillBytes());
+        assertEquals(0, cache.getStatistics().getEntries());
+    }
+    
+    @Test
+    public void testDestroyDeletesSpilledFiles() throws Exception {
+        cache.setSpillThresholdBytes(0);
+        String key = cache.putJson("{\"a\":1}");
+        cache.putJson("{\"b\":2}");
+        assertEquals(2, cache.getStatistics().getSpills());
+        int before = countSpillFiles();
+        cache.destroy();
+        assertEquals(before - 2, countSpillFiles());
+        assertEquals(0, cache.getStatistics().getEntries());
+        assertEquals(0, cache.getStatistics().getSpillBytes());
+        assertNull(cache.getJson(key));
+    }
+    
+    private static int countSpillFiles() {
+        File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith("json-cache-");
+            }
+        });
+        return files != null ? files.length : 0;
+    }
+    
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kaaproject.avro.ui.sandbox.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.kaaproject.avro.ui.sandbox.services.cache.CachedSchema;
+
+public class SchemaCacheServiceImplTest {
+    
+    private SchemaCacheServiceImpl cache;
+    
+    @Before
+    public void setUp() {
+        cache = new SchemaCacheServiceImpl();
+    }
+    
+    @Test
+    public void testFingerprint() {
+        String schema = schema("TypeA", 1);
+        CachedSchema cached = cache.getSchema(schema);
+        assertEquals(32, cached.getHandle().length());
+        assertEquals(schema, cached.getSchemaText());
+        assertSame(cached, cache.getSchema(new String(schema)));
+        assertSame(cached, cache.getSchemaByHandle(cached.getHandle()));
+        
+        CachedSchema reformatted = cache.getSchema(schema.replace(",", ", "));
+        assertNotEquals(cached.getHandle(), reformatted.getHandle());
+        assertEquals(cached.getSchema(), reformatted.getSchema());
+        assertEquals(2, cache.size());
+        
+        assertNull(cache.getSchemaByHandle("unknown"));
+    }
+    
+    @Test
+    public void testEntryCountBoundEvictsLeastRecentlyUsed() {
+        cache.setMaxEntries(2);
+        CachedSchema first = cache.getSchema(schema("TypeA", 1));
+        CachedSchema second = cache.getSchema(schema("TypeB", 1));
+        assertSame(first, cache.getSchemaByHandle(first.getHandle()));
+        CachedSchema third = cache.getSchema(schema("TypeC", 1));
+        assertEquals(2, cache.size());
+        assertNotNull(cache.getSchemaByHandle(first.getHandle()));
+        assertNull(cache.getSchemaByHandle(second.getHandle()));
+        assertNotNull(cache.getSchemaByHandle(third.getHandle()));
+        assertEquals(first.getWeight() + third.getWeight(), cache.getMemoryBytes());
+    }
+    
+    @Test
+    public void testMemoryBoundEvictsLeastRecentlyUsed() {
+        CachedSchema first = cache.getSchema(schema("TypeA", 10));
+        cache.setMaxMemoryBytes(2 * first.getWeight());
+        CachedSchema second = cache.getSchema(schema("TypeB", 10));
+        assertEquals(first.getWeight() + second.getWeight(), cache.getMemoryBytes());
+        cache.getSchema(schema("TypeA", 10));
+        CachedSchema third = cache.getSchema(schema("TypeC", 10));
+        assertEquals(2, cache.size());
+        assertNotNull(cache.getSchemaByHandle(first.getHandle()));
+        assertNull(cache.getSchemaByHandle(second.getHandle()));
+        assertNotNull(cache.getSchemaByHandle(third.getHandle()));
+        assertEquals(first.getWeight() + third.getWeight(), cache.getMemoryBytes());
+    }
+    
+    @Test
+    public void testOversizedSchemaIsNotCached() {
+        cache.setMaxMemoryBytes(1);
+        String schema = schema("TypeA", 1);
+        CachedSchema cached = cache.getSchema(schema);
+        assertNotNull(cached.getSchema());
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getMemoryBytes());
+        assertNotSame(cached, cache.getSchema(schema));
+    }
+    
+    private static String schema(String name, int fieldCount) {
+        StringBuilder schema = new StringBuilder();
+        schema.append("{\"type\":\"record\",\"name\":\"").append(name)
+            .append("\",\"namespace\":\"org.kaaproject.avro.ui.test\",\"fields\":[");
+        for (int i = 0; i < fieldCount; i++) {
+            if (i > 0) {
+                schema.append(',');
+            }
+            schema.append("{\"name\":\"field").append(i).append("\",\"type\":\"string\"}");
+        }
+        return schema.append("]}").toString();
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.spring4gwt.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.ContextLoaderListener;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+import com.google.gwt.user.client.rpc.RemoteService;
+
+public class SpringGwtRemoteServiceServletTest {
+    
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final String PERMUTATION = "Test";
+    private static final int ASYNC_TIMEOUT_MS = 500;
+    
+    private static Server server;
+    private static String moduleBaseUrl;
+    
+    public interface SleepService extends RemoteService {
+        String sleep(String millis) throws InterruptedException;
+    }
+    
+    @Service("sleepService")
+    public static class SleepServiceImpl implements SleepService {
+        
+        static final AtomicInteger STARTED = new AtomicInteger();
+        
+        @Override
+        public String sleep(String millis) throws InterruptedException {
+            STARTED.incrementAndGet();
+            Thread.sleep(Long.parseLong(millis));
+            return millis;
+        }
+    }
+    
+    @BeforeClass
+    public static void startServer() throws Exception {
+        AnnotationConfigWebApplicationContext applicationContext = new AnnotationConfigWebApplicationContext();
+        applicationContext.register(SleepServiceImpl.class);
+        server = new Server(0);
+        ServletContextHandler context = new ServletContextHandler(ServletContextHandler.NO_SESSIONS);
+        context.setContextPath("/");
+        context.addEventListener(new ContextLoaderListener(applicationContext));
+        ServletHolder servlet = new ServletHolder(new SpringGwtRemoteServiceServlet());
+        servlet.setAsyncSupported(true);
+        servlet.setInitParameter("maxThreads", "1");
+        servlet.setInitParameter("asyncTimeoutMs", String.valueOf(ASYNC_TIMEOUT_MS));
+        context.addServlet(servlet, "/springGwtServices/*");
+        server.setHandler(context);
+        server.start();
+        moduleBaseUrl = "http://localhost:" + server.getConnectors()[0].getLocalPort() + "/";
+    }
+    
+    @AfterClass
+    public static void stopServer() throws Exception {
+        if (server != null) {
+            server.stop();
+        }
+    }
+    
+    @Test
+    public void testCall() throws Exception {
+        Response response = call(0);
+        assertEquals(HttpURLConnection.HTTP_OK, response.status);
+        assertTrue(response.body, response.body.startsWith("//OK"));
+    }
+    
+    @Test
+    public void testTimeouts() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(2);
+        try {
+            int started = SleepServiceImpl.STARTED.get();
+            Future<Response> running = clients.submit(callable(3 * ASYNC_TIMEOUT_MS));
+            Thread.sleep(ASYNC_TIMEOUT_MS / 5);
+            Future<Response> queued = clients.submit(callable(0));
+            
+            assertEquals(HttpURLConnection.HTTP_UNAVAILABLE, running.get(10, TimeUnit.SECONDS).status);
+            assertEquals(HttpURLConnection.HTTP_UNAVAILABLE, queued.get(10, TimeUnit.SECONDS).status);
+            
+            Thread.sleep(3 * ASYNC_TIMEOUT_MS);
+            assertEquals("The call timed out in the queue must not run", 
+                    started + 1, SleepServiceImpl.STARTED.get());
+            testCall();
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+    
+    private static Callable<Response> callable(final long millis) {
+        return new Callable<Response>() {
+            @Override
+            public Response call() throws Exception {
+                return SpringGwtRemoteServiceServletTest.call(millis);
+            }
+        };
+    }
+    
+    private static Response call(long millis) throws IOException {
+        String payload = "7|0|6|" + moduleBaseUrl + "|" + PERMUTATION + "|" + SleepService.class.getName() 
+                + "|sleep|java.lang.String/2004016611|" + millis + "|1|2|3|4|1|5|6|";
+        byte[] body = payload.getBytes(UTF8);
+        HttpURLConnection connection = (HttpURLConnection) new URL(moduleBaseUrl 
+                + "springGwtServices/sleepService").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        connection.setRequestProperty("Content-Type", "text/x-gwt-rpc; charset=utf-8");
+        connection.setRequestProperty("X-GWT-Permutation", PERMUTATION);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        Response response = new Response();
+        response.status = connection.getResponseCode();
+        InputStream stream = response.status == HttpURLConnection.HTTP_OK 
+                ? connection.getInputStream() : connection.getErrorStream();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        if (stream != null) {
+            try (InputStream in = stream) {
+                byte[] buffer = new byte[8 * 1024];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    bytes.write(buffer, 0, read);
+                }
+            }
+        }
+        response.body = new String(bytes.toByteArray(), UTF8);
+        return response;
+    }
+    
+    private static class Response {
+        int status;
+        String body;
+    }
+
+}
@@ -40,11 +40,17 @@ public class AlertField extends FormField {
     public void setValue(String value) {
         if ((this.value == null && value != null) || 
             (this.value != null && !this.value.equals(value))) {
+                Object oldValue = this.value;
                 this.value = value;
-                fireValueChanged(this.value);
+                fireValueChanged(oldValue, this.value);
         }
         fireChanged();
     }
+    
+    @Override
+    protected void restoreValue(Object value) {
+        setValue((String)value);
+    }
 
     @Override
     public String getDisplayString() {
@@ -79,18 +85,18 @@ public class AlertField extends FormField {
     }
 
     @Override
-    public int hashCode() {
+    protected int computeContentHash() {
         final int prime = 31;
-        int result = super.hashCode();
+        int result = super.computeContentHash();
         result = prime * result + ((value == null) ? 0 : value.hashCode());
         return result;
     }
 
     @Override
-    public boolean equals(Object obj) {
+    public boolean contentEquals(Object obj) {
         if (this == obj)
             return true;
-        if (!super.equals(obj))
+        if (!super.contentEquals(obj))
             return false;
         if (getClass() != obj.getClass())
             return false;
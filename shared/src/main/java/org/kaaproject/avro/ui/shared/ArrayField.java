@@ -17,7 +17,6 @@
 package org.kaaproject.avro.ui.shared;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 public class ArrayField extends FormField {
@@ -69,6 +68,7 @@ public class ArrayField extends FormField {
     
     public void setMinRowCount(int minRowCount) {
         this.minRowCount = minRowCount;
+        invalidateContentHash();
         if (minRowCount == 0) {
         	setOptional(true);
         }
@@ -80,9 +80,15 @@ public class ArrayField extends FormField {
     	return row;
     }
     
+    public void clearRows() {
+        value.clear();
+        invalidateContentHash();
+    }
+    
     public void removeRow(int index) {
         if (index > -1 && index < value.size()) {
             FormField field = value.remove(index);
+            invalidateContentHash();
             if (field != null) {
                 field.dispose();
             }
@@ -150,7 +156,7 @@ public class ArrayField extends FormField {
     }
     
     @Override
-    public boolean isValid() {
+    protected boolean computeValid() {
         if (isOverride() && !isChanged()) {
             return true;
         } else if (isOptional()) {
@@ -188,29 +194,34 @@ public class ArrayField extends FormField {
     }
     
     @Override
-    public Iterator<FormField> iterator() {
-        return FormFieldIterator.concatItemWithCollection(this, value).iterator();
+    protected int getChildCount() {
+        return value != null ? value.size() : 0;
+    }
+    
+    @Override
+    protected FormField getChild(int index) {
+        return value.get(index);
     }
 
     @Override
-    public int hashCode() {
+    protected int computeContentHash() {
         final int prime = 31;
-        int result = super.hashCode();
+        int result = super.computeContentHash();
         result = prime * result
-                + ((elementMetadata == null) ? 0 : elementMetadata.hashCode());
+                + ((elementMetadata == null) ? 0 : elementMetadata.contentHashCode());
         result = prime * result + minRowCount;
         result = prime
                 * result
                 + ((overrideStrategy == null) ? 0 : overrideStrategy.hashCode());
-        result = prime * result + ((value == null) ? 0 : value.hashCode());
+        result = prime * result + fieldsContentHashCode(value);
         return result;
     }
 
     @Override
-    public boolean equals(Object obj) {
+    public boolean contentEquals(Object obj) {
         if (this == obj)
             return true;
-        if (!super.equals(obj))
+        if (!super.contentEquals(obj))
             return false;
         if (getClass() != obj.getClass())
             return false;
@@ -218,16 +229,13 @@ public class ArrayField extends FormField {
         if (elementMetadata == null) {
             if (other.elementMetadata != null)
                 return false;
-        } else if (!elementMetadata.equals(other.elementMetadata))
+        } else if (!elementMetadata.contentEquals(other.elementMetadata))
             return false;
         if (minRowCount != other.minRowCount)
             return false;
         if (overrideStrategy != other.overrideStrategy)
             return false;
-        if (value == null) {
-            if (other.value != null)
-                return false;
-        } else if (!value.equals(other.value))
+        if (!fieldsContentEquals(value, other.value))
             return false;
         return true;
     }
@@ -44,6 +44,7 @@ public class BytesField extends FormField {
     
     public void setBytes(byte[] data) {
         this.value = Base64Utils.toBase64(data);
+        invalidateContentHash();
     }
     
     public String getDefaultValue() {
@@ -59,10 +60,20 @@ public class BytesField extends FormField {
     }
  
     public void setValue(String value) {
-        this.value = value;
+        if ((this.value == null && value != null) || 
+            (this.value != null && !this.value.equals(value))) {
+                Object oldValue = this.value;
+                this.value = value;
+                fireValueChanged(oldValue, this.value);
+        }
         fireChanged();
     }
     
+    @Override
+    protected void restoreValue(Object value) {
+        setValue((String)value);
+    }
+    
     @Override
     public String getDisplayString() {
         return super.getDisplayString() + ": " + valueToDisplayString(value);
@@ -102,9 +113,9 @@ public class BytesField extends FormField {
     }
 
     @Override
-    public int hashCode() {
+    protected int computeContentHash() {
         final int prime = 31;
-        int result = super.hashCode();
+        int result = super.computeContentHash();
         result = prime * result
                 + ((defaultValue == null) ? 0 : defaultValue.hashCode());
         result = prime * result + ((value == null) ? 0 : value.hashCode());
@@ -112,10 +123,10 @@ public class BytesField extends FormField {
     }
 
     @Override
-    public boolean equals(Object obj) {
+    public boolean contentEquals(Object obj) {
         if (this == obj)
             return true;
-        if (!super.equals(obj))
+        if (!super.contentEquals(obj))
             return false;
         if (getClass() != obj.getClass())
             return false;
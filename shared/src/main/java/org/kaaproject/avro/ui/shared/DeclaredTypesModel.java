@@ -0,0 +1,219 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kaaproject.avro.ui.shared;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DeclaredTypesModel {
+    
+    private static final int MAX_DELTAS = 256;
+    
+    private final List<FqnKey> sortedKeys = new ArrayList<>();
+    private final Map<FqnKey, Fqn> types = new HashMap<>();
+    private final Map<String, FqnKey> valueToKeyMap = new HashMap<>();
+    private final List<Delta> deltas = new ArrayList<>();
+    private int firstDeltaVersion = 0;
+    private int version = 0;
+    
+    public DeclaredTypesModel(Map<FqnKey, Fqn> declaredTypes) {
+        for (Map.Entry<FqnKey, Fqn> entry : declaredTypes.entrySet()) {
+            types.put(entry.getKey(), entry.getValue());
+            valueToKeyMap.put(toValue(entry.getKey()), entry.getKey());
+            sortedKeys.add(entry.getKey());
+        }
+        Collections.sort(sortedKeys, new Comparator<FqnKey>() {
+            @Override
+            public int compare(FqnKey o1, FqnKey o2) {
+                return DeclaredTypesModel.this.compare(o1, types.get(o1), o2, types.get(o2));
+            }
+        });
+    }
+    
+    public int getVersion() {
+        return version;
+    }
+    
+    public int size() {
+        return sortedKeys.size();
+    }
+    
+    public List<FqnKey> getSortedKeys() {
+        return Collections.unmodifiableList(sortedKeys);
+    }
+    
+    public Fqn getFqn(FqnKey key) {
+        return types.get(key);
+    }
+    
+    public boolean contains(FqnKey key) {
+        return types.containsKey(key);
+    }
+    
+    public FqnKey getKey(String value) {
+        return valueToKeyMap.get(value);
+    }
+    
+    public List<Delta> getDeltasSince(int sinceVersion) {
+        if (sinceVersion < firstDeltaVersion) {
+            return null;
+        }
+        return Collections.unmodifiableList(deltas.subList(sinceVersion - firstDeltaVersion, deltas.size()));
+    }
+    
+    public static String toValue(FqnKey key) {
+        return String.valueOf(key.hashCode());
+    }
+    
+    void put(FqnKey key, Fqn fqn) {
+        boolean exists = types.containsKey(key);
+        Fqn oldFqn = types.get(key);
+        if (exists && (fqn == oldFqn || fqn != null && fqn.equals(oldFqn))) {
+            return;
+        }
+        int oldIndex = -1;
+        if (exists) {
+            oldIndex = indexOf(key, oldFqn);
+            sortedKeys.remove(oldIndex);
+        }
+        types.put(key, fqn);
+        valueToKeyMap.put(toValue(key), key);
+        int index = insertionIndex(key, fqn);
+        sortedKeys.add(index, key);
+        addDelta(new Delta(exists ? DeltaType.RENAME : DeltaType.ADD, key, fqn, oldIndex, index));
+    }
+    
+    void remove(FqnKey key) {
+        if (!types.containsKey(key)) {
+            return;
+        }
+        Fqn fqn = types.remove(key);
+        valueToKeyMap.remove(toValue(key));
+        int oldIndex = indexOf(key, fqn);
+        sortedKeys.remove(oldIndex);
+        addDelta(new Delta(DeltaType.REMOVE, key, fqn, oldIndex, -1));
+    }
+    
+    private void addDelta(Delta delta) {
+        deltas.add(delta);
+        version++;
+        if (deltas.size() > MAX_DELTAS) {
+            int dropCount = deltas.size() - MAX_DELTAS / 2;
+            deltas.subList(0, dropCount).clear();
+            firstDeltaVersion += dropCount;
+        }
+    }
+    
+    private int insertionIndex(FqnKey key, Fqn fqn) {
+        int low = 0;
+        int high = sortedKeys.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            FqnKey midKey = sortedKeys.get(mid);
+            if (compare(midKey, types.get(midKey), key, fqn) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    private int indexOf(FqnKey key, Fqn fqn) {
+        int low = 0;
+        int high = sortedKeys.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            FqnKey midKey = sortedKeys.get(mid);
+            if (compare(midKey, types.get(midKey), key, fqn) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i=low;i<sortedKeys.size();i++) {
+            if (sortedKeys.get(i).equals(key)) {
+                return i;
+            }
+        }
+        return sortedKeys.indexOf(key);
+    }
+    
+    private int compare(FqnKey key1, Fqn fqn1, FqnKey key2, Fqn fqn2) {
+        int result;
+        if (fqn1 == null || fqn2 == null) {
+            result = fqn1 == fqn2 ? 0 : (fqn1 == null ? -1 : 1);
+        } else {
+            result = fqn1.compareTo(fqn2);
+        }
+        if (result == 0) {
+            int hash1 = key1.hashCode();
+            int hash2 = key2.hashCode();
+            result = hash1 < hash2 ? -1 : (hash1 == hash2 ? 0 : 1);
+        }
+        return result;
+    }
+    
+    public static enum DeltaType {
+        ADD,
+        REMOVE,
+        RENAME
+    }
+    
+    public static class Delta {
+        
+        private final DeltaType type;
+        private final FqnKey key;
+        private final Fqn fqn;
+        private final int oldIndex;
+        private final int newIndex;
+        
+        Delta(DeltaType type, FqnKey key, Fqn fqn, int oldIndex, int newIndex) {
+            this.type = type;
+            this.key = key;
+            this.fqn = fqn;
+            this.oldIndex = oldIndex;
+            this.newIndex = newIndex;
+        }
+
+        public DeltaType getType() {
+            return type;
+        }
+
+        public FqnKey getKey() {
+            return key;
+        }
+
+        public Fqn getFqn() {
+            return fqn;
+        }
+
+        public int getOldIndex() {
+            return oldIndex;
+        }
+
+        public int getNewIndex() {
+            return newIndex;
+        }
+    }
+
+}
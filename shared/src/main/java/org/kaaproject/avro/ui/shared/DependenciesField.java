@@ -79,10 +79,10 @@ public class DependenciesField extends FormField {
     }
 
     @Override
-    public boolean equals(Object obj) {
+    public boolean contentEquals(Object obj) {
         if (this == obj)
             return true;
-        if (!super.equals(obj))
+        if (!super.contentEquals(obj))
             return false;
         if (getClass() != obj.getClass())
             return false;
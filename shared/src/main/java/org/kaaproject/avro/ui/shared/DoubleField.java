@@ -50,10 +50,20 @@ public class DoubleField extends FormField {
     }
 
     public void setValue(Double value) {
-        this.value = value;
+        if ((this.value == null && value != null) || 
+            (this.value != null && !this.value.equals(value))) {
+                Object oldValue = this.value;
+                this.value = value;
+                fireValueChanged(oldValue, this.value);
+        }
         fireChanged();
     }
     
+    @Override
+    protected void restoreValue(Object value) {
+        setValue((Double)value);
+    }
+    
     @Override
     public String getDisplayString() {
         return super.getDisplayString() + ": " + valueToDisplayString(value);
@@ -88,9 +98,9 @@ public class DoubleField extends FormField {
     }
 
     @Override
-    public int hashCode() {
+    protected int computeContentHash() {
         final int prime = 31;
-        int result = super.hashCode();
+        int result = super.computeContentHash();
         result = prime * result
                 + ((defaultValue == null) ? 0 : defaultValue.hashCode());
         result = prime * result + ((value == null) ? 0 : value.hashCode());
@@ -98,10 +108,10 @@ public class DoubleField extends FormField {
     }
 
     @Override
-    public boolean equals(Object obj) {
+    public boolean contentEquals(Object obj) {
         if (this == obj)
             return true;
-        if (!super.equals(obj))
+        if (!super.contentEquals(obj))
             return false;
         if (getClass() != obj.getClass())
             return false;
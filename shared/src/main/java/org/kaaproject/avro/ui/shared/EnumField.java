@@ -17,7 +17,9 @@
 package org.kaaproject.avro.ui.shared;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class EnumField extends FqnField {
 
@@ -29,6 +31,10 @@ public class EnumField extends FqnField {
     
     private List<FormEnum> enumValues;
     
+    private transient Map<String, Integer> symbolIndexes;
+    private transient List<FormEnum> indexedEnumValues;
+    private transient EnumSymbolIndex enumSymbolIndex;
+    
     public EnumField() {
         super();
         enumValues = new ArrayList<>();
@@ -55,9 +61,19 @@ public class EnumField extends FqnField {
     }
 
     public void setValue(FormEnum value) {
-        this.value = value;
+        if ((this.value == null && value != null) || 
+            (this.value != null && !this.value.equals(value))) {
+                Object oldValue = this.value;
+                this.value = value;
+                fireValueChanged(oldValue, this.value);
+        }
         fireChanged();
     }
+    
+    @Override
+    protected void restoreValue(Object value) {
+        setValue((FormEnum)value);
+    }
 
     public List<FormEnum> getEnumValues() {
         return enumValues;
@@ -65,6 +81,64 @@ public class EnumField extends FqnField {
     
     public void setEnumValues(List<FormEnum> enumValues) {
         this.enumValues = enumValues;
+        symbolIndexes = null;
+        indexedEnumValues = null;
+        enumSymbolIndex = null;
+        invalidateContentHash();
+    }
+    
+    public int getEnumValueIndex(String enumSymbol) {
+        if (enumValues == null || enumSymbol == null) {
+            return -1;
+        }
+        boolean rebuilt = false;
+        if (symbolIndexes == null || indexedEnumValues != enumValues) {
+            buildSymbolIndexes();
+            rebuilt = true;
+        }
+        int index = lookupSymbolIndex(enumSymbol);
+        if (index < 0 && !rebuilt) {
+            // The list may have been changed in place since it was indexed
+            buildSymbolIndexes();
+            index = lookupSymbolIndex(enumSymbol);
+        }
+        return index;
+    }
+    
+    private void buildSymbolIndexes() {
+        symbolIndexes = new HashMap<>();
+        for (int i=0;i<enumValues.size();i++) {
+            String symbol = enumValues.get(i).getEnumSymbol();
+            if (!symbolIndexes.containsKey(symbol)) {
+                symbolIndexes.put(symbol, i);
+            }
+        }
+        indexedEnumValues = enumValues;
+    }
+    
+    private int lookupSymbolIndex(String enumSymbol) {
+        Integer index = symbolIndexes.get(enumSymbol);
+        if (index != null && index < enumValues.size() 
+                && enumSymbol.equals(enumValues.get(index).getEnumSymbol())) {
+            return index;
+        }
+        return -1;
+    }
+    
+    public boolean containsEnumSymbol(String enumSymbol) {
+        return getEnumValueIndex(enumSymbol) > -1;
+    }
+    
+    public EnumSymbolIndex getEnumSymbolIndex() {
+        if (enumSymbolIndex == null || !enumSymbolIndex.matches(enumValues)) {
+            List<FormEnum> values = enumValues != null ? enumValues : new ArrayList<FormEnum>();
+            if (context != null && fqn != null) {
+                enumSymbolIndex = context.getEnumSymbolIndex(fqn, values);
+            } else {
+                enumSymbolIndex = new EnumSymbolIndex(values);
+            }
+        }
+        return enumSymbolIndex;
     }
     
     public void setValueFromSymbol(String enumSymbol) {
@@ -77,12 +151,9 @@ public class EnumField extends FqnField {
     
     private FormEnum fromEnumSymbol(String enumSymbol) {
         if (!strIsEmpty(enumSymbol)) {
-            if (this.enumValues != null) {
-                for (FormEnum existingEnumValue : this.enumValues) {
-                    if (existingEnumValue.getEnumSymbol().equals(enumSymbol)) {
-                        return existingEnumValue;
-                    }
-                }
+            int index = getEnumValueIndex(enumSymbol);
+            if (index > -1) {
+                return enumValues.get(index);
             }
             return new FormEnum(enumSymbol, enumSymbol);
         }
@@ -124,9 +195,9 @@ public class EnumField extends FqnField {
     }
 
     @Override
-    public int hashCode() {
+    protected int computeContentHash() {
         final int prime = 31;
-        int result = super.hashCode();
+        int result = super.computeContentHash();
         result = prime * result
                 + ((defaultValue == null) ? 0 : defaultValue.hashCode());
         result = prime * result
@@ -136,10 +207,10 @@ public class EnumField extends FqnField {
     }
 
     @Override
-    public boolean equals(Object obj) {
+    public boolean contentEquals(Object obj) {
         if (this == obj)
             return true;
-        if (!super.equals(obj))
+        if (!super.contentEquals(obj))
             return false;
         if (getClass() != obj.getClass())
             return false;
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.avro.ui.shared;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+public class EnumSymbolIndex {
+    
+    private final List<FormEnum> enumValues;
+    private final String[] keys;
+    private final int[] positions;
+    
+    public EnumSymbolIndex(List<FormEnum> enumValues) {
+        this.enumValues = new ArrayList<>(enumValues);
+        final List<String> keyList = new ArrayList<>();
+        List<Integer> positionList = new ArrayList<>();
+        for (int i=0;i<this.enumValues.size();i++) {
+            FormEnum enumValue = this.enumValues.get(i);
+            String displayValue = toKey(enumValue.getDisplayValue());
+            String symbol = toKey(enumValue.getEnumSymbol());
+            addWordKeys(displayValue, i, keyList, positionList);
+            if (!symbol.equals(displayValue)) {
+                addWordKeys(symbol, i, keyList, positionList);
+            }
+        }
+        List<Integer> order = new ArrayList<>(keyList.size());
+        for (int i=0;i<keyList.size();i++) {
+            order.add(i);
+        }
+        Collections.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return keyList.get(o1).compareTo(keyList.get(o2));
+            }
+        });
+        keys = new String[order.size()];
+        positions = new int[order.size()];
+        for (int i=0;i<order.size();i++) {
+            keys[i] = keyList.get(order.get(i));
+            positions[i] = positionList.get(order.get(i));
+        }
+    }
+    
+    public List<FormEnum> getEnumValues() {
+        return Collections.unmodifiableList(enumValues);
+    }
+    
+    public int size() {
+        return enumValues.size();
+    }
+    
+    public boolean matches(List<FormEnum> values) {
+        return enumValues.equals(values);
+    }
+    
+    public List<FormEnum> search(String query, int limit) {
+        List<FormEnum> result = new ArrayList<>();
+        String prefix = toKey(query).trim();
+        if (prefix.isEmpty()) {
+            for (int i=0;i<enumValues.size() && result.size() < limit;i++) {
+                result.add(enumValues.get(i));
+            }
+            return result;
+        }
+        boolean[] found = new boolean[enumValues.size()];
+        for (int i=lowerBound(prefix);i<keys.length && result.size() < limit;i++) {
+            if (!keys[i].startsWith(prefix)) {
+                break;
+            }
+            if (!found[positions[i]]) {
+                found[positions[i]] = true;
+                result.add(enumValues.get(positions[i]));
+            }
+        }
+        return result;
+    }
+    
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    private static void addWordKeys(String key, int position, List<String> keyList, List<Integer> positionList) {
+        for (int i=0;i<key.length();i++) {
+            if (i == 0 || (!Character.isLetterOrDigit(key.charAt(i-1)) 
+                    && Character.isLetterOrDigit(key.charAt(i)))) {
+                keyList.add(key.substring(i));
+                positionList.add(position);
+            }
+        }
+    }
+    
+    private static String toKey(String value) {
+        return value != null ? value.toLowerCase() : "";
+    }
+
+}
@@ -46,6 +46,7 @@ public class FixedField extends FqnField {
     
     public void setBytes(byte[] data) {
         this.value = Base64Utils.toBase64(data);
+        invalidateContentHash();
     }
     
     public String getDefaultValue() {
@@ -61,16 +62,27 @@ public class FixedField extends FqnField {
     }
  
     public void setValue(String value) {
-        this.value = value;
+        if ((this.value == null && value != null) || 
+            (this.value != null && !this.value.equals(value))) {
+                Object oldValue = this.value;
+                this.value = value;
+                fireValueChanged(oldValue, this.value);
+        }
         fireChanged();
     }
     
+    @Override
+    protected void restoreValue(Object value) {
+        setValue((String)value);
+    }
+    
     public int getFixedSize() {
         return fixedSize;
     }
 
     public void setFixedSize(int fixedSize) {
         this.fixedSize = fixedSize;
+        invalidateContentHash();
     }
     
     public int getStringMaxSize() {
@@ -93,7 +105,7 @@ public class FixedField extends FqnField {
     }
     
     @Override
-    public boolean isValid() {
+    protected boolean computeValid() {
         if ((isOptional() && isNull()) || 
         		((isOverride() && !isChanged()))) {
             return true;
@@ -127,9 +139,9 @@ public class FixedField extends FqnField {
     }
 
     @Override
-    public int hashCode() {
+    protected int computeContentHash() {
         final int prime = 31;
-        int result = super.hashCode();
+        int result = super.computeContentHash();
         result = prime * result
                 + ((defaultValue == null) ? 0 : defaultValue.hashCode());
         result = prime * result + fixedSize;
@@ -138,10 +150,10 @@ public class FixedField extends FqnField {
     }
 
     @Override
-    public boolean equals(Object obj) {
+    public boolean contentEquals(Object obj) {
         if (this == obj)
             return true;
-        if (!super.equals(obj))
+        if (!super.contentEquals(obj))
             return false;
         if (getClass() != obj.getClass())
             return false;
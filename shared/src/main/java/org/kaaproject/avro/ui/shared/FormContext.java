@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -38,6 +39,8 @@ public class FormContext implements Serializable {
     private Map<Fqn, FqnKey> fqnToKeyMap = new HashMap<>();    
     private Map<Integer, RecordField> typeHolders = new HashMap<>();
     private Map<Integer, RecordField> typeConsumers = new HashMap<>();    
+    private Map<Integer, Set<Integer>> holderConsumers = new HashMap<>();
+    private Map<Integer, Integer> consumerHolders = new HashMap<>();
     private Map<Fqn, List<Integer>> ctlTypes = new HashMap<>();
     private Map<Fqn, FqnVersion> ctlDependencies = new HashMap<>();
     private List<FqnVersion> ctlDependenciesList = new ArrayList<>();
@@ -48,6 +51,23 @@ public class FormContext implements Serializable {
     
     private transient List<CtlDependenciesListener> ctlDependenciesListeners = new ArrayList<>();
     
+    private transient FqnPool fqnPool;
+    
+    private transient DeclaredTypesModel declaredTypesModel;
+    
+    private transient Map<String, EnumSymbolIndex> enumSymbolIndexes;
+    
+    private transient int validationEpoch = 0;
+    
+    private transient FormHistory history;
+    
+    private transient int batchDepth = 0;
+    private transient Map<Integer, FormField> batchChangedFields;
+    private transient Map<Integer, FormField> batchValueChangedFields;
+    private transient Map<Integer, Object> batchFieldValues;
+    private transient boolean batchDeclaredTypesChanged;
+    private transient boolean batchCtlDependenciesChanged;
+    
     public FormContext() {
     }
     
@@ -58,8 +78,8 @@ public class FormContext implements Serializable {
         }
         this.isCtlSchema = true;
         for (Fqn fqn : this.ctlTypes.keySet()) {
-            FqnKey key = new FqnKey(fqn);
-            declaredTypes.put(key, fqn);
+            FqnKey key = getFqnPool().getKey(fqn);
+            putDeclaredType(key, key.getFqn());
             fqnToKeyMap.put(fqn, key);
         }
     }
@@ -67,9 +87,95 @@ public class FormContext implements Serializable {
     protected int nextFieldId() {
         return idSequence++;
     }
+    
+    public FqnPool getFqnPool() {
+        if (fqnPool == null) {
+            fqnPool = new FqnPool();
+        }
+        return fqnPool;
+    }
+    
+    public void beginBatch() {
+        if (batchDepth++ == 0) {
+            batchChangedFields = new LinkedHashMap<>();
+            batchValueChangedFields = new LinkedHashMap<>();
+            batchFieldValues = new HashMap<>();
+            batchDeclaredTypesChanged = false;
+            batchCtlDependenciesChanged = false;
+            if (history != null) {
+                history.beginBatch();
+            }
+        }
+    }
+    
+    public void commitBatch() {
+        if (batchDepth == 0) {
+            throw new IllegalStateException("No batch in progress!");
+        }
+        if (--batchDepth == 0) {
+            Map<Integer, FormField> changedFields = batchChangedFields;
+            Map<Integer, FormField> valueChangedFields = batchValueChangedFields;
+            Map<Integer, Object> fieldValues = batchFieldValues;
+            boolean declaredTypesChanged = batchDeclaredTypesChanged;
+            boolean ctlDependenciesChanged = batchCtlDependenciesChanged;
+            batchChangedFields = null;
+            batchValueChangedFields = null;
+            batchFieldValues = null;
+            if (history != null) {
+                history.commitBatch();
+            }
+            
+            if (ctlDependenciesChanged) {
+                updateCtlDependencies();
+            }
+            if (declaredTypesChanged) {
+                fireDeclaredTypesChanged();
+            }
+            for (FormField field : valueChangedFields.values()) {
+                field.notifyTransientValueChangeListeners(fieldValues.get(field.getId()));
+            }
+            for (FormField field : changedFields.values()) {
+                field.notifyChangeListeners();
+            }
+        }
+    }
+    
+    public boolean isBatchInProgress() {
+        return batchDepth > 0;
+    }
+    
+    boolean deferChanged(FormField field) {
+        if (batchDepth > 0) {
+            batchChangedFields.put(field.getId(), field);
+            return true;
+        }
+        return false;
+    }
+    
+    public FormHistory getHistory() {
+        if (history == null) {
+            history = new FormHistory(this);
+        }
+        return history;
+    }
+    
+    void recordValueChange(FormField field, Object oldValue, Object newValue) {
+        if (history != null) {
+            history.record(field, oldValue, newValue);
+        }
+    }
+    
+    boolean deferValueChanged(FormField field, Object value) {
+        if (batchDepth > 0) {
+            batchValueChangedFields.put(field.getId(), field);
+            batchFieldValues.put(field.getId(), value);
+            return true;
+        }
+        return false;
+    }
 
     public void putRecordMetadata(String namespace, String name, RecordField field) {
-        putRecordMetadata(new Fqn(namespace, name), field);
+        putRecordMetadata(getFqnPool().getFqn(namespace, name), field);
     }
     
     public void putRecordMetadata(Fqn fqn, RecordField field) {
@@ -77,7 +183,7 @@ public class FormContext implements Serializable {
     }
     
     public boolean containsRecordMetadata(String namespace, String name) {
-        return containsRecordMetadata(new Fqn(namespace, name));
+        return containsRecordMetadata(getFqnPool().getFqn(namespace, name));
     }
     
     public boolean containsRecordMetadata(Fqn fqn) {
@@ -85,7 +191,7 @@ public class FormContext implements Serializable {
     }
     
     public RecordField getRecordMetadata(String namespace, String name) {
-        return getRecordMetadata(new Fqn(namespace, name));
+        return getRecordMetadata(getFqnPool().getFqn(namespace, name));
     }
     
     public RecordField getRecordMetadata(Fqn fqn) {
@@ -107,17 +213,17 @@ public class FormContext implements Serializable {
     private FqnKey overridenCtlKey = null;
     
     public void updateTypeHolder(RecordField typeHolder) {
-        FqnKey key = new FqnKey(typeHolder.getId());
+        FqnKey key = getFqnPool().getLocalKey(typeHolder.getId());
         Fqn fqn = typeHolder.getDeclaredFqn();
         
         Map<FqnKey, List<RecordField>> affectedConsumers = new HashMap<>();
         
         if (isCtlSchema && typeHolder.isRoot()) {
             if (overridenCtlKey != null && !overridenCtlKey.getFqn().equals(fqn)) {
-                declaredTypes.put(overridenCtlKey, overridenCtlKey.getFqn());
+                putDeclaredType(overridenCtlKey, overridenCtlKey.getFqn());
                 fqnToKeyMap.put(overridenCtlKey.getFqn(), overridenCtlKey);
                 List<RecordField> matchedConsumers = new ArrayList<>(); 
-                for (RecordField consumer : typeConsumers.values()) {
+                for (RecordField consumer : getTypeConsumers(typeHolder.getId())) {
                     if (key.equals(consumer.getConsumedFqnKey())) {
                         matchedConsumers.add(consumer);
                     }
@@ -126,8 +232,8 @@ public class FormContext implements Serializable {
                 overridenCtlKey = null;
             }
             if (ctlTypes.containsKey(fqn)) {
-                overridenCtlKey = new FqnKey(fqn);
-                declaredTypes.remove(overridenCtlKey);                
+                overridenCtlKey = getFqnPool().getKey(fqn);
+                removeDeclaredType(overridenCtlKey);                
                 fqnToKeyMap.remove(fqn);
                 List<RecordField> matchedConsumers = new ArrayList<>(); 
                 for (RecordField consumer : typeConsumers.values()) {
@@ -139,7 +245,7 @@ public class FormContext implements Serializable {
             }
         }
         typeHolders.put(typeHolder.getId(), typeHolder);
-        Fqn oldFqn = declaredTypes.put(key, fqn);
+        Fqn oldFqn = putDeclaredType(key, fqn);
         if (oldFqn != null) {
             fqnToKeyMap.remove(oldFqn);
         }
@@ -208,24 +314,85 @@ public class FormContext implements Serializable {
         return rootParent.getId() == rootRecord.getId();
     }
     
-    private List<RecordField> getAttachedTypeConsumers() {
-        List<RecordField> attachedTypeConsumers = new ArrayList<>();
-        for (RecordField typeConsumer : typeConsumers.values()) {
-            if (isAttachedToRoot(typeConsumer)) {
-                attachedTypeConsumers.add(typeConsumer);
+    private List<FormField> getPathFromRoot(FormField formField) {
+        List<FormField> path = new ArrayList<>();
+        FormField parent = formField;
+        while (parent != null) {
+            path.add(parent);
+            parent = parent.getParentField();
+        }
+        Collections.reverse(path);
+        return path;
+    }
+    
+    private boolean precedes(FormField first, FormField second) {
+        List<FormField> firstPath = getPathFromRoot(first);
+        List<FormField> secondPath = getPathFromRoot(second);
+        int depth = 0;
+        while (depth < firstPath.size() && depth < secondPath.size() 
+                && firstPath.get(depth) == secondPath.get(depth)) {
+            depth++;
+        }
+        if (depth == firstPath.size()) {
+            return true;
+        } else if (depth == secondPath.size() || depth == 0) {
+            return false;
+        }
+        FormField parent = firstPath.get(depth-1);
+        FormField firstChild = firstPath.get(depth);
+        FormField secondChild = secondPath.get(depth);
+        for (int i=0;i<parent.getChildCount();i++) {
+            FormField child = parent.getChild(i);
+            if (child == firstChild) {
+                return true;
+            } else if (child == secondChild) {
+                return false;
             }
         }
-        return attachedTypeConsumers; 
+        return false;
     }
     
-    private Map<FqnKey, RecordField> getDetachedTypeHolders() {
-        Map<FqnKey, RecordField> detachedTypeHolders = new HashMap<>();
-        for (RecordField typeHolder : typeHolders.values()) {
-            if (!isAttachedToRoot(typeHolder)) {
-                detachedTypeHolders.put(new FqnKey(typeHolder.getId()), typeHolder);
+    private List<RecordField> getTypeConsumers(Integer holderId) {
+        List<RecordField> consumers = new ArrayList<>();
+        Set<Integer> consumerIds = holderConsumers.get(holderId);
+        if (consumerIds != null) {
+            for (Integer consumerId : consumerIds) {
+                RecordField consumer = typeConsumers.get(consumerId);
+                if (consumer != null) {
+                    consumers.add(consumer);
+                }
             }
         }
-        return detachedTypeHolders;
+        return consumers;
+    }
+    
+    private RecordField getConsumedTypeHolder(RecordField typeConsumer) {
+        FqnKey key = typeConsumer.getConsumedFqnKey();
+        if (key != null && key.isLocalFqn()) {
+            return typeHolders.get(key.getId());
+        }
+        return null;
+    }
+    
+    private static void collectTypeFields(FormField root, 
+            final List<RecordField> holders, final List<RecordField> consumers) {
+        root.accept(new FormFieldVisitor() {
+            @Override
+            public VisitResult visit(FormField field) {
+                RecordField recordField = (RecordField)field;
+                if (recordField.isTypeHolder()) {
+                    if (holders != null) {
+                        holders.add(recordField);
+                    }
+                } else if (recordField.isTypeConsumer()) {
+                    if (consumers != null) {
+                        consumers.add(recordField);
+                    }
+                    return VisitResult.SKIP_CHILDREN;
+                }
+                return VisitResult.CONTINUE;
+            }
+        }, FieldType.RECORD);
     }
     
     public boolean removeTypeHolder(RecordField typeHolder) {
@@ -240,37 +407,27 @@ public class FormContext implements Serializable {
             parent.setParentField(null);
         }
         
-        boolean foundDetachedReference = false;
+        List<RecordField> detachedTypeHolders = new ArrayList<>();
+        collectTypeFields(typeHolder, detachedTypeHolders, null);
         
-        do {
-            foundDetachedReference = false;
-            List<RecordField> attachedTypeConsumers = getAttachedTypeConsumers();
-            Map<FqnKey, RecordField> detachedTypeHolders = getDetachedTypeHolders();
-            for (RecordField attachedTypeConsumer : attachedTypeConsumers) {
-                FqnKey fqnKey = attachedTypeConsumer.getConsumedFqnKey();
-                if (fqnKey != null) {
-                    RecordField detachedTypeHolder = detachedTypeHolders.get(fqnKey);
-                    if (detachedTypeHolder != null) {
-                        foundDetachedReference = true;
-                        switchTypeReference(detachedTypeHolder, attachedTypeConsumer);
-                    }
-                }
-            }
-        } while (foundDetachedReference);
+        List<RecordField> affectedConsumers = new ArrayList<>();
+        for (RecordField detachedTypeHolder : detachedTypeHolders) {
+            affectedConsumers.addAll(getTypeConsumers(detachedTypeHolder.getId()));
+        }
+        orderTypeConsumers(affectedConsumers);
         
         boolean removed = false;
         
         if (typeHolder.getParentField() == null || typeHolder.getParentField().getParentField() == null) {
-            FqnKey key = new FqnKey(typeHolder.getId());
+            FqnKey key = getFqnPool().getLocalKey(typeHolder.getId());
             typeHolders.remove(typeHolder.getId());
-            Fqn fqn = declaredTypes.remove(key);
+            Fqn fqn = removeDeclaredType(key);
             if (fqn != null) {
                 fqnToKeyMap.remove(fqn);
             }
             fireDeclaredTypesChanged();
             removed = true;
         } 
-        orderSchemaTypes();
         return removed;
     }
     
@@ -286,49 +443,82 @@ public class FormContext implements Serializable {
     }
     
     public void orderSchemaTypes() {
-        boolean typesSwitched = false;
-        do {
-            Set<Integer> checkedTypeHolders = new HashSet<>();
-            checkedTypeHolders.addAll(typeHolders.keySet());
-            
-            Map<FqnKey, RecordField> consumers = new HashMap<>();
-            
-            for (FormField field : rootRecord) {
-                if (field instanceof RecordField) {
-                    RecordField recordField = (RecordField)field;
-                    if (recordField.isTypeHolder()) {
-                        checkedTypeHolders.remove(recordField.getId());
-                    } else if (recordField.isTypeConsumer()) {
-                        FqnKey key = recordField.getConsumedFqnKey();
-                        if (key != null && key.isLocalFqn()) {
-                            if (checkedTypeHolders.remove(key.getId())) {
-                                consumers.put(key, recordField);
-                            }
-                        }
-                    }
-                }
+        orderTypeConsumers(new ArrayList<RecordField>(typeConsumers.values()));
+    }
+    
+    public void orderTypeConsumer(RecordField typeConsumer) {
+        List<RecordField> consumers = new ArrayList<>();
+        consumers.add(typeConsumer);
+        orderTypeConsumers(consumers);
+    }
+    
+    private void orderTypeConsumers(List<RecordField> consumers) {
+        while (!consumers.isEmpty()) {
+            RecordField consumer = consumers.remove(consumers.size()-1);
+            if (!typeConsumers.containsKey(consumer.getId()) || !isAttachedToRoot(consumer)) {
+                continue;
             }
-            
-            typesSwitched = !consumers.isEmpty();
-            for (FqnKey key : consumers.keySet()) {
-                RecordField consumer = consumers.get(key);
-                RecordField holder = typeHolders.get(key.getId());
+            RecordField holder = getConsumedTypeHolder(consumer);
+            if (holder != null && (!isAttachedToRoot(holder) || precedes(consumer, holder))) {
                 switchTypeReference(holder, consumer);
+                collectTypeFields(holder, null, consumers);
             }
-        } while (typesSwitched);
+        }
     }
 
     public void registerTypeConsumer(RecordField consumer) {
         typeConsumers.put(consumer.getId(), consumer);
+        linkTypeConsumer(consumer);
         updateCtlDependencies();
     }
     
     public void unregisterTypeConsumer(Integer id) {
         typeConsumers.remove(id);
+        unlinkTypeConsumer(id);
         updateCtlDependencies();
     }
     
+    public void updateTypeConsumer(RecordField consumer) {
+        if (typeConsumers.containsKey(consumer.getId())) {
+            unlinkTypeConsumer(consumer.getId());
+            linkTypeConsumer(consumer);
+        }
+        if (isCtlSchema) {
+            updateCtlDependencies();
+        }
+    }
+    
+    private void linkTypeConsumer(RecordField consumer) {
+        FqnKey key = consumer.getConsumedFqnKey();
+        if (key != null && key.isLocalFqn()) {
+            Set<Integer> consumerIds = holderConsumers.get(key.getId());
+            if (consumerIds == null) {
+                consumerIds = new HashSet<>();
+                holderConsumers.put(key.getId(), consumerIds);
+            }
+            consumerIds.add(consumer.getId());
+            consumerHolders.put(consumer.getId(), key.getId());
+        }
+    }
+    
+    private void unlinkTypeConsumer(Integer id) {
+        Integer holderId = consumerHolders.remove(id);
+        if (holderId != null) {
+            Set<Integer> consumerIds = holderConsumers.get(holderId);
+            if (consumerIds != null) {
+                consumerIds.remove(id);
+                if (consumerIds.isEmpty()) {
+                    holderConsumers.remove(holderId);
+                }
+            }
+        }
+    }
+    
     public void updateCtlDependencies() {
+        if (batchDepth > 0) {
+            batchCtlDependenciesChanged = true;
+            return;
+        }
         Set<Fqn> consumedFqns = new HashSet<>();
         for (RecordField typeConsumer : typeConsumers.values()) {
             FqnKey key = typeConsumer.getConsumedFqnKey();
@@ -403,10 +593,57 @@ public class FormContext implements Serializable {
         return fqnToKeyMap.get(fqn);
     }
     
+    public FqnKey fqnToFqnKey(String fqnString) {
+        return fqnToKeyMap.get(getFqnPool().getFqn(fqnString));
+    }
+    
     public Map<FqnKey, Fqn> getDeclaredTypes() {
         return declaredTypes;
     }
     
+    public DeclaredTypesModel getDeclaredTypesModel() {
+        if (declaredTypesModel == null) {
+            declaredTypesModel = new DeclaredTypesModel(declaredTypes);
+        }
+        return declaredTypesModel;
+    }
+    
+    public EnumSymbolIndex getEnumSymbolIndex(Fqn fqn, List<FormEnum> enumValues) {
+        String fqnString = fqn != null ? fqn.getFqnString() : null;
+        if (fqnString == null) {
+            return new EnumSymbolIndex(enumValues);
+        }
+        if (enumSymbolIndexes == null) {
+            enumSymbolIndexes = new HashMap<>();
+        }
+        EnumSymbolIndex index = enumSymbolIndexes.get(fqnString);
+        if (index == null || !index.matches(enumValues)) {
+            index = new EnumSymbolIndex(enumValues);
+            enumSymbolIndexes.put(fqnString, index);
+        }
+        return index;
+    }
+    
+    public int getValidationEpoch() {
+        return validationEpoch;
+    }
+    
+    private Fqn putDeclaredType(FqnKey key, Fqn fqn) {
+        validationEpoch++;
+        if (declaredTypesModel != null) {
+            declaredTypesModel.put(key, fqn);
+        }
+        return declaredTypes.put(key, fqn);
+    }
+    
+    private Fqn removeDeclaredType(FqnKey key) {
+        validationEpoch++;
+        if (declaredTypesModel != null) {
+            declaredTypesModel.remove(key);
+        }
+        return declaredTypes.remove(key);
+    }
+    
     public boolean containsDeclaredType(FqnKey key) {
         return declaredTypes.containsKey(key);
     }
@@ -428,6 +665,10 @@ public class FormContext implements Serializable {
     }
     
     private void fireDeclaredTypesChanged() {
+        if (batchDepth > 0) {
+            batchDeclaredTypesChanged = true;
+            return;
+        }
         for (DeclaredTypesListener listener : declaredTypesListeners) {
             listener.onDeclaredTypesUpdated(declaredTypes);
         }
@@ -57,6 +57,17 @@ public abstract class FormField implements Serializable, Cloneable, Iterable<For
     
     private FormField parentField;
     
+    private transient int contentHash;
+    private transient boolean contentHashValid;
+    
+    private static final byte VALIDITY_UNKNOWN = 0;
+    private static final byte VALIDITY_VALID = 1;
+    private static final byte VALIDITY_INVALID = 2;
+    
+    private transient byte validity = VALIDITY_UNKNOWN;
+    private transient boolean validityDependsOnContext;
+    private transient int validityEpoch;
+    
     public FormField() {
     }
     
@@ -86,7 +97,13 @@ public abstract class FormField implements Serializable, Cloneable, Iterable<For
     }
     
     public void setParentField(FormField parentField) {
+        if (this.parentField != null) {
+            this.parentField.invalidateContentHash();
+        }
         this.parentField = parentField;
+        if (parentField != null) {
+            parentField.invalidateContentHash();
+        }
     }
     
     public String getFieldName() {
@@ -95,6 +112,7 @@ public abstract class FormField implements Serializable, Cloneable, Iterable<For
 
     public void setFieldName(String fieldName) {
         this.fieldName = fieldName;
+        invalidateContentHash();
     }
 
     public String getDisplayName() {
@@ -103,6 +121,7 @@ public abstract class FormField implements Serializable, Cloneable, Iterable<For
 
     public void setDisplayName(String displayName) {
         this.displayName = displayName;
+        invalidateContentHash();
     }
     
     public String getDisplayPrompt() {
@@ -111,6 +130,7 @@ public abstract class FormField implements Serializable, Cloneable, Iterable<For
 
     public void setDisplayPrompt(String displayPrompt) {
         this.displayPrompt = displayPrompt;
+        invalidateContentHash();
     }
 
     public String getSchema() {
@@ -127,10 +147,12 @@ public abstract class FormField implements Serializable, Cloneable, Iterable<For
 
     public void setOptional(boolean optional) {
         this.optional = optional;
+        invalidateContentHash();
     }
     
     public void setWeight(float weight) {
         this.weight = weight;
+        invalidateContentHash();
     }
     
     public float getWeight() {
@@ -143,6 +165,7 @@ public abstract class FormField implements Serializable, Cloneable, Iterable<For
 
     public void setKeyIndex(int keyIndex) {
         this.keyIndex = keyIndex;
+        invalidateContentHash();
     }
     
     public int getRowIndex() {
@@ -151,6 +174,7 @@ public abstract class FormField implements Serializable, Cloneable, Iterable<For
 
     public void setRowIndex(int rowIndex) {
         this.rowIndex = rowIndex;
+        invalidateContentHash();
     }
 
     public FieldAccess getFieldAccess() {
@@ -159,6 +183,7 @@ public abstract class FormField implements Serializable, Cloneable, Iterable<For
 
     public void setFieldAccess(FieldAccess fieldAccess) {
         this.fieldAccess = fieldAccess;
+        invalidateContentHash();
     }
     
     public boolean isReadOnly() {
@@ -171,6 +196,7 @@ public abstract class FormField implements Serializable, Cloneable, Iterable<For
 
     public void setOverride(boolean isOverride) {
         this.isOverride = isOverride;
+        invalidateContentHash();
     }
     
     public boolean isOverrideDisabled() {
@@ -191,6 +217,7 @@ public abstract class FormField implements Serializable, Cloneable, Iterable<For
     }
     
     protected void fireChanged() {
+        invalidateContentHash();
         setChanged(true, true);
     }
     
@@ -201,23 +228,43 @@ public abstract class FormField implements Serializable, Cloneable, Iterable<For
     public void setChanged(boolean changed, boolean fireChanged) {
         if (this.changed != changed) {
             this.changed = changed;
-            if (fireChanged) {
-                for (ChangeListener listener : changeListeners) {
-                    listener.onChanged(changed);
-                }
+            invalidateContentHash();
+            if (fireChanged && (context == null || !context.deferChanged(this))) {
+                notifyChangeListeners();
             }
         }
     }
     
+    void notifyChangeListeners() {
+        for (ChangeListener listener : changeListeners) {
+            listener.onChanged(changed);
+        }
+    }
+    
+    protected void fireValueChanged(Object oldValue, Object value) {
+        if (context != null) {
+            context.recordValueChange(this, oldValue, value);
+        }
+        fireValueChanged(value);
+    }
+    
+    protected void restoreValue(Object value) {}
+    
     protected void fireValueChanged(Object value) {
-        for (ValueChangeListener listener : transientValueChangeListeners) {
-            listener.onValueChanged(value);
+        if (context == null || !context.deferValueChanged(this, value)) {
+            notifyTransientValueChangeListeners(value);
         }
         for (ValueChangeListener listener : valueChangeListeners) {
             listener.onValueChanged(value);
         }
     }
     
+    void notifyTransientValueChangeListeners(Object value) {
+        for (ValueChangeListener listener : transientValueChangeListeners) {
+            listener.onValueChanged(value);
+        }
+    }
+    
     public void addChangeListener(ChangeListener listener) {
         changeListeners.add(listener);
     }
@@ -230,6 +277,12 @@ public abstract class FormField implements Serializable, Cloneable, Iterable<For
         transientValueChangeListeners.remove(listener);
     }
 
+    /**
+     * Registers a listener notified when the field value actually changes. 
+     * Setting an equal value does not notify listeners. Since form history was 
+     * introduced this holds for all value fields, including boolean, numeric,
+     * enum and bytes fields, which did not notify value change listeners before.
+     */
     public void addValueChangeListener(ValueChangeListener listener) {
         valueChangeListeners.add(listener);
     }
@@ -260,6 +313,23 @@ public abstract class FormField implements Serializable, Cloneable, Iterable<For
     }
     
     public boolean isValid() {
+        if (validity != VALIDITY_UNKNOWN && (!validityDependsOnContext || 
+                context == null || validityEpoch == context.getValidationEpoch())) {
+            return validity == VALIDITY_VALID;
+        }
+        boolean valid = computeValid();
+        boolean dependsOnContext = isValidityContextDependent();
+        for (int i=0;i<getChildCount() && !dependsOnContext;i++) {
+            FormField child = getChild(i);
+            dependsOnContext = child != null && child.validityDependsOnContext;
+        }
+        validityDependsOnContext = dependsOnContext;
+        validityEpoch = context != null ? context.getValidationEpoch() : 0;
+        validity = valid ? VALIDITY_VALID : VALIDITY_INVALID;
+        return valid;
+    }
+    
+    protected boolean computeValid() {
         if (optional || (isOverride && !changed)) {
             return true;
         } else {
@@ -267,13 +337,65 @@ public abstract class FormField implements Serializable, Cloneable, Iterable<For
         }
     }
     
+    protected boolean isValidityContextDependent() {
+        return false;
+    }
+    
     protected abstract boolean valid();
     
+    public List<FormField> getInvalidFields() {
+        List<FormField> invalidFields = new ArrayList<>();
+        collectInvalidFields(this, "", invalidFields, null);
+        return invalidFields;
+    }
+    
+    public List<String> getInvalidPaths() {
+        List<String> invalidPaths = new ArrayList<>();
+        collectInvalidFields(this, fieldName != null ? fieldName : "", null, invalidPaths);
+        return invalidPaths;
+    }
+    
+    private static void collectInvalidFields(FormField field, String path, 
+            List<FormField> invalidFields, List<String> invalidPaths) {
+        if (field.isValid()) {
+            return;
+        }
+        boolean invalidChildFound = false;
+        if (!field.isNull()) {
+            for (int i=0;i<field.getChildCount();i++) {
+                FormField child = field.getChild(i);
+                if (child != null && !child.isValid()) {
+                    invalidChildFound = true;
+                    String childPath = null;
+                    if (invalidPaths != null) {
+                        if (field.getFieldType() == FieldType.ARRAY) {
+                            childPath = path + "[" + i + "]";
+                        } else if (field.getFieldType() == FieldType.UNION) {
+                            childPath = path;
+                        } else {
+                            childPath = path + "/" + child.fieldName;
+                        }
+                    }
+                    collectInvalidFields(child, childPath, invalidFields, invalidPaths);
+                }
+            }
+        }
+        if (!invalidChildFound) {
+            if (invalidFields != null) {
+                invalidFields.add(field);
+            }
+            if (invalidPaths != null) {
+                invalidPaths.add(path);
+            }
+        }
+    }
+    
     public void finalizeMetadata() {}
     
     public void disableOverride() {
     	isOverride = false;
     	isOverrideDisabled = true;
+    	invalidateContentHash();
     }
 
     public FormField clone() {
@@ -315,11 +437,56 @@ public abstract class FormField implements Serializable, Cloneable, Iterable<For
     
     @Override
     public Iterator<FormField> iterator() {
-        return FormFieldIterator.singletonIterator(this);
+        return FormFieldIterator.depthFirstIterator(this);
+    }
+    
+    public void accept(FormFieldVisitor visitor, FieldType... types) {
+        FormFieldIterator.walk(this, visitor, types);
+    }
+    
+    protected int getChildCount() {
+        return 0;
+    }
+    
+    protected FormField getChild(int index) {
+        return null;
     }
 
     @Override
     public int hashCode() {
+        return id;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        FormField other = (FormField) obj;
+        return id == other.id && context == other.context;
+    }
+    
+    public int contentHashCode() {
+        if (!contentHashValid) {
+            contentHash = computeContentHash();
+            contentHashValid = true;
+        }
+        return contentHash;
+    }
+    
+    protected void invalidateContentHash() {
+        FormField field = this;
+        while (field != null && (field.contentHashValid || field.validity != VALIDITY_UNKNOWN)) {
+            field.contentHashValid = false;
+            field.validity = VALIDITY_UNKNOWN;
+            field = field.parentField;
+        }
+    }
+    
+    protected int computeContentHash() {
         final int prime = 31;
         int result = 1;
         result = prime * result + (changed ? 1231 : 1237);
@@ -338,8 +505,7 @@ public abstract class FormField implements Serializable, Cloneable, Iterable<For
         return result;
     }
 
-    @Override
-    public boolean equals(Object obj) {
+    public boolean contentEquals(Object obj) {
         if (this == obj)
             return true;
         if (obj == null)
@@ -347,6 +513,9 @@ public abstract class FormField implements Serializable, Cloneable, Iterable<For
         if (getClass() != obj.getClass())
             return false;
         FormField other = (FormField) obj;
+        if (contentHashValid && other.contentHashValid 
+                && contentHash != other.contentHash)
+            return false;
         if (changed != other.changed)
             return false;
         if (displayName == null) {
@@ -377,6 +546,34 @@ public abstract class FormField implements Serializable, Cloneable, Iterable<For
         return true;
     }
     
+    protected static int fieldsContentHashCode(List<FormField> fields) {
+        if (fields == null) {
+            return 0;
+        }
+        int result = 1;
+        for (FormField field : fields) {
+            result = 31 * result + (field == null ? 0 : field.contentHashCode());
+        }
+        return result;
+    }
+    
+    protected static boolean fieldsContentEquals(List<FormField> fields, List<FormField> otherFields) {
+        if (fields == null || otherFields == null) {
+            return fields == otherFields;
+        }
+        if (fields.size() != otherFields.size()) {
+            return false;
+        }
+        for (int i=0;i<fields.size();i++) {
+            FormField field = fields.get(i);
+            FormField otherField = otherFields.get(i);
+            if (field == null ? otherField != null : !field.contentEquals(otherField)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
     protected static boolean strIsEmpty(String str) {
         return str == null || str.length() == 0;
     }
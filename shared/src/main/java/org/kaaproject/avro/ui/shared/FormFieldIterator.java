@@ -16,152 +16,123 @@
 
 package org.kaaproject.avro.ui.shared;
 
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Iterator;
-import java.util.List;
 import java.util.NoSuchElementException;
 
-public abstract class FormFieldIterator<E> implements Iterator<E> {
+import org.kaaproject.avro.ui.shared.FormFieldVisitor.VisitResult;
 
-    public static <T> Iterable<T> concatItemWithIterable(T value, Iterable<T> iterable) {
-        List<Iterable<T>> inputs = new ArrayList<>();
-        Iterable<T> input = singletoneIterable(value);
-        inputs.add(input);
-        if (iterable != null) {
-            inputs.add(iterable);
-        }
-        return concat(inputs);
-    }
+public abstract class FormFieldIterator<E> implements Iterator<E> {
     
-    public static <T> Iterable<T> concatItemWithCollection(T value, Collection<? extends Iterable<T>> values) {
-        List<Iterable<T>> inputs = new ArrayList<>();
-        Iterable<T> input = singletoneIterable(value);
-        inputs.add(input);
-        if (values != null) {
-            inputs.addAll(values);
-        }
-        return concat(inputs);
+    private static final int INITIAL_DEPTH = 16;
+    
+    public static DepthFirstIterator depthFirstIterator(FormField root) {
+        return new DepthFirstIterator(root);
     }
     
-    public static <T> FormFieldIterator<T> singletonIterator(final T value) {
-        return new FormFieldIterator<T>() {
-            
-            boolean done;
-            
-            public boolean hasNext() {
-                return !done;
-            }
-
-            public T next() {
-                if (done) {
-                    throw new NoSuchElementException();
+    public static void walk(FormField root, FormFieldVisitor visitor, FieldType... types) {
+        DepthFirstIterator iterator = new DepthFirstIterator(root);
+        while (iterator.hasNext()) {
+            FormField field = iterator.next();
+            if (matchesType(field, types)) {
+                VisitResult result = visitor.visit(field);
+                if (result == VisitResult.TERMINATE) {
+                    return;
+                } else if (result == VisitResult.SKIP_CHILDREN) {
+                    iterator.skipChildren();
                 }
-                done = true;
-                return value;
             }
-        };
+        }
     }
     
-    static final FormFieldIterator<Object> EMPTY_ITERATOR = new FormFieldIterator<Object>() {
-        public boolean hasNext() {
-            return false;
+    private static boolean matchesType(FormField field, FieldType[] types) {
+        if (types == null || types.length == 0) {
+            return true;
         }
-
-        public Object next() {
-            throw new NoSuchElementException();
+        FieldType fieldType = field.getFieldType();
+        for (FieldType type : types) {
+            if (type == fieldType) {
+                return true;
+            }
         }
-    };
-
-    @SuppressWarnings("unchecked")
-    private static <T> FormFieldIterator<T> emptyIterator() {
-        return (FormFieldIterator<T>) EMPTY_ITERATOR;
+        return false;
     }
-    
-    private static <T> Iterable<T> singletoneIterable(final T value) {
-        return new IterableWithToString<T>() {
-            @Override
-            public Iterator<T> iterator() {
-                return singletonIterator(value);
+
+    public static final class DepthFirstIterator extends FormFieldIterator<FormField> {
+        
+        private FormField[] stack = new FormField[INITIAL_DEPTH];
+        private int[] positions = new int[INITIAL_DEPTH];
+        private int depth = -1;
+        
+        private FormField next;
+        private FormField expand;
+        
+        private DepthFirstIterator(FormField root) {
+            this.next = root;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = advance();
             }
-        };
-    }
-    
-    private static <T> Iterable<T> concat(
-            final Iterable<? extends Iterable<? extends T>> inputs) {
-        checkNotNull(inputs);
-        return new IterableWithToString<T>() {
-            public Iterator<T> iterator() {
-                return concat(iterators(inputs));
+            return next != null;
+        }
+
+        @Override
+        public FormField next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
             }
-        };
-    }
+            FormField current = next;
+            next = null;
+            expand = current;
+            return current;
+        }
         
-    private static <T> FormFieldIterator<Iterator<? extends T>> iterators(
-            Iterable<? extends Iterable<? extends T>> iterables) {
-          final Iterator<? extends Iterable<? extends T>> iterableIterator =
-              iterables.iterator();
-          return new FormFieldIterator<Iterator<? extends T>>() {
-            public boolean hasNext() {
-              return iterableIterator.hasNext();
+        public void skipChildren() {
+            if (next != null) {
+                throw new IllegalStateException("skipChildren() must be called before hasNext()!");
             }
-            public Iterator<? extends T> next() {
-              return iterableIterator.next().iterator();
+            expand = null;
+        }
+        
+        private FormField advance() {
+            if (expand != null) {
+                push(expand);
+                expand = null;
             }
-          };
-    }
-    
-    private static <T> FormFieldIterator<T> concat(
-            final Iterator<? extends Iterator<? extends T>> inputs) {
-        checkNotNull(inputs);
-        return new FormFieldIterator<T>() {
-            Iterator<? extends T> current = emptyIterator();
-
-            public boolean hasNext() {
-                boolean currentHasNext;
-                while (!(currentHasNext = checkNotNull(current).hasNext())
-                        && inputs.hasNext()) {
-                    current = inputs.next();
+            while (depth >= 0) {
+                FormField parent = stack[depth];
+                int position = positions[depth];
+                if (position < parent.getChildCount()) {
+                    positions[depth] = position + 1;
+                    FormField child = parent.getChild(position);
+                    if (child != null) {
+                        return child;
+                    }
+                } else {
+                    stack[depth--] = null;
                 }
-                return currentHasNext;
             }
-
-            public T next() {
-                if (!hasNext()) {
-                    throw new NoSuchElementException();
+            return null;
+        }
+        
+        private void push(FormField field) {
+            if (field.getChildCount() == 0) {
+                return;
+            }
+            if (++depth == stack.length) {
+                FormField[] newStack = new FormField[stack.length * 2];
+                int[] newPositions = new int[positions.length * 2];
+                for (int i = 0; i < depth; i++) {
+                    newStack[i] = stack[i];
+                    newPositions[i] = positions[i];
                 }
-                return current.next();
+                stack = newStack;
+                positions = newPositions;
             }
-        };
-    }
-    
-    private static String toString(Iterable<?> iterable) {
-            return toString(iterable.iterator());
-    }
-    
-    private static String toString(Iterator<?> iterator) {
-        if (!iterator.hasNext()) {
-            return "[]";
-        }
-        StringBuilder builder = new StringBuilder();
-        builder.append('[').append(iterator.next());
-        while (iterator.hasNext()) {
-            builder.append(", ").append(iterator.next());
-        }
-        return builder.append(']').toString();
-    }
-    
-    private static <T> T checkNotNull(T reference) {
-        if (reference == null) {
-            throw new NullPointerException();
-        }
-        return reference;
-    }
-    
-    abstract static class IterableWithToString<E> implements Iterable<E> {
-        @Override
-        public String toString() {
-            return FormFieldIterator.toString(this);
+            stack[depth] = field;
+            positions[depth] = 0;
         }
     }
 
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.avro.ui.shared;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FormHistory {
+    
+    public static final int MAX_STEPS = 1000;
+    
+    private final FormContext context;
+    private final List<HistoryListener> listeners = new ArrayList<>();
+    
+    private Node undoTop;
+    private Node redoTop;
+    private int undoSteps = 0;
+    private int nextStep = 0;
+    private int batchStep = -1;
+    private boolean sealed = true;
+    private boolean replaying = false;
+    
+    FormHistory(FormContext context) {
+        this.context = context;
+    }
+    
+    public boolean canUndo() {
+        return undoTop != null;
+    }
+    
+    public boolean canRedo() {
+        return redoTop != null;
+    }
+    
+    public boolean isReplaying() {
+        return replaying;
+    }
+    
+    public Snapshot getSnapshot() {
+        sealed = true;
+        return new Snapshot(topDelta(undoTop));
+    }
+    
+    public boolean undo() {
+        if (undoTop == null) {
+            return false;
+        }
+        int step = undoTop.delta.step;
+        beginReplay();
+        try {
+            while (undoTop != null && undoTop.delta.step == step) {
+                Delta delta = undoTop.delta;
+                undoTop = undoTop.next;
+                redoTop = new Node(delta, redoTop);
+                delta.apply(delta.oldValue);
+            }
+            undoSteps--;
+        } finally {
+            endReplay();
+        }
+        return true;
+    }
+    
+    public boolean redo() {
+        if (redoTop == null) {
+            return false;
+        }
+        int step = redoTop.delta.step;
+        beginReplay();
+        try {
+            while (redoTop != null && redoTop.delta.step == step) {
+                Delta delta = redoTop.delta;
+                redoTop = redoTop.next;
+                undoTop = new Node(delta, undoTop);
+                delta.apply(delta.newValue);
+            }
+            undoSteps++;
+        } finally {
+            endReplay();
+        }
+        return true;
+    }
+    
+    public boolean restore(Snapshot snapshot) {
+        if (snapshot.top == null || contains(undoTop, snapshot.top)) {
+            while (topDelta(undoTop) != snapshot.top && undo()) {}
+        } else if (contains(redoTop, snapshot.top)) {
+            while (topDelta(undoTop) != snapshot.top && redo()) {}
+        }
+        return topDelta(undoTop) == snapshot.top;
+    }
+    
+    public void seal() {
+        sealed = true;
+    }
+    
+    public void clear() {
+        undoTop = null;
+        redoTop = null;
+        undoSteps = 0;
+        sealed = true;
+        fireHistoryChanged();
+    }
+    
+    public void addHistoryListener(HistoryListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeHistoryListener(HistoryListener listener) {
+        listeners.remove(listener);
+    }
+    
+    void beginBatch() {
+        batchStep = nextStep++;
+        sealed = true;
+    }
+    
+    void commitBatch() {
+        batchStep = -1;
+        sealed = true;
+    }
+    
+    void record(FormField field, Object oldValue, Object newValue) {
+        if (replaying) {
+            return;
+        }
+        redoTop = null;
+        if (batchStep < 0 && !sealed && undoTop != null && undoTop.delta.field == field) {
+            Delta top = undoTop.delta;
+            undoTop = new Node(new Delta(field, top.oldValue, newValue, top.step), undoTop.next);
+        } else {
+            int step = batchStep > -1 ? batchStep : nextStep++;
+            if (undoTop == null || undoTop.delta.step != step) {
+                undoSteps++;
+            }
+            undoTop = new Node(new Delta(field, oldValue, newValue, step), undoTop);
+            sealed = false;
+            if (undoSteps > MAX_STEPS) {
+                trim();
+            }
+        }
+        fireHistoryChanged();
+    }
+    
+    private void trim() {
+        Node node = undoTop;
+        int steps = 1;
+        while (node.next != null) {
+            if (node.next.delta.step != node.delta.step) {
+                if (steps == MAX_STEPS) {
+                    node.next = null;
+                    break;
+                }
+                steps++;
+            }
+            node = node.next;
+        }
+        undoSteps = steps;
+    }
+    
+    private void beginReplay() {
+        replaying = true;
+        sealed = true;
+        context.beginBatch();
+    }
+    
+    private void endReplay() {
+        try {
+            context.commitBatch();
+        } finally {
+            replaying = false;
+        }
+        fireHistoryChanged();
+    }
+    
+    private void fireHistoryChanged() {
+        for (HistoryListener listener : new ArrayList<>(listeners)) {
+            listener.onHistoryChanged(this);
+        }
+    }
+    
+    private static Delta topDelta(Node node) {
+        return node != null ? node.delta : null;
+    }
+    
+    private static boolean contains(Node from, Delta delta) {
+        for (Node node = from; node != null; node = node.next) {
+            if (node.delta == delta) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    public static interface HistoryListener {
+        
+        void onHistoryChanged(FormHistory history);
+        
+    }
+    
+    public static class Snapshot {
+        
+        private final Delta top;
+        
+        private Snapshot(Delta top) {
+            this.top = top;
+        }
+        
+    }
+    
+    private static class Node {
+        
+        private final Delta delta;
+        private Node next;
+        
+        Node(Delta delta, Node next) {
+            this.delta = delta;
+            this.next = next;
+        }
+        
+    }
+    
+    private static class Delta {
+        
+        private final FormField field;
+        private final Object oldValue;
+        private final Object newValue;
+        private final int step;
+        
+        Delta(FormField field, Object oldValue, Object newValue, int step) {
+            this.field = field;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+            this.step = step;
+        }
+        
+        void apply(Object value) {
+            if (field.getContext() != null) {
+                field.restoreValue(value);
+            }
+        }
+        
+    }
+
+}
@@ -25,6 +25,10 @@ public class Fqn implements Serializable, Comparable<Fqn> {
     protected String namespace;
     protected String name;
     
+    private transient String fqnString;
+    private transient int hash;
+    private transient boolean shared;
+    
     public Fqn() {
     }
     
@@ -49,7 +53,9 @@ public class Fqn implements Serializable, Comparable<Fqn> {
     }
 
     public void setNamespace(String namespace) {
+        checkNotShared();
         this.namespace = namespace;
+        resetCachedValues();
     }
     
     public String getName() {
@@ -57,19 +63,48 @@ public class Fqn implements Serializable, Comparable<Fqn> {
     }
 
     public void setName(String name) {
+        checkNotShared();
         this.name = name;
+        resetCachedValues();
+    }
+    
+    /**
+     * Marks this instance as shared between several owners (e.g. interned by
+     * {@link FqnPool}). Shared instances can not be modified, use
+     * {@link #Fqn(Fqn)} to obtain a modifiable copy.
+     */
+    void markShared() {
+        shared = true;
+    }
+    
+    public boolean isShared() {
+        return shared;
+    }
+    
+    protected void checkNotShared() {
+        if (shared) {
+            throw new UnsupportedOperationException("Shared FQN " + getFqnString() + " can not be modified!");
+        }
+    }
+    
+    protected void resetCachedValues() {
+        fqnString = null;
+        hash = 0;
     }
     
     public String getFqnString() {
-        if (namespace != null && !namespace.isEmpty() &&
+        if (fqnString == null && namespace != null && !namespace.isEmpty() &&
                 name != null && !name.isEmpty()) {
-            return namespace + "." + name;
+            fqnString = namespace + "." + name;
         }
-        return null;
+        return fqnString;
     }
     
     @Override
     public int compareTo(Fqn o) {
+        if (o == this) {
+            return 0;
+        }
         if (o == null) {
             return 1;
         }
@@ -100,12 +135,15 @@ public class Fqn implements Serializable, Comparable<Fqn> {
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((name == null) ? 0 : name.hashCode());
-        result = prime * result
-                + ((namespace == null) ? 0 : namespace.hashCode());
-        return result;
+        if (hash == 0) {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + ((name == null) ? 0 : name.hashCode());
+            result = prime * result
+                    + ((namespace == null) ? 0 : namespace.hashCode());
+            hash = result;
+        }
+        return hash;
     }
 
     @Override
@@ -117,6 +155,8 @@ public class Fqn implements Serializable, Comparable<Fqn> {
         if (getClass() != obj.getClass())
             return false;
         Fqn other = (Fqn) obj;
+        if (hashCode() != other.hashCode())
+            return false;
         if (name == null) {
             if (other.name != null)
                 return false;
@@ -26,6 +26,8 @@ public class FqnKey implements Serializable {
     private Fqn fqn;
     private boolean isLocalFqn;
     
+    private transient int hash;
+    
     public FqnKey() {
     }
 
@@ -55,12 +57,15 @@ public class FqnKey implements Serializable {
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((fqn == null) ? 0 : fqn.hashCode());
-        result = prime * result + ((id == null) ? 0 : id.hashCode());
-        result = prime * result + (isLocalFqn ? 1231 : 1237);
-        return result;
+        if (hash == 0) {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + ((fqn == null) ? 0 : fqn.hashCode());
+            result = prime * result + ((id == null) ? 0 : id.hashCode());
+            result = prime * result + (isLocalFqn ? 1231 : 1237);
+            hash = result;
+        }
+        return hash;
     }
 
     @Override
@@ -72,6 +77,10 @@ public class FqnKey implements Serializable {
         if (getClass() != obj.getClass())
             return false;
         FqnKey other = (FqnKey) obj;
+        if (isLocalFqn != other.isLocalFqn)
+            return false;
+        if (hashCode() != other.hashCode())
+            return false;
         if (fqn == null) {
             if (other.fqn != null)
                 return false;
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.kaaproject.avro.ui.shared;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns {@link Fqn} instances of a form context. Returned instances are
+ * shared and therefore read-only.
+ */
+public class FqnPool {
+    
+    private final Map<String, Map<String, Fqn>> fqns = new HashMap<>();
+    private final Map<String, Fqn> fqnStrings = new HashMap<>();
+    private final Map<Integer, FqnKey> localKeys = new HashMap<>();
+    private final Map<Fqn, FqnKey> keys = new HashMap<>();
+    
+    public Fqn getFqn(String namespace, String name) {
+        Map<String, Fqn> names = fqns.get(namespace);
+        if (names == null) {
+            names = new HashMap<>();
+            fqns.put(namespace, names);
+        }
+        Fqn fqn = names.get(name);
+        if (fqn == null) {
+            fqn = new Fqn(namespace, name);
+            fqn.markShared();
+            names.put(name, fqn);
+        }
+        return fqn;
+    }
+    
+    public Fqn getFqn(String fqnString) {
+        Fqn fqn = fqnStrings.get(fqnString);
+        if (fqn == null) {
+            int index = fqnString.lastIndexOf('.');
+            fqn = getFqn(fqnString.substring(0, index), 
+                    fqnString.substring(index+1, fqnString.length()));
+            fqnStrings.put(fqnString, fqn);
+        }
+        return fqn;
+    }
+    
+    public Fqn getFqn(Fqn fqn) {
+        if (fqn == null) {
+            return null;
+        }
+        return getFqn(fqn.getNamespace(), fqn.getName());
+    }
+    
+    public FqnKey getLocalKey(Integer id) {
+        FqnKey key = localKeys.get(id);
+        if (key == null) {
+            key = new FqnKey(id);
+            localKeys.put(id, key);
+        }
+        return key;
+    }
+    
+    public FqnKey getKey(Fqn fqn) {
+        FqnKey key = keys.get(fqn);
+        if (key == null) {
+            fqn = getFqn(fqn);
+            key = new FqnKey(fqn);
+            keys.put(fqn, key);
+        }
+        return key;
+    }
+    
+    public void clear() {
+        fqns.clear();
+        fqnStrings.clear();
+        localKeys.clear();
+        keys.clear();
+    }
+
+}
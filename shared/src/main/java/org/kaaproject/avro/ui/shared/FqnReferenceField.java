@@ -41,14 +41,25 @@ public class FqnReferenceField extends FormField {
     public void setValue(FqnKey value) {
         boolean valueChanged = (this.value == null && value != null) || 
                 (this.value != null && value != null && this.value.getId() != value.getId());
+        FqnKey oldValue = this.value;
         this.value = value;
         if (valueChanged) {
-            fireValueChanged(this.value);
-            context.orderSchemaTypes();
+            fireValueChanged(oldValue, this.value);
+            FormField parent = getParentField();
+            if (parent instanceof RecordField && ((RecordField)parent).isTypeConsumer()) {
+                context.orderTypeConsumer((RecordField)parent);
+            } else {
+                context.orderSchemaTypes();
+            }
         }
         fireChanged();
     }
     
+    @Override
+    protected void restoreValue(Object value) {
+        setValue((FqnKey)value);
+    }
+    
     public Fqn getFqnValue() {
         if (value != null) {
             return context.getDeclaredTypes().get(value);
@@ -91,6 +102,11 @@ public class FqnReferenceField extends FormField {
         clonedLongField.value = value;
     }
 
+    @Override
+    protected boolean isValidityContextDependent() {
+        return true;
+    }
+
     @Override
     protected boolean valid() {
         if (value != null && !context.containsDeclaredType(value)) {
@@ -100,18 +116,18 @@ public class FqnReferenceField extends FormField {
     }
 
     @Override
-    public int hashCode() {
+    protected int computeContentHash() {
         final int prime = 31;
-        int result = super.hashCode();
+        int result = super.computeContentHash();
         result = prime * result + ((value == null) ? 0 : value.hashCode());
         return result;
     }
 
     @Override
-    public boolean equals(Object obj) {
+    public boolean contentEquals(Object obj) {
         if (this == obj)
             return true;
-        if (!super.equals(obj))
+        if (!super.contentEquals(obj))
             return false;
         if (getClass() != obj.getClass())
             return false;
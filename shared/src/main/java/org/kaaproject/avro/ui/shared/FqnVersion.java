@@ -22,6 +22,8 @@ public class FqnVersion extends Fqn {
     
     private int version;
     
+    private transient Fqn fqn;
+    
     public FqnVersion() {
         super();
     }
@@ -42,7 +44,17 @@ public class FqnVersion extends Fqn {
     }
     
     public Fqn getFqn() {
-        return new Fqn(this.namespace, this.name);
+        if (fqn == null) {
+            fqn = new Fqn(this.namespace, this.name);
+            fqn.markShared();
+        }
+        return fqn;
+    }
+    
+    @Override
+    protected void resetCachedValues() {
+        super.resetCachedValues();
+        fqn = null;
     }
 
     public int getVersion() {
@@ -50,6 +62,7 @@ public class FqnVersion extends Fqn {
     }
 
     public void setVersion(int version) {
+        checkNotShared();
         this.version = version;
     }
 
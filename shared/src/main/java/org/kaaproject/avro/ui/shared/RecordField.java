@@ -19,7 +19,6 @@ package org.kaaproject.avro.ui.shared;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Iterator;
 import java.util.List;
 
 public class RecordField extends FqnField {
@@ -133,7 +132,7 @@ public class RecordField extends FqnField {
                 namespace = context.getRootRecord().getDeclaredFqn().getNamespace();
             }
             if (!strIsEmpty(name) && !strIsEmpty(namespace)) {
-                return new Fqn(namespace, name);
+                return context != null ? context.getFqnPool().getFqn(namespace, name) : new Fqn(namespace, name);
             }
         }
         return null;
@@ -247,6 +246,7 @@ public class RecordField extends FqnField {
             int index = getFieldIndex(name);
             if (index > -1) {
                 FormField field = value.remove(index);
+                invalidateContentHash();
                 if (field != null) {
                     field.dispose();
                 }
@@ -339,18 +339,23 @@ public class RecordField extends FqnField {
     
     public void create() {
         if (isNull) {
-            RecordField recordField = context.getRecordMetadata(getFqn());
-            for (FormField field : recordField.getValue()) {
-                FormField newField = field.clone();
-                newField.setParentField(this);
-                value.add(newField);
-            }
-            if (isOverrideDisabled()) {
-            	disableOverride();
+            context.beginBatch();
+            try {
+                RecordField recordField = context.getRecordMetadata(getFqn());
+                for (FormField field : recordField.getValue()) {
+                    FormField newField = field.clone();
+                    newField.setParentField(this);
+                    value.add(newField);
+                }
+                if (isOverrideDisabled()) {
+                	disableOverride();
+                }
+                isNull = false;
+                fireChanged();
+                registerListeners();
+            } finally {
+                context.commitBatch();
             }
-            isNull = false;
-            fireChanged();
-            registerListeners();
         }
     }
     
@@ -375,12 +380,10 @@ public class RecordField extends FqnField {
             }
         } else if (isTypeConsumer) {
             context.registerTypeConsumer(this);
-            if (context.isCtlSchema()) {
-                consumedFqnValueChangeListener = new ConsumedFqnValueChangeListener(this);
-                FormField fqnField = getFieldByName(FQN_FIELD);
-                if (fqnField != null) {
-                    fqnField.addValueChangeListener(consumedFqnValueChangeListener);
-                }
+            consumedFqnValueChangeListener = new ConsumedFqnValueChangeListener(this);
+            FormField fqnField = getFieldByName(FQN_FIELD);
+            if (fqnField != null) {
+                fqnField.addValueChangeListener(consumedFqnValueChangeListener);
             }
         }
     }
@@ -455,7 +458,7 @@ public class RecordField extends FqnField {
 
         @Override
         public void onValueChanged(Object value) {
-            recordField.context.updateCtlDependencies();
+            recordField.context.updateTypeConsumer(recordField);
         }
     }
     
@@ -515,7 +518,7 @@ public class RecordField extends FqnField {
     }
     
     @Override
-    public boolean isValid() {
+    protected boolean computeValid() {
         if (isOverride() && !isChanged()) {
             return true;
         } else if (isOptional()) {
@@ -529,6 +532,11 @@ public class RecordField extends FqnField {
         }
     }
 
+    @Override
+    protected boolean isValidityContextDependent() {
+        return isTypeHolder;
+    }
+
     @Override
     protected boolean valid() {
         boolean valid = true;
@@ -546,34 +554,36 @@ public class RecordField extends FqnField {
     }
     
     @Override
-    public Iterator<FormField> iterator() {
-        return FormFieldIterator.concatItemWithCollection(this, value).iterator();
+    protected int getChildCount() {
+        return value != null ? value.size() : 0;
+    }
+    
+    @Override
+    protected FormField getChild(int index) {
+        return value.get(index);
     }
 
     @Override
-    public int hashCode() {
+    protected int computeContentHash() {
         final int prime = 31;
-        int result = super.hashCode();
+        int result = super.computeContentHash();
         result = prime * result + (isNull ? 1231 : 1237);
-        result = prime * result + ((value == null) ? 0 : value.hashCode());
+        result = prime * result + fieldsContentHashCode(value);
         return result;
     }
 
     @Override
-    public boolean equals(Object obj) {
+    public boolean contentEquals(Object obj) {
         if (this == obj)
             return true;
-        if (!super.equals(obj))
+        if (!super.contentEquals(obj))
             return false;
         if (getClass() != obj.getClass())
             return false;
         RecordField other = (RecordField) obj;
         if (isNull != other.isNull)
             return false;
-        if (value == null) {
-            if (other.value != null)
-                return false;
-        } else if (!value.equals(other.value))
+        if (!fieldsContentEquals(value, other.value))
             return false;
         return true;
     }
@@ -59,12 +59,18 @@ public class StringField extends SizedField {
     public void setValue(String value) {
         if ((this.value == null && value != null) || 
             (this.value != null && !this.value.equals(value))) {
+                Object oldValue = this.value;
                 this.value = value;
-                fireValueChanged(this.value);
+                fireValueChanged(oldValue, this.value);
         }
         fireChanged();
     }
     
+    @Override
+    protected void restoreValue(Object value) {
+        setValue((String)value);
+    }
+    
     public void setInputType(InputType inputType) {
         this.inputType = inputType;
     }
@@ -108,9 +114,9 @@ public class StringField extends SizedField {
     }
 
     @Override
-    public int hashCode() {
+    protected int computeContentHash() {
         final int prime = 31;
-        int result = super.hashCode();
+        int result = super.computeContentHash();
         result = prime * result
                 + ((defaultValue == null) ? 0 : defaultValue.hashCode());
         result = prime * result
@@ -120,10 +126,10 @@ public class StringField extends SizedField {
     }
 
     @Override
-    public boolean equals(Object obj) {
+    public boolean contentEquals(Object obj) {
         if (this == obj)
             return true;
-        if (!super.equals(obj))
+        if (!super.contentEquals(obj))
             return false;
         if (getClass() != obj.getClass())
             return false;
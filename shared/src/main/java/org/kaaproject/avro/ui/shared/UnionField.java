@@ -17,7 +17,6 @@
 package org.kaaproject.avro.ui.shared;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 public class UnionField extends FormField {
@@ -70,6 +69,8 @@ public class UnionField extends FormField {
                                (this.value != null && value != null && 
                                 this.value.getId() != value.getId());
         
+        invalidateContentHash();
+        
         if (this.value != null && disposeOld) {
             this.value.setParentField(null);
             FormField oldValue = this.value;
@@ -178,46 +179,46 @@ public class UnionField extends FormField {
     }
     
     @Override
-    public Iterator<FormField> iterator() {
-        return FormFieldIterator.concatItemWithIterable(this, value).iterator();
+    protected int getChildCount() {
+        return value != null ? 1 : 0;
+    }
+    
+    @Override
+    protected FormField getChild(int index) {
+        return value;
     }
 
     @Override
-    public int hashCode() {
+    protected int computeContentHash() {
         final int prime = 31;
-        int result = super.hashCode();
-        result = prime
-                * result
-                + ((acceptableValues == null) ? 0 : acceptableValues.hashCode());
+        int result = super.computeContentHash();
+        result = prime * result + fieldsContentHashCode(acceptableValues);
         result = prime * result
-                + ((defaultValue == null) ? 0 : defaultValue.hashCode());
-        result = prime * result + ((value == null) ? 0 : value.hashCode());
+                + ((defaultValue == null) ? 0 : defaultValue.contentHashCode());
+        result = prime * result + ((value == null) ? 0 : value.contentHashCode());
         return result;
     }
 
     @Override
-    public boolean equals(Object obj) {
+    public boolean contentEquals(Object obj) {
         if (this == obj)
             return true;
-        if (!super.equals(obj))
+        if (!super.contentEquals(obj))
             return false;
         if (getClass() != obj.getClass())
             return false;
         UnionField other = (UnionField) obj;
-        if (acceptableValues == null) {
-            if (other.acceptableValues != null)
-                return false;
-        } else if (!acceptableValues.equals(other.acceptableValues))
+        if (!fieldsContentEquals(acceptableValues, other.acceptableValues))
             return false;
         if (defaultValue == null) {
             if (other.defaultValue != null)
                 return false;
-        } else if (!defaultValue.equals(other.defaultValue))
+        } else if (!defaultValue.contentEquals(other.defaultValue))
             return false;
         if (value == null) {
             if (other.value != null)
                 return false;
-        } else if (!value.equals(other.value))
+        } else if (!value.contentEquals(other.value))
             return false;
         return true;
     }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014-2015 CyberVision, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.kaaproject.avro.ui.shared;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FqnPoolTest {
+
+    @Test
+    public void testInternedFqns() {
+        FqnPool pool = new FqnPool();
+        Fqn fqn = pool.getFqn("org.kaaproject.avro.ui.test", "TypeA");
+        Assert.assertSame(fqn, pool.getFqn("org.kaaproject.avro.ui.test", "TypeA"));
+        Assert.assertSame(fqn, pool.getFqn("org.kaaproject.avro.ui.test.TypeA"));
+        Assert.assertSame(fqn, pool.getFqn(new Fqn("org.kaaproject.avro.ui.test.TypeA")));
+        Assert.assertNotSame(fqn, pool.getFqn("org.kaaproject.avro.ui.test", "TypeB"));
+        Assert.assertSame(pool.getKey(fqn), pool.getKey(new Fqn("org.kaaproject.avro.ui.test.TypeA")));
+        Assert.assertSame(pool.getLocalKey(1), pool.getLocalKey(1));
+
+        pool.clear();
+        Fqn newFqn = pool.getFqn("org.kaaproject.avro.ui.test.TypeA");
+        Assert.assertNotSame(fqn, newFqn);
+        Assert.assertEquals(fqn, newFqn);
+    }
+
+    @Test
+    public void testInternedFqnIsReadOnly() {
+        FqnPool pool = new FqnPool();
+        Fqn fqn = pool.getFqn("org.kaaproject.avro.ui.test", "TypeA");
+        Assert.assertTrue(fqn.isShared());
+        try {
+            fqn.setName("TypeB");
+            Assert.fail("Shared FQN was modified");
+        } catch (UnsupportedOperationException e) {
+        }
+        try {
+            fqn.setNamespace("org.kaaproject.avro.ui.other");
+            Assert.fail("Shared FQN was modified");
+        } catch (UnsupportedOperationException e) {
+        }
+        Assert.assertEquals("org.kaaproject.avro.ui.test.TypeA", fqn.getFqnString());
+        Assert.assertSame(fqn, pool.getFqn("org.kaaproject.avro.ui.test.TypeA"));
+
+        Fqn copy = new Fqn(fqn);
+        Assert.assertFalse(copy.isShared());
+        copy.setName("TypeB");
+        Assert.assertEquals("org.kaaproject.avro.ui.test.TypeB", copy.getFqnString());
+        Assert.assertEquals("org.kaaproject.avro.ui.test.TypeA", fqn.getFqnString());
+    }
+
+    @Test
+    public void testCachedValuesInvalidation() {
+        Fqn fqn = new Fqn("org.kaaproject.avro.ui.test", "TypeA");
+        Assert.assertEquals("org.kaaproject.avro.ui.test.TypeA", fqn.getFqnString());
+        int hash = fqn.hashCode();
+
+        fqn.setName("TypeB");
+        Assert.assertEquals("org.kaaproject.avro.ui.test.TypeB", fqn.getFqnString());
+        Assert.assertEquals(new Fqn("org.kaaproject.avro.ui.test", "TypeB").hashCode(), fqn.hashCode());
+        Assert.assertNotEquals(hash, fqn.hashCode());
+        Assert.assertEquals(new Fqn("org.kaaproject.avro.ui.test", "TypeB"), fqn);
+
+        fqn.setNamespace("org.kaaproject.avro.ui.other");
+        Assert.assertEquals("org.kaaproject.avro.ui.other.TypeB", fqn.getFqnString());
+        Assert.assertEquals(new Fqn("org.kaaproject.avro.ui.other.TypeB"), fqn);
+    }
+
+    @Test
+    public void testFqnVersion() {
+        FqnVersion fqnVersion = new FqnVersion("org.kaaproject.avro.ui.test", "TypeA", 1);
+        Fqn fqn = fqnVersion.getFqn();
+        Assert.assertSame(fqn, fqnVersion.getFqn());
+        Assert.assertTrue(fqn.isShared());
+        Assert.assertEquals(new Fqn("org.kaaproject.avro.ui.test.TypeA"), fqn);
+
+        fqnVersion.setName("TypeB");
+        Assert.assertEquals("org.kaaproject.avro.ui.test.TypeB", fqnVersion.getFqnString());
+        Assert.assertEquals(new Fqn("org.kaaproject.avro.ui.test.TypeB"), fqnVersion.getFqn());
+        Assert.assertEquals("org.kaaproject.avro.ui.test.TypeA", fqn.getFqnString());
+        Assert.assertEquals(new FqnVersion("org.kaaproject.avro.ui.test.TypeB", 1), fqnVersion);
+    }
+
+}